@@ -0,0 +1,54 @@
+package com.example.demo.routematcher;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 在 generate-sources 阶段读取 schema 配置，生成路由匹配器源码并加入编译源码目录
+ */
+@Mojo(name = "generate", defaultPhase = LifecyclePhase.GENERATE_SOURCES, threadSafe = true)
+public class GenerateRouteMatcherMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * 包含 json-schema 配置的 application.yml
+     */
+    @Parameter(property = "routeMatcher.configFile", defaultValue = "${project.basedir}/src/main/resources/application.yml")
+    private File configFile;
+
+    /**
+     * 生成源码的输出目录
+     */
+    @Parameter(property = "routeMatcher.outputDirectory", defaultValue = "${project.build.directory}/generated-sources/route-matcher")
+    private File outputDirectory;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        try {
+            List<RouteDefinition> routes = SchemaConfigReader.read(configFile.toPath());
+            Path target = outputDirectory.toPath()
+                    .resolve(RouteMatcherGenerator.PACKAGE_NAME.replace('.', File.separatorChar))
+                    .resolve(RouteMatcherGenerator.CLASS_NAME + ".java");
+            Files.createDirectories(target.getParent());
+            Files.write(target, RouteMatcherGenerator.generate(routes).getBytes(StandardCharsets.UTF_8));
+            project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+            getLog().info(String.format("Generated route matcher for %d routes from %s (routes hash %s)",
+                    routes.size(), configFile, RouteMatcherGenerator.routesHash(routes)));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to generate route matcher from " + configFile, e);
+        }
+    }
+}
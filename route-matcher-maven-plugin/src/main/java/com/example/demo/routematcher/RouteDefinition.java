@@ -0,0 +1,59 @@
+package com.example.demo.routematcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 需要生成匹配代码的单个路由：请求方法和 URI 模板
+ */
+public final class RouteDefinition {
+
+    private static final Pattern PATH_VARIABLE_PATTERN = Pattern.compile("^\\{[a-zA-Z0-9_]+\\}$");
+
+    private final String method;
+
+    private final String uriTemplate;
+
+    /**
+     * 路径段，路径变量所在位置的元素为 null
+     */
+    private final String[] literals;
+
+    public RouteDefinition(String method, String uriTemplate) {
+        this.method = method;
+        this.uriTemplate = uriTemplate;
+        List<String> segments = new ArrayList<>();
+        for (String segment : uriTemplate.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(PATH_VARIABLE_PATTERN.matcher(segment).matches() ? null : segment);
+            }
+        }
+        this.literals = segments.toArray(new String[0]);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUriTemplate() {
+        return uriTemplate;
+    }
+
+    public String[] getLiterals() {
+        return literals;
+    }
+
+    /**
+     * 用于判重的路由键，路径变量统一替换为 {}，与运行时的判重规则一致
+     *
+     * @return 路由键
+     */
+    String routeKey() {
+        StringBuilder key = new StringBuilder(method).append(' ');
+        for (String literal : literals) {
+            key.append('/').append(literal == null ? "{}" : literal);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.demo.routematcher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 根据路由列表生成 GeneratedRouteMatcher 的 Java 源码。
+ * <p>
+ * 生成的代码先按请求方法、再按路径段数量 switch，之后逐段对字面量做 String switch，
+ * 字面量分支未命中时回退到路径变量分支，与运行时前缀树"字面量优先、可回溯"的语义一致；
+ * 路径变量按出现顺序直接写入调用方传入的槽位数组。
+ * 子树较大或 switch 分支较多时拆分为独立的方法，避免单个方法超出 64KB 的字节码限制。
+ */
+public final class RouteMatcherGenerator {
+
+    public static final String PACKAGE_NAME = "com.example.demo.jsonschema.generated";
+
+    public static final String CLASS_NAME = "GeneratedRouteMatcherImpl";
+
+    /**
+     * 子树中的路由数量超过该值时拆分为独立方法
+     */
+    static final int MAX_INLINE_ROUTES = 64;
+
+    /**
+     * 单个 switch 的最大分支数量，超过后拆分为多个方法依次尝试
+     */
+    static final int MAX_SWITCH_CASES = 256;
+
+    private final List<StringBuilder> methods = new ArrayList<>();
+
+    private int methodCount;
+
+    private RouteMatcherGenerator() {
+    }
+
+    /**
+     * 生成匹配器源码
+     *
+     * @param routes 路由列表，按配置顺序排列
+     * @return Java 源码
+     */
+    public static String generate(List<RouteDefinition> routes) {
+        return new RouteMatcherGenerator().generateSource(routes);
+    }
+
+    /**
+     * 计算路由集合哈希：对每个路由的 "METHOD URI模板" 排序后按行拼接，再计算 SHA-256。
+     * 必须与运行时 RouteTable#routesHash 的算法保持一致。
+     *
+     * @param routes 路由列表
+     * @return 十六进制的哈希值
+     */
+    public static String routesHash(Collection<RouteDefinition> routes) {
+        Set<String> keys = new TreeSet<>();
+        for (RouteDefinition route : routes) {
+            keys.add(route.getMethod() + ' ' + route.getUriTemplate());
+        }
+        StringBuilder content = new StringBuilder();
+        for (String key : keys) {
+            content.append(key).append('\n');
+        }
+        try {
+            byte[] bytes = MessageDigest.getInstance("SHA-256").digest(content.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private String generateSource(List<RouteDefinition> routes) {
+        // 请求方法 -> 路径段数量 -> 前缀树根节点
+        Map<String, Map<Integer, Node>> trees = new TreeMap<>();
+        for (RouteDefinition route : routes) {
+            Node root = trees.computeIfAbsent(route.getMethod(), key -> new TreeMap<>())
+                    .computeIfAbsent(route.getLiterals().length, key -> new Node());
+            root.insert(route);
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE_NAME).append(";\n\n");
+        source.append("import com.example.demo.jsonschema.GeneratedRouteMatcher;\n");
+        source.append("import org.springframework.http.HttpMethod;\n\n");
+        source.append("/**\n * 由 route-matcher-maven-plugin 根据 schema 配置生成，请勿手动修改。\n */\n");
+        source.append("public final class ").append(CLASS_NAME).append(" implements GeneratedRouteMatcher {\n\n");
+        source.append("    private static final String ROUTES_HASH = \"").append(routesHash(routes)).append("\";\n\n");
+        source.append("    @Override\n    public String getRoutesHash() {\n        return ROUTES_HASH;\n    }\n\n");
+        source.append("    @Override\n    public String match(HttpMethod method, String[] s, String[] v) {\n");
+        source.append("        switch (method) {\n");
+        for (String method : trees.keySet()) {
+            source.append("            case ").append(method).append(":\n");
+            source.append("                return match").append(method).append("(s, v);\n");
+        }
+        source.append("            default:\n                return null;\n        }\n    }\n");
+
+        for (Map.Entry<String, Map<Integer, Node>> byMethod : trees.entrySet()) {
+            Code code = new Code();
+            code.line(2, "switch (s.length) {");
+            for (Map.Entry<Integer, Node> bySegments : byMethod.getValue().entrySet()) {
+                String name = emitMethod(bySegments.getValue(), 0, 0, bySegments.getKey());
+                code.line(3, "case " + bySegments.getKey() + ":");
+                code.line(4, "return " + name + "(s, v);");
+            }
+            code.line(3, "default:");
+            code.line(4, "return null;");
+            code.line(2, "}");
+            source.append('\n').append(method("match" + byMethod.getKey(), code));
+        }
+        for (StringBuilder method : methods) {
+            source.append('\n').append(method);
+        }
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * 为子树生成独立的方法
+     */
+    private String emitMethod(Node node, int depth, int slot, int segmentCount) {
+        String name = "m" + methodCount++;
+        Code code = new Code();
+        emitNode(code, 2, node, depth, slot, segmentCount);
+        if (!node.alwaysReturns(depth, segmentCount)) {
+            code.line(2, "return null;");
+        }
+        methods.add(method(name, code));
+        return name;
+    }
+
+    private void emitNode(Code code, int indent, Node node, int depth, int slot, int segmentCount) {
+        if (depth == segmentCount) {
+            code.line(indent, "return " + quote(node.template) + ";");
+            return;
+        }
+        if (!node.literalChildren.isEmpty()) {
+            List<Map.Entry<String, Node>> entries = new ArrayList<>(node.literalChildren.entrySet());
+            if (entries.size() <= MAX_SWITCH_CASES) {
+                emitSwitch(code, indent, entries, depth, slot, segmentCount);
+            } else {
+                code.line(indent, "{");
+                code.line(indent + 1, "String r;");
+                for (int from = 0; from < entries.size(); from += MAX_SWITCH_CASES) {
+                    String name = "m" + methodCount++;
+                    Code chunk = new Code();
+                    emitSwitch(chunk, 2, entries.subList(from, Math.min(from + MAX_SWITCH_CASES, entries.size())),
+                            depth, slot, segmentCount);
+                    chunk.line(2, "return null;");
+                    methods.add(method(name, chunk));
+                    code.line(indent + 1, "if ((r = " + name + "(s, v)) != null) {");
+                    code.line(indent + 2, "return r;");
+                    code.line(indent + 1, "}");
+                }
+                code.line(indent, "}");
+            }
+        }
+        if (node.variableChild != null) {
+            code.line(indent, "v[" + slot + "] = s[" + depth + "];");
+            emitNode(code, indent, node.variableChild, depth + 1, slot + 1, segmentCount);
+        }
+    }
+
+    private void emitSwitch(Code code, int indent, List<Map.Entry<String, Node>> entries, int depth, int slot, int segmentCount) {
+        code.line(indent, "switch (s[" + depth + "]) {");
+        for (Map.Entry<String, Node> entry : entries) {
+            Node child = entry.getValue();
+            code.line(indent + 1, "case " + quote(entry.getKey()) + ": {");
+            if (child.routeCount > MAX_INLINE_ROUTES) {
+                String name = emitMethod(child, depth + 1, slot, segmentCount);
+                code.line(indent + 2, "String r = " + name + "(s, v);");
+                code.line(indent + 2, "if (r != null) {");
+                code.line(indent + 3, "return r;");
+                code.line(indent + 2, "}");
+                code.line(indent + 2, "break;");
+            } else {
+                emitNode(code, indent + 2, child, depth + 1, slot, segmentCount);
+                if (!child.alwaysReturns(depth + 1, segmentCount)) {
+                    code.line(indent + 2, "break;");
+                }
+            }
+            code.line(indent + 1, "}");
+        }
+        code.line(indent, "}");
+    }
+
+    private static StringBuilder method(String name, Code code) {
+        StringBuilder method = new StringBuilder();
+        method.append("    private static String ").append(name).append("(String[] s, String[] v) {\n");
+        method.append(code.text);
+        method.append("    }\n");
+        return method;
+    }
+
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * 按路径段构建的前缀树节点，只包含路径段数量相同的路由
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literalChildren = new LinkedHashMap<>();
+
+        private Node variableChild;
+
+        private String template;
+
+        private int routeCount;
+
+        private void insert(RouteDefinition route) {
+            Node node = this;
+            node.routeCount++;
+            for (String literal : route.getLiterals()) {
+                if (literal == null) {
+                    if (node.variableChild == null) {
+                        node.variableChild = new Node();
+                    }
+                    node = node.variableChild;
+                } else {
+                    node = node.literalChildren.computeIfAbsent(literal, key -> new Node());
+                }
+                node.routeCount++;
+            }
+            // 与运行时一致，结构相同的模板保留先注册的路由
+            if (node.template == null) {
+                node.template = route.getUriTemplate();
+            }
+        }
+
+        /**
+         * 节点生成的代码是否在所有路径上都会 return，用于避免生成不可达的 break 语句
+         */
+        private boolean alwaysReturns(int depth, int segmentCount) {
+            return depth == segmentCount || (variableChild != null && variableChild.alwaysReturns(depth + 1, segmentCount));
+        }
+    }
+
+    /**
+     * 带缩进的代码缓冲区
+     */
+    private static final class Code {
+
+        private final StringBuilder text = new StringBuilder();
+
+        private void line(int indent, String line) {
+            for (int i = 0; i < indent; i++) {
+                text.append("    ");
+            }
+            text.append(line).append('\n');
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.demo.routematcher;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从 application.yml 中读取 json-schema 配置，得到需要生成匹配代码的路由列表。
+ * <p>
+ * 过滤规则与运行时的 JsonSchemaConfig 保持一致：跳过未启用、被排除、请求方法无效或路由重复的配置。
+ * 运行时还会跳过 schema 无效或代价超出预算的配置，这种情况下两端的路由集合哈希不一致，运行时会回退到前缀树，
+ * 不会使用与路由表不匹配的生成代码。
+ */
+public final class SchemaConfigReader {
+
+    private static final Set<String> HTTP_METHODS = new HashSet<>(Arrays.asList(
+            "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"));
+
+    private SchemaConfigReader() {
+    }
+
+    /**
+     * 读取配置文件中的路由
+     *
+     * @param configFile application.yml 路径
+     * @return 路由列表，按配置顺序排列；验证未启用时返回空列表
+     * @throws IOException 读取配置文件失败时抛出
+     */
+    public static List<RouteDefinition> read(Path configFile) throws IOException {
+        try (InputStream in = Files.newInputStream(configFile)) {
+            for (Object document : new Yaml().loadAll(in)) {
+                if (document instanceof Map) {
+                    Object section = get((Map<?, ?>) document, "json-schema", "jsonSchema");
+                    if (section instanceof Map) {
+                        return readSection((Map<?, ?>) section);
+                    }
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private static List<RouteDefinition> readSection(Map<?, ?> section) {
+        List<RouteDefinition> routes = new ArrayList<>();
+        if (!Boolean.parseBoolean(String.valueOf(get(section, "enabled", "enabled")))) {
+            return routes;
+        }
+        Collection<String> excludeUris = strings(get(section, "exclude-uris", "excludeUris"));
+        List<String> includeMethods = strings(get(section, "include-methods", "includeMethods"));
+        Object schemas = get(section, "schemas", "schemas");
+        if (!(schemas instanceof List)) {
+            return routes;
+        }
+
+        Set<String> routeKeys = new HashSet<>();
+        for (Object item : (List<?>) schemas) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> schema = (Map<?, ?>) item;
+            Object uri = schema.get("uri");
+            Object enabled = schema.get("enabled");
+            if (uri == null || (enabled != null && !Boolean.parseBoolean(String.valueOf(enabled)))
+                    || excludeUris.contains(String.valueOf(uri))) {
+                continue;
+            }
+
+            List<String> configured = strings(schema.get("methods"));
+            Set<String> methods = resolveMethods(configured.isEmpty() ? includeMethods : configured);
+            if (methods == null || methods.isEmpty()) {
+                continue;
+            }
+
+            List<RouteDefinition> candidates = new ArrayList<>();
+            boolean duplicated = false;
+            for (String method : methods) {
+                RouteDefinition route = new RouteDefinition(method, String.valueOf(uri));
+                duplicated |= routeKeys.contains(route.routeKey());
+                candidates.add(route);
+            }
+            if (duplicated) {
+                continue;
+            }
+            for (RouteDefinition route : candidates) {
+                routeKeys.add(route.routeKey());
+                routes.add(route);
+            }
+        }
+        return routes;
+    }
+
+    private static Set<String> resolveMethods(List<String> configured) {
+        Set<String> methods = new LinkedHashSet<>();
+        for (String method : configured) {
+            String normalized = method.trim().toUpperCase(Locale.ROOT);
+            if (!HTTP_METHODS.contains(normalized)) {
+                return null;
+            }
+            methods.add(normalized);
+        }
+        return methods;
+    }
+
+    private static Object get(Map<?, ?> map, String kebabCase, String camelCase) {
+        Object value = map.get(kebabCase);
+        return value != null ? value : map.get(camelCase);
+    }
+
+    private static List<String> strings(Object value) {
+        List<String> result = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                if (item != null) {
+                    result.add(String.valueOf(item));
+                }
+            }
+        } else if (value != null) {
+            for (String item : String.valueOf(value).split(",")) {
+                if (!item.trim().isEmpty()) {
+                    result.add(item.trim());
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.routematcher;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 编译生成的源码（使用 GeneratedRouteMatcher 与 HttpMethod 的最小替身），并与逐个模板比较的参考实现对照
+ */
+class RouteMatcherGeneratorTest {
+
+    private static final String MATCHER_STUB = "package com.example.demo.jsonschema;\n"
+            + "public interface GeneratedRouteMatcher {\n"
+            + "    String getRoutesHash();\n"
+            + "    String match(org.springframework.http.HttpMethod method, String[] segments, String[] variables);\n"
+            + "}\n";
+
+    private static final String HTTP_METHOD_STUB = "package org.springframework.http;\n"
+            + "public enum HttpMethod { GET, HEAD, POST, PUT, PATCH, DELETE, OPTIONS, TRACE }\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReadsApplicationYaml() throws Exception {
+        Path config = dir.resolve("application.yml");
+        Files.write(config, ("json-schema:\n"
+                + "  enabled: true\n"
+                + "  exclude-uris:\n"
+                + "    - /api/excluded\n"
+                + "  include-methods:\n"
+                + "    - GET\n"
+                + "  schemas:\n"
+                + "    - uri: /api/users\n"
+                + "      schema: '{}'\n"
+                + "    - uri: /api/users/{userId}\n"
+                + "      methods: [get, post]\n"
+                + "      schema: '{}'\n"
+                + "    - uri: /api/users/{id}\n"
+                + "      schema: '{}'\n"
+                + "    - uri: /api/excluded\n"
+                + "      schema: '{}'\n"
+                + "    - uri: /api/disabled\n"
+                + "      enabled: false\n"
+                + "      schema: '{}'\n").getBytes(StandardCharsets.UTF_8));
+
+        List<RouteDefinition> routes = SchemaConfigReader.read(config);
+        List<String> keys = new ArrayList<>();
+        for (RouteDefinition route : routes) {
+            keys.add(route.getMethod() + " " + route.getUriTemplate());
+        }
+        assertEquals(Arrays.asList("GET /api/users", "GET /api/users/{userId}", "POST /api/users/{userId}"), keys);
+    }
+
+    @Test
+    void testGeneratedMatcherAgreesWithReference() throws Exception {
+        List<RouteDefinition> routes = new ArrayList<>();
+        routes.add(new RouteDefinition("GET", "/api/users/{userId}"));
+        routes.add(new RouteDefinition("GET", "/api/users/me"));
+        routes.add(new RouteDefinition("GET", "/api/users/me/profile"));
+        routes.add(new RouteDefinition("GET", "/api/users/{userId}/settings"));
+        routes.add(new RouteDefinition("GET", "/api/users/{userId}/orders/{orderId}"));
+        routes.add(new RouteDefinition("POST", "/api/users/{userId}"));
+        routes.add(new RouteDefinition("GET", "/"));
+        // 足够多的路由，覆盖拆分方法和拆分 switch 的分支
+        for (int i = 0; i < 600; i++) {
+            routes.add(new RouteDefinition("GET", "/api/route" + i + "/items/{itemId}"));
+            routes.add(new RouteDefinition("PUT", "/api/bulk/r" + i));
+        }
+
+        String source = RouteMatcherGenerator.generate(routes);
+        assertTrue(source.contains("switch (s.length)"));
+        assertTrue(source.contains(RouteMatcherGenerator.routesHash(routes)));
+
+        Object matcher = compile(source);
+        Class<?> httpMethod = matcher.getClass().getClassLoader().loadClass("org.springframework.http.HttpMethod");
+        Method match = matcher.getClass().getMethod("match", httpMethod, String[].class, String[].class);
+
+        List<String> uris = new ArrayList<>(Arrays.asList("/api/users/me", "/api/users/1", "/api/users/me/profile",
+                "/api/users/me/settings", "/api/users/1/profile", "/api/users/1/orders/2", "/api/users/me/orders/3",
+                "/", "/api", "/api/route599/items/9", "/api/route600/items/9", "/api/bulk/r42", "/api/bulk/x"));
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            uris.add("/api/route" + random.nextInt(700) + "/items/" + i);
+        }
+        for (String method : Arrays.asList("GET", "POST", "PUT", "DELETE")) {
+            Object methodValue = httpMethod.getMethod("valueOf", String.class).invoke(null, method);
+            for (String uri : uris) {
+                String[] segments = split(uri);
+                String[] variables = new String[segments.length];
+                String expected = reference(routes, method, segments);
+                assertEquals(expected, match.invoke(matcher, methodValue, segments, variables), method + " " + uri);
+                if (expected != null) {
+                    assertArrayEquals(referenceVariables(expected, segments),
+                            Arrays.copyOf(variables, referenceVariables(expected, segments).length), uri);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQuoteEscapesJavaLiterals() {
+        assertEquals("\"a\\\"b\\\\c\\u00e9\"", RouteMatcherGenerator.quote("a\"b\\cé"));
+    }
+
+    private Object compile(String source) throws Exception {
+        Path src = dir.resolve("src");
+        write(src.resolve("com/example/demo/jsonschema/GeneratedRouteMatcher.java"), MATCHER_STUB);
+        write(src.resolve("org/springframework/http/HttpMethod.java"), HTTP_METHOD_STUB);
+        Path generated = src.resolve(RouteMatcherGenerator.PACKAGE_NAME.replace('.', '/'))
+                .resolve(RouteMatcherGenerator.CLASS_NAME + ".java");
+        write(generated, source);
+
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        int result = compiler.run(null, null, null, "-d", classes.toString(), "-encoding", "UTF-8",
+                src.resolve("com/example/demo/jsonschema/GeneratedRouteMatcher.java").toString(),
+                src.resolve("org/springframework/http/HttpMethod.java").toString(),
+                generated.toString());
+        assertEquals(0, result, "generated source does not compile");
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, getClass().getClassLoader());
+        return loader.loadClass(RouteMatcherGenerator.PACKAGE_NAME + "." + RouteMatcherGenerator.CLASS_NAME)
+                .getDeclaredConstructor().newInstance();
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] split(String uri) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : uri.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    /**
+     * 参考实现：在所有匹配的模板中，按路径段从左到右字面量优先选出第一个，与运行时前缀树的回溯顺序一致
+     */
+    private static String reference(List<RouteDefinition> routes, String method, String[] segments) {
+        RouteDefinition best = null;
+        for (RouteDefinition route : routes) {
+            String[] literals = route.getLiterals();
+            if (!route.getMethod().equals(method) || literals.length != segments.length) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < literals.length && matches; i++) {
+                matches = literals[i] == null || literals[i].equals(segments[i]);
+            }
+            if (matches && (best == null || moreSpecific(literals, best.getLiterals()))) {
+                best = route;
+            }
+        }
+        return best == null ? null : best.getUriTemplate();
+    }
+
+    private static boolean moreSpecific(String[] candidate, String[] current) {
+        for (int i = 0; i < candidate.length; i++) {
+            if ((candidate[i] == null) != (current[i] == null)) {
+                return candidate[i] != null;
+            }
+        }
+        return false;
+    }
+
+    private static String[] referenceVariables(String template, String[] segments) {
+        String[] literals = new RouteDefinition("GET", template).getLiterals();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < literals.length; i++) {
+            if (literals[i] == null) {
+                values.add(segments[i]);
+            }
+        }
+        return values.toArray(new String[0]);
+    }
+}
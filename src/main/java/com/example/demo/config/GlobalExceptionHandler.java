@@ -1,5 +1,8 @@
 package com.example.demo.config;
 
+import com.example.demo.jsonschema.JsonSchemaErrorRenderer;
+import com.example.demo.jsonschema.JsonSchemaValidationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,9 +11,23 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * 处理 JSON Schema 验证异常，直接拼接预先渲染好的错误片段返回结构化的 JSON 响应体
+     *
+     * @param e JSON Schema 验证异常
+     * @return 400 响应
+     */
+    @ExceptionHandler(JsonSchemaValidationException.class)
+    @ResponseBody
+    public ResponseEntity<byte[]> handleJsonSchemaValidationException(JsonSchemaValidationException e) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(JsonSchemaErrorRenderer.renderBody(e));
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseBody
     public ResponseEntity<String> handleBadRequestException(Exception e) {
         return ResponseEntity.badRequest().body(e.getMessage());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,59 @@
+package com.example.demo.config;
+
+import com.example.demo.jsonschema.JsonSchemaConfig;
+import com.example.demo.jsonschema.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 启用 json-schema.virtual-threads 后，让 Tomcat 为每个请求创建一个虚拟线程，代替默认的平台线程池（server.tomcat.threads.max）。
+ * 并发请求数只受 server.tomcat.max-connections 限制，请求在控制器中等待下游 IO 时不再占用平台线程。
+ * 当前 JDK 不支持虚拟线程时只输出警告，Tomcat 保持使用平台线程池。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "json-schema.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    private volatile ExecutorService tomcatExecutor;
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> {
+            if (!jsonSchemaConfig.getVirtualThreads().isTomcat()) {
+                return;
+            }
+            if (!VirtualThreads.isSupported()) {
+                log.warn("Virtual threads are not supported by Java {}, Tomcat keeps its platform thread pool",
+                        System.getProperty("java.version"));
+                return;
+            }
+            factory.addProtocolHandlerCustomizers(protocolHandler -> {
+                tomcatExecutor = VirtualThreads.newThreadPerTaskExecutor("tomcat-handler-");
+                protocolHandler.setExecutor(tomcatExecutor);
+            });
+            log.info("Tomcat request handling runs on virtual threads");
+        };
+    }
+
+    /**
+     * Tomcat 不会关闭外部传入的执行器，在应用关闭时关闭
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (tomcatExecutor != null) {
+            tomcatExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 缓存了原始请求体字节的请求包装类。
+ * <p>
+ * 拦截器从这里取出请求体交给验证服务解析，控制器仍然从 {@link #getInputStream()} 读取完全相同的原始字节，
+ * Smile/CBOR 请求体不会被转换为文本。
+ */
+public class CachedBodyRequestWrapper extends HttpServletRequestWrapper {
+
+    /**
+     * 原始请求体
+     */
+    @Getter
+    private final byte[] body;
+
+    /**
+     * 请求体格式
+     */
+    @Getter
+    private final RequestBodyFormat format;
+
+    public CachedBodyRequestWrapper(HttpServletRequest request, byte[] body, RequestBodyFormat format) {
+        super(request);
+        this.body = body;
+        this.format = format;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream input = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return input.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            /**
+             * 请求体已经全部在内存中，注册后立即通知数据可读和读取完成
+             */
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return input.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return input.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding();
+        Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+}
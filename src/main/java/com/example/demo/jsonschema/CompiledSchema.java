@@ -0,0 +1,192 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.JsonSchema;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 编译后的 JSON Schema 及其在编译期预先生成的附属数据。
+ * <p>
+ * 除了 networknt 的 {@link JsonSchema} 对象外，还会在编译时把 schema 中已知属性对应的
+ * 错误响应片段序列化为字节数组，验证失败时只需拼接这些片段即可生成响应体，
+ * 避免在请求线程上重复查找 errorMessages 节点和序列化 JSON；同时计算 schema 的静态代价和声明的参数名集合。
+ */
+@Getter
+public class CompiledSchema {
+
+    /**
+     * schema 源文本的 SHA-256 内容哈希
+     */
+    private final String hash;
+
+    /**
+     * networknt 编译后的 JsonSchema 对象
+     */
+    private final JsonSchema jsonSchema;
+
+    /**
+     * 属性名到自定义错误消息的映射，来源于 schema 中的 errorMessages 节点
+     */
+    private final Map<String, String> errorMessages;
+
+    /**
+     * 属性名到完整错误片段（包含 property 与自定义 message）的映射
+     */
+    private final Map<String, byte[]> messageFragments;
+
+    /**
+     * 属性名到 property 片段（以 "message": 结尾，等待拼接默认消息）的映射
+     */
+    private final Map<String, byte[]> propertyFragments;
+
+    /**
+     * 编译时计算的静态代价
+     */
+    private final SchemaCost cost;
+
+    /**
+     * schema 声明的参数名，按需解析查询字符串时只解码这些参数
+     */
+    private final DeclaredParameters declaredParameters;
+
+    /**
+     * 编译耗时，单位纳秒，包括 networknt 编译和附属数据的生成
+     */
+    private final long compileNanos;
+
+    private CompiledSchema(String hash, JsonSchema jsonSchema, Map<String, String> errorMessages,
+                           Map<String, byte[]> messageFragments, Map<String, byte[]> propertyFragments, SchemaCost cost,
+                           DeclaredParameters declaredParameters, long compileNanos) {
+        this.hash = hash;
+        this.jsonSchema = jsonSchema;
+        this.errorMessages = errorMessages;
+        this.messageFragments = messageFragments;
+        this.propertyFragments = propertyFragments;
+        this.cost = cost;
+        this.declaredParameters = declaredParameters;
+        this.compileNanos = compileNanos;
+    }
+
+    /**
+     * 根据 JsonSchema 对象生成 CompiledSchema，并预先渲染已知属性的错误片段。
+     *
+     * @param hash       schema 源文本的内容哈希
+     * @param jsonSchema 编译后的 JsonSchema 对象
+     * @return CompiledSchema 对象
+     */
+    public static CompiledSchema of(String hash, JsonSchema jsonSchema) {
+        return of(hash, jsonSchema, System.nanoTime());
+    }
+
+    /**
+     * 根据 JsonSchema 对象生成 CompiledSchema，并记录从 startNanos 开始的编译耗时。
+     *
+     * @param hash       schema 源文本的内容哈希
+     * @param jsonSchema 编译后的 JsonSchema 对象
+     * @param startNanos 开始编译时的 {@link System#nanoTime()}
+     * @return CompiledSchema 对象
+     */
+    public static CompiledSchema of(String hash, JsonSchema jsonSchema, long startNanos) {
+        JsonNode schemaNode = jsonSchema.getSchemaNode();
+        return of(hash, jsonSchema, extractErrorMessages(schemaNode), SchemaCostAnalyzer.analyze(schemaNode), startNanos);
+    }
+
+    /**
+     * 使用已经提取好的错误消息和静态代价生成 CompiledSchema。
+     *
+     * @param hash          schema 源文本的内容哈希
+     * @param jsonSchema    编译后的 JsonSchema 对象
+     * @param errorMessages 属性名到格式化后的自定义错误消息
+     * @param cost          静态代价
+     * @param startNanos    开始编译时的 {@link System#nanoTime()}
+     * @return CompiledSchema 对象
+     */
+    public static CompiledSchema of(String hash, JsonSchema jsonSchema, Map<String, String> errorMessages, SchemaCost cost,
+                                    long startNanos) {
+        Map<String, byte[]> messageFragments = new HashMap<>();
+        for (Map.Entry<String, String> entry : errorMessages.entrySet()) {
+            messageFragments.put(entry.getKey(), JsonSchemaErrorRenderer.renderMessageFragment(entry.getKey(), entry.getValue()));
+        }
+
+        Map<String, byte[]> propertyFragments = new HashMap<>();
+        JsonNode propertiesNode = jsonSchema.getSchemaNode().at("/properties");
+        if (propertiesNode.isObject()) {
+            Iterator<String> names = propertiesNode.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                propertyFragments.put(name, JsonSchemaErrorRenderer.renderPropertyFragment(name));
+            }
+        }
+
+        return new CompiledSchema(hash, jsonSchema,
+                Collections.unmodifiableMap(new HashMap<>(errorMessages)),
+                Collections.unmodifiableMap(messageFragments),
+                Collections.unmodifiableMap(propertyFragments),
+                cost,
+                DeclaredParameters.of(jsonSchema.getSchemaNode()),
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 从 schema 的 errorMessages 节点中提取并格式化自定义错误消息
+     *
+     * @param schemaNode schema 根节点
+     * @return 属性名到格式化后的自定义错误消息
+     */
+    public static Map<String, String> extractErrorMessages(JsonNode schemaNode) {
+        Map<String, String> errorMessages = new HashMap<>();
+        JsonNode errorMessagesNode = schemaNode.at("/errorMessages");
+        if (errorMessagesNode.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = errorMessagesNode.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isTextual()) {
+                    String customMessage = field.getValue().asText().trim();
+                    if (!customMessage.isEmpty()) {
+                        errorMessages.put(field.getKey(), formatCustomMessage(field.getKey(), customMessage));
+                    }
+                }
+            }
+        }
+        return errorMessages;
+    }
+
+    /**
+     * 计算文本的 SHA-256 内容哈希
+     *
+     * @param content 文本内容
+     * @return 十六进制的哈希值
+     */
+    public static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = digest.digest(content == null ? new byte[0] : content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 格式化自定义错误消息
+     *
+     * @param nodeName      节点名称
+     * @param customMessage 自定义错误消息
+     * @return 格式化后的错误消息
+     */
+    private static String formatCustomMessage(String nodeName, String customMessage) {
+        return String.format("参数 '%s' 验证失败 ： '%s' ", nodeName, customMessage);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 预先拆分好的 URI 模板。
+ * <p>
+ * 在配置加载时把 URI 模板拆分为路径段并标记路径变量的位置，
+ * 请求时只需逐段比较字符串并按位置提取路径变量，不再使用正则表达式。
+ */
+@Getter
+public class CompiledUriTemplate {
+
+    /**
+     * 原始 URI 模板，例如 "/api/users/{userId}/orders/{orderId}"
+     */
+    private final String uriTemplate;
+
+    /**
+     * 路径段，路径变量所在位置的元素为 null
+     */
+    private final String[] literals;
+
+    /**
+     * 路径变量名，非路径变量所在位置的元素为 null
+     */
+    private final String[] variableNames;
+
+    /**
+     * 是否包含路径变量
+     */
+    private final boolean hasPathVariable;
+
+    public CompiledUriTemplate(String uriTemplate) {
+        this.uriTemplate = uriTemplate;
+        String[] segments = UriMatcher.splitPath(uriTemplate);
+        this.literals = new String[segments.length];
+        this.variableNames = new String[segments.length];
+        boolean variable = false;
+        for (int i = 0; i < segments.length; i++) {
+            if (UriMatcher.isPathVariable(segments[i])) {
+                variableNames[i] = segments[i].substring(1, segments[i].length() - 1);
+                variable = true;
+            } else {
+                literals[i] = segments[i];
+            }
+        }
+        this.hasPathVariable = variable;
+    }
+
+    /**
+     * 路径段数量
+     *
+     * @return 路径段数量
+     */
+    public int getSegmentCount() {
+        return literals.length;
+    }
+
+    /**
+     * 判断请求路径段是否与模板匹配，只比较非路径变量的路径段
+     *
+     * @param segments 请求 URI 的路径段
+     * @return 匹配成功返回 true，否则返回 false
+     */
+    public boolean matches(String[] segments) {
+        if (segments.length != literals.length) {
+            return false;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            if (literals[i] != null && !literals[i].equals(segments[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按路径变量所在位置从请求路径段中提取路径变量，调用前需确认 {@link #matches(String[])} 返回 true
+     *
+     * @param segments 请求 URI 的路径段
+     * @return 路径变量映射，不含路径变量时返回空映射
+     */
+    public Map<String, Object> extractPathVariables(String[] segments) {
+        if (!hasPathVariable) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> pathVariables = new HashMap<>();
+        for (int i = 0; i < variableNames.length; i++) {
+            if (variableNames[i] != null) {
+                pathVariables.put(variableNames[i], segments[i]);
+            }
+        }
+        return pathVariables;
+    }
+
+    /**
+     * 根据按出现顺序排列的路径变量值构建路径变量映射，用于构建时生成的路由匹配器
+     *
+     * @param values 路径变量值，第 n 个元素对应模板中的第 n 个路径变量
+     * @return 路径变量映射，不含路径变量时返回空映射
+     */
+    public Map<String, Object> toPathVariables(String[] values) {
+        if (!hasPathVariable) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> pathVariables = new HashMap<>();
+        int slot = 0;
+        for (String variableName : variableNames) {
+            if (variableName != null) {
+                pathVariables.put(variableName, values[slot++]);
+            }
+        }
+        return pathVariables;
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * schema 声明的参数名集合，供 {@link QueryStringParser} 只解码验证需要的查询参数。
+ * <p>
+ * 参数名来自根节点的 properties、required 以及 dependencies/dependentRequired 中引用的属性名，
+ * 编译时构建为无冲突的完美哈希表：每个名字落在独立的槽位上，查找时对查询字符串中的原始字符直接计算哈希，
+ * 再与槽位上的名字逐字符比较一次，不需要先截取子串。
+ * <p>
+ * 如果 schema 在根节点上对未声明的属性有约束（additionalProperties 不为 true、patternProperties、propertyNames、
+ * 属性数量限制、组合关键字、$ref 等），未声明的参数也会影响验证结果，此时 {@link #isKeepUndeclared()} 为 true，
+ * 所有参数都会被解码。
+ */
+public final class DeclaredParameters {
+
+    /**
+     * 在根节点上出现时，未声明的参数也可能影响验证结果的关键字
+     */
+    private static final List<String> OBJECT_WIDE_KEYWORDS = Arrays.asList(
+            "patternProperties", "propertyNames", "minProperties", "maxProperties", "unevaluatedProperties",
+            "dependentSchemas", "allOf", "anyOf", "oneOf", "not", "if", "then", "else",
+            "$ref", "$recursiveRef", "$dynamicRef", "enum", "const");
+
+    /**
+     * 每种表大小尝试的种子数量
+     */
+    private static final int SEED_ATTEMPTS = 64;
+
+    /**
+     * 完美哈希表的最大槽位数
+     */
+    private static final int MAX_TABLE_SIZE = 1 << 20;
+
+    private static final DeclaredParameters KEEP_ALL = new DeclaredParameters(new String[1], 0, true);
+
+    /**
+     * 完美哈希表，未使用的槽位为 null
+     */
+    private final String[] slots;
+
+    private final int mask;
+
+    private final int seed;
+
+    /**
+     * 未声明的参数是否也需要参与验证
+     */
+    @Getter
+    private final boolean keepUndeclared;
+
+    private DeclaredParameters(String[] slots, int seed, boolean keepUndeclared) {
+        this.slots = slots;
+        this.mask = slots.length - 1;
+        this.seed = seed;
+        this.keepUndeclared = keepUndeclared;
+    }
+
+    /**
+     * 保留所有参数的集合，用于无法分析的 schema
+     *
+     * @return 保留所有参数的集合
+     */
+    public static DeclaredParameters keepAll() {
+        return KEEP_ALL;
+    }
+
+    /**
+     * 分析 schema 根节点，构建声明的参数名集合
+     *
+     * @param schemaNode schema 根节点
+     * @return 参数名集合
+     */
+    public static DeclaredParameters of(JsonNode schemaNode) {
+        if (schemaNode == null || !schemaNode.isObject()) {
+            return KEEP_ALL;
+        }
+        boolean keepUndeclared = schemaNode.has("additionalProperties")
+                && !(schemaNode.get("additionalProperties").isBoolean() && schemaNode.get("additionalProperties").asBoolean());
+        for (String keyword : OBJECT_WIDE_KEYWORDS) {
+            keepUndeclared |= schemaNode.has(keyword);
+        }
+
+        Set<String> names = new LinkedHashSet<>();
+        Iterator<String> properties = schemaNode.path("properties").fieldNames();
+        while (properties.hasNext()) {
+            names.add(properties.next());
+        }
+        addTextValues(names, schemaNode.path("required"));
+        keepUndeclared |= addDependencies(names, schemaNode.path("dependentRequired"));
+        keepUndeclared |= addDependencies(names, schemaNode.path("dependencies"));
+        return of(names, keepUndeclared);
+    }
+
+    /**
+     * 使用给定的参数名构建集合
+     *
+     * @param names          参数名
+     * @param keepUndeclared 未声明的参数是否也需要参与验证
+     * @return 参数名集合
+     */
+    public static DeclaredParameters of(Set<String> names, boolean keepUndeclared) {
+        for (int size = tableSize(names.size()); size <= MAX_TABLE_SIZE; size <<= 1) {
+            for (int seed = 1; seed <= SEED_ATTEMPTS; seed++) {
+                String[] slots = place(names, size, seed);
+                if (slots != null) {
+                    return new DeclaredParameters(slots, seed, keepUndeclared);
+                }
+            }
+        }
+        throw new IllegalStateException("Unable to build a perfect hash for " + names.size() + " parameter names");
+    }
+
+    /**
+     * 判断参数名是否声明
+     *
+     * @param name 已解码的参数名
+     * @return 声明返回 true
+     */
+    public boolean contains(String name) {
+        return contains(name, 0, name.length());
+    }
+
+    /**
+     * 判断原始字符序列中 [start, end) 范围内的参数名是否声明，调用方需要保证这段字符不包含需要解码的字符
+     *
+     * @param chars 原始字符序列，例如查询字符串
+     * @param start 起始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return 声明返回 true
+     */
+    public boolean contains(CharSequence chars, int start, int end) {
+        String candidate = slots[hash(chars, start, end, seed) & mask];
+        if (candidate == null || candidate.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < candidate.length(); i++) {
+            if (candidate.charAt(i) != chars.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void addTextValues(Set<String> names, JsonNode array) {
+        for (JsonNode value : array) {
+            if (value.isTextual()) {
+                names.add(value.asText());
+            }
+        }
+    }
+
+    /**
+     * 添加依赖关系中引用的属性名
+     *
+     * @return 存在 schema 形式的依赖时返回 true，此时无法静态确定需要的属性
+     */
+    private static boolean addDependencies(Set<String> names, JsonNode dependencies) {
+        boolean schemaDependency = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = dependencies.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            names.add(field.getKey());
+            if (field.getValue().isArray()) {
+                addTextValues(names, field.getValue());
+            } else {
+                schemaDependency = true;
+            }
+        }
+        return schemaDependency;
+    }
+
+    private static String[] place(Set<String> names, int size, int seed) {
+        String[] slots = new String[size];
+        for (String name : names) {
+            int slot = hash(name, 0, name.length(), seed) & (size - 1);
+            if (slots[slot] != null) {
+                return null;
+            }
+            slots[slot] = name;
+        }
+        return slots;
+    }
+
+    private static int tableSize(int names) {
+        int size = 1;
+        while (size < names * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int hash(CharSequence chars, int start, int end, int seed) {
+        int h = seed * 0x9E3779B9;
+        for (int i = start; i < end; i++) {
+            h = (h ^ chars.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+}
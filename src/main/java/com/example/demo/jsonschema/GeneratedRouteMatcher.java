@@ -0,0 +1,38 @@
+package com.example.demo.jsonschema;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * 构建时根据 schema 配置生成的路由匹配器。
+ * <p>
+ * 由 route-matcher-maven-plugin 在 generate-sources 阶段生成实现类 {@link #CLASS_NAME}，
+ * 生成的代码按路径段数量 switch，再逐段对字面量做 switch 比较，路径变量直接写入按位置分配的槽位，
+ * 运行时不需要构建前缀树，也没有预热开销。
+ * <p>
+ * 生成时会记录路由集合的哈希，只有与运行时加载的路由集合（{@link RouteTable#routesHash}）一致时才会使用，
+ * 例如从 schema 注册中心加载了不同的路由后，会自动回退到运行时构建的前缀树。
+ */
+public interface GeneratedRouteMatcher {
+
+    /**
+     * 生成的实现类全限定名
+     */
+    String CLASS_NAME = "com.example.demo.jsonschema.generated.GeneratedRouteMatcherImpl";
+
+    /**
+     * 生成匹配器时使用的路由集合哈希
+     *
+     * @return 路由集合哈希
+     */
+    String getRoutesHash();
+
+    /**
+     * 匹配请求路径段
+     *
+     * @param method    请求方法
+     * @param segments  请求 URI 的路径段
+     * @param variables 路径变量槽位，按路径变量在模板中出现的顺序写入，长度不小于路径段数量
+     * @return 命中的 URI 模板，未命中时返回 null
+     */
+    String match(HttpMethod method, String[] segments, String[] variables);
+}
@@ -1,20 +1,28 @@
 package com.example.demo.jsonschema;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.networknt.schema.*;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 
 import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JsonSchemaConfig 类是一个 Spring Boot 配置类，用于加载和验证 JSON Schema 配置。
- * 它从配置文件中读取相关配置信息，对 HTTP 方法、URI 和 JSON Schema 进行验证，并将验证通过的模式存储起来。
+ * 它从配置文件中读取相关配置信息，对 HTTP 方法、URI 和 JSON Schema 进行验证，并将验证通过的模式按请求方法和 URI 模板构建为路由表。
  * <p>
  * 示例配置如下（通常在 application.properties 或 application.yml 中配置）：
  * <p>
@@ -29,8 +37,32 @@ import java.util.*;
  *   include-methods:
  *     - GET
  *     - POST
+ *   mode: FILTER
+ *   log-interval-millis: 60000
+ *   cost-budget: 200
+ *   over-budget-action: SAMPLE
+ *   over-budget-sample-rate: 0.1
+ *   request-body:
+ *     enabled: true
+ *     max-bytes: 1048576
+ *   snapshot-file:
+ *     enabled: true
+ *     path: schema-cache/schema-snapshot.smile
+ *   lazy-compilation:
+ *     enabled: true
+ *     heap-budget-bytes: 67108864
+ *   load-shedding:
+ *     enabled: true
+ *     latency-budget-micros: 500
+ *   registry:
+ *     enabled: true
+ *     url: http://schema-registry.internal/bundles/json-schema-demo
+ *     poll-interval-millis: 30000
+ *     cache-dir: schema-cache
  *   schemas:
  *     - uri: /api/user
+ *       methods:
+ *         - GET
  *       schema: |
  *         {
  *           "type": "object",
@@ -62,7 +94,7 @@ public class JsonSchemaConfig {
      */
     private List<String> excludeUris = new ArrayList<>();
     /**
-     * 包含的 HTTP 方法列表，只有这些方法会参与验证。
+     * 包含的 HTTP 方法列表，作为未单独配置 methods 的模式配置的默认请求方法。
      */
     private List<String> includeMethods = new ArrayList<>();
     /**
@@ -70,24 +102,180 @@ public class JsonSchemaConfig {
      */
     private List<SchemaConfig> schemas = new ArrayList<>();
     /**
-     * 存储验证通过的 URI 和对应的 JsonSchema 对象的映射。
+     * 验证的执行位置，默认在 Spring MVC 拦截器中验证。
+     */
+    private ValidationMode mode = ValidationMode.INTERCEPTOR;
+    /**
+     * 验证热路径上同一事件（按路由和原因区分）两次日志输出之间的最小间隔，单位毫秒，默认 60 秒。
+     */
+    private long logIntervalMillis = 60_000L;
+    /**
+     * 单个 schema 的静态代价预算，参见 {@link SchemaCostAnalyzer}，小于等于 0 表示不限制。
+     */
+    private int costBudget = 0;
+    /**
+     * schema 代价超出预算时的处理方式，默认启动失败。
+     */
+    private OverBudgetAction overBudgetAction = OverBudgetAction.FAIL;
+    /**
+     * schema 代价超出预算并降级为采样验证时的采样率，取值 (0, 1]。
+     */
+    private double overBudgetSampleRate = 0.1;
+    /**
+     * schema 注册中心配置，启用后从注册中心拉取带版本的 schema bundle 覆盖本地配置的 schemas。
+     */
+    private Registry registry = new Registry();
+    /**
+     * 自适应降级配置，验证耗时超出预算时按路由优先级降级为采样验证或跳过验证。
+     */
+    private LoadShedding loadShedding = new LoadShedding();
+    /**
+     * 响应体契约验证配置，对配置了 responseSchema 的路由按采样率异步验证响应体。
+     */
+    private ResponseValidation responseValidation = new ResponseValidation();
+    /**
+     * 影子 schema 对比配置，对配置了 shadowSchema 的路由按采样率在后台对比当前 schema 和影子 schema 的验证结果与耗时。
+     */
+    private ShadowEvaluation shadowEvaluation = new ShadowEvaluation();
+    /**
+     * 延迟编译配置，启用后加载时只保存 Smile 编码的 schema 树，首次使用时才编译，并在堆内存预算内淘汰冷 schema。
+     */
+    private LazyCompilation lazyCompilation = new LazyCompilation();
+    /**
+     * 请求体验证配置，启用后 JSON、Smile 和 CBOR 格式的请求体与查询参数一起验证。
+     */
+    private RequestBody requestBody = new RequestBody();
+    /**
+     * 持久化快照配置，启用后每次加载成功都把验证和规范化的结果写入磁盘，下次启动时只重新处理变化的模式配置。
+     */
+    private SnapshotFile snapshotFile = new SnapshotFile();
+    /**
+     * 启动预热配置，启用后在就绪之前用 schema 提示生成的参数反复验证，使验证代码完成 JIT 编译。
+     */
+    private WarmUp warmUp = new WarmUp();
+    /**
+     * 违规统计配置，启用后按 URI 模板、属性和关键字统计验证失败次数，在 /actuator/jsonschema 中输出出现次数最多的违规项。
+     */
+    private ViolationAnalytics violationAnalytics = new ViolationAnalytics();
+    /**
+     * 流量录制配置，启用后按采样率把验证过的请求写入二进制录制文件，可作为基准测试和离线回放的输入。
+     */
+    private TrafficRecording trafficRecording = new TrafficRecording();
+    /**
+     * 多租户配置，启用后按请求头或路径前缀选择租户的路由表，租户的模式配置覆盖全局 schemas 中相同请求方法和 URI 模板的配置。
+     */
+    private Tenancy tenancy = new Tenancy();
+    /**
+     * 虚拟线程配置，启用后在支持虚拟线程的 JDK 上，Tomcat 请求处理和异步验证改为在虚拟线程上执行。
+     */
+    private VirtualThreadSettings virtualThreads = new VirtualThreadSettings();
+    /**
+     * 验证通过的路由表，按请求方法和 URI 模板组织。
      * -- GETTER --
-     *  获取验证通过的 URI 和对应的 JsonSchema 对象的映射。
+     *  获取验证通过的路由表。
      *
-     * @return 包含验证通过的 URI 和 JsonSchema 对象的映射。
+     * @return 路由表，未启用验证时为空路由表。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile RouteTable routeTable = RouteTable.empty();
+
+    /**
+     * 租户名到租户路由表的映射，未启用多租户时为空。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, RouteTable> tenantRouteTables = Collections.emptyMap();
+
+    /**
+     * 全局路由表和所有租户路由表中注册了路由的请求方法。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Set<HttpMethod> routedMethods = Collections.emptySet();
 
+    /**
+     * 当前生效快照的版本号，来自本地配置时为 application，来自 schema 注册中心时为 bundle 的版本号。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile String snapshotVersion = "none";
+
+    /**
+     * 当前生效快照的内容哈希，由所有路由的请求方法、URI 模板、schema 内容哈希和采样率计算得出，
+     * 可用于确认集群中各节点加载的 schema 是否一致。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile String snapshotHash = "";
+
+    /**
+     * 最近一次加载时被跳过的模式配置及原因。
      */
     @Getter
-    private Map<String, JsonSchema> schemaMap = new HashMap<>();
+    @Setter(AccessLevel.NONE)
+    private volatile List<String> rejectedSchemas = Collections.emptyList();
+
+    /**
+     * schema 内容哈希到 schema 引用的映射，重新加载时内容未变化的 schema 直接复用，不再重新编译。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, SchemaHandle> schemaHandles = Collections.emptyMap();
+
     /**
-     * 存储有 PathVariable 变量的 URI 的集合。
+     * 延迟编译模式下的编译缓存，未启用延迟编译时为 null。
      */
     @Getter
-    private Set<String> pathVariableUriSet = new HashSet<>();
+    @Setter(AccessLevel.NONE)
+    private volatile LazySchemaCache lazySchemaCache;
+
+    /**
+     * 立即编译模式下从持久化快照恢复的 schema 的编译缓存，首次使用时编译且不淘汰；
+     * 未启用持久化快照或启用延迟编译时为 null。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile LazySchemaCache restoredSchemaCache;
+
+    /**
+     * 最近一次写入或启动时读取的持久化快照，未启用时为 null。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile SchemaSnapshot persistedSnapshot;
+
+    /**
+     * 最近一次加载时直接使用持久化快照结果的模式配置数量。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile int restoredFromSnapshotFile;
+
+    /**
+     * 重新加载时按内容哈希命中已有 schema 的累计次数。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile long compileCacheHits;
+
+    /**
+     * 重新加载时遇到新 schema 的累计次数，立即编译模式下每次都需要编译。
+     */
+    @Getter
+    @Setter(AccessLevel.NONE)
+    private volatile long compileCacheMisses;
+
+    /**
+     * 串行化重新加载，使用显式锁而不是 synchronized，在虚拟线程上等待时不会占住载体线程。
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final ReentrantLock reloadLock = new ReentrantLock();
 
     /**
      * 初始化方法，在 Bean 初始化完成后调用。
-     * 如果启用了验证，则调用 validateMethods 和 validateSchemas 方法进行初始化验证；
+     * 如果启用了验证，则调用 validateMethods 方法验证请求方法，再使用本地配置的 schemas 加载路由表；
      * 否则，记录日志表示验证未启用。
      */
     @PostConstruct
@@ -97,7 +285,252 @@ public class JsonSchemaConfig {
             return;
         }
         validateMethods();
-        validateSchemas();
+        if (snapshotFile.isEnabled()) {
+            persistedSnapshot = SchemaSnapshot.read(Paths.get(snapshotFile.getPath()));
+        }
+        reload(schemas, "application");
+    }
+
+    /**
+     * 使用新的模式配置列表重新构建路由表并原子地替换当前快照。
+     * 内容哈希未变化的 schema 复用已有的编译结果，只编译新增或变化的 schema；
+     * 启用延迟编译时不在这里编译，只解析 schema 并计算静态代价。
+     * 启用持久化快照时，源哈希与快照条目一致的模式配置直接使用快照中验证过的结果，加载成功后写入新的快照。
+     * 如果存在代价超出预算的 schema 且处理方式为 FAIL，则抛出异常并保留当前快照。
+     *
+     * @param schemaConfigs 模式配置列表
+     * @param version       快照版本号
+     */
+    public void reload(List<SchemaConfig> schemaConfigs, String version) {
+        reload(schemaConfigs, version, false);
+    }
+
+    /**
+     * 使用新的模式配置列表重新构建路由表并原子地替换当前快照。
+     * rejectInvalid 为 true 时模式配置列表作为一个整体加载：任一配置的 URI、请求方法、请求/响应/影子 schema 无效，
+     * 或新增的 schema 无法编译（延迟编译模式下也会试编译一次，结果不放入缓存），都抛出异常并保留当前快照，不写入持久化快照。
+     *
+     * @param schemaConfigs 模式配置列表
+     * @param version       快照版本号
+     * @param rejectInvalid 存在无效配置时是否拒绝整个列表
+     * @throws IllegalArgumentException rejectInvalid 为 true 且存在无效配置时抛出，异常消息包含所有原因
+     */
+    public void reload(List<SchemaConfig> schemaConfigs, String version, boolean rejectInvalid) {
+        reloadLock.lock();
+        try {
+            reloadLocked(schemaConfigs, version, rejectInvalid);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reloadLocked(List<SchemaConfig> schemaConfigs, String version, boolean rejectInvalid) {
+        if (lazyCompilation.isEnabled() && lazySchemaCache == null) {
+            lazySchemaCache = new LazySchemaCache(lazyCompilation.getHeapBudgetBytes(),
+                    lazyCompilation.getEstimatedBytesPerSourceByte(), this::compileTree);
+        }
+        if (!lazyCompilation.isEnabled() && snapshotFile.isEnabled() && restoredSchemaCache == null) {
+            restoredSchemaCache = new LazySchemaCache(0, lazyCompilation.getEstimatedBytesPerSourceByte(), this::compileTree);
+        }
+        Map<String, SchemaHandle> previous = schemaHandles;
+        Map<String, SchemaHandle> current = new HashMap<>();
+        List<String> errorMessages = new ArrayList<>();
+        List<String> invalidConfigs = new ArrayList<>();
+        Map<String, SchemaSnapshot.Entry> snapshotEntries = new LinkedHashMap<>();
+        SchemaSnapshot snapshot = persistedSnapshot;
+        List<RouteEntry> routes = validateSchemas(schemaConfigs, snapshot, previous, current, errorMessages, invalidConfigs,
+                snapshotEntries);
+        if (rejectInvalid) {
+            verifyCompilable(snapshot, previous, current, invalidConfigs);
+            if (!invalidConfigs.isEmpty()) {
+                String errorMessage = String.format("JSON schema snapshot %s rejected, keeping %s:\n%s",
+                        version, snapshotVersion, String.join("\n", invalidConfigs));
+                log.error(errorMessage);
+                throw new IllegalArgumentException(errorMessage);
+            }
+        }
+        List<String> excluded = excludeUris == null ? Collections.emptyList() : excludeUris;
+        RouteTable globalTable = new RouteTable(routes, excluded);
+
+        // 租户路由表与全局路由表共用 previous 和 current，内容相同的 schema 在所有租户间只编译一次
+        Map<String, RouteTable> tenantTables = new HashMap<>();
+        Set<HttpMethod> methods = EnumSet.noneOf(HttpMethod.class);
+        StringBuilder tenantHashes = new StringBuilder();
+        for (RouteEntry route : routes) {
+            methods.add(route.getMethod());
+        }
+        if (tenancy.isEnabled() && tenancy.getTenants() != null) {
+            for (Map.Entry<String, List<SchemaConfig>> tenant : new TreeMap<>(tenancy.getTenants()).entrySet()) {
+                List<String> tenantErrors = new ArrayList<>();
+                List<RouteEntry> tenantRoutes = validateSchemas(overlay(tenant.getValue(), schemaConfigs), snapshot, previous,
+                        current, tenantErrors, new ArrayList<>(), snapshotEntries);
+                for (String error : tenantErrors) {
+                    errorMessages.add(String.format("Tenant '%s': %s", tenant.getKey(), error));
+                }
+                for (RouteEntry route : tenantRoutes) {
+                    methods.add(route.getMethod());
+                }
+                tenantTables.put(tenant.getKey(), new RouteTable(tenantRoutes, excluded));
+                tenantHashes.append(tenant.getKey()).append(' ').append(computeSnapshotHash(tenantRoutes)).append('\n');
+            }
+        }
+        int restored = 0;
+        if (snapshot != null) {
+            for (String sourceHash : snapshotEntries.keySet()) {
+                if (snapshot.getEntries().containsKey(sourceHash)) {
+                    restored++;
+                }
+            }
+        }
+
+        int reused = 0;
+        for (String hash : current.keySet()) {
+            if (previous.containsKey(hash)) {
+                reused++;
+            }
+        }
+
+        compileCacheHits += reused;
+        compileCacheMisses += current.size() - reused;
+        schemaHandles = Collections.unmodifiableMap(current);
+        routeTable = globalTable;
+        tenantRouteTables = Collections.unmodifiableMap(tenantTables);
+        routedMethods = Collections.unmodifiableSet(methods);
+        rejectedSchemas = Collections.unmodifiableList(errorMessages);
+        snapshotVersion = version;
+        snapshotHash = tenantTables.isEmpty() ? computeSnapshotHash(routes)
+                : CompiledSchema.hash(computeSnapshotHash(routes) + '\n' + tenantHashes);
+        restoredFromSnapshotFile = restored;
+        if (lazySchemaCache != null) {
+            lazySchemaCache.retainAll(current.keySet());
+        }
+        if (restoredSchemaCache != null) {
+            restoredSchemaCache.retainAll(current.keySet());
+        }
+        if (snapshotFile.isEnabled()) {
+            writeSnapshot(snapshotEntries, current);
+        }
+
+        log.info("Loaded JSON schema snapshot {} ({}): {} routes, {} tenants, {} schemas {}, {} reused, "
+                        + "{} configs restored from snapshot file, route matcher: {}, schema costs: {}",
+                version, snapshotHash, routes.size(), tenantTables.size(), current.size() - reused,
+                lazySchemaCache == null ? "compiled" : "deferred to first use", reused, restored,
+                routeTable.isGeneratedMatcher() ? "generated" : "trie", getRouteCosts());
+    }
+
+    /**
+     * 判断全局路由表或任一租户路由表是否注册了该请求方法的路由
+     *
+     * @param method 请求方法
+     * @return 注册了路由返回 true
+     */
+    public boolean hasRoutes(HttpMethod method) {
+        return method != null && routedMethods.contains(method);
+    }
+
+    /**
+     * 选择请求所属租户的路由表。未启用多租户时直接使用全局路由表，只有按请求头选择租户时才读取租户请求头。
+     *
+     * @param request HTTP 请求
+     * @return 租户选择结果
+     */
+    public TenantSelection selectTenant(HttpServletRequest request) {
+        if (tenantRouteTables.isEmpty()) {
+            return new TenantSelection(null, routeTable, request.getRequestURI());
+        }
+        String tenantHeader = tenancy.isPathPrefix() ? null : request.getHeader(tenancy.getHeader());
+        return selectTenant(tenantHeader, request.getRequestURI());
+    }
+
+    /**
+     * 选择请求所属租户的路由表，只做一次哈希查找。
+     * 按请求头选择时 URI 保持不变；按路径前缀选择时以第一段路径为租户名，识别出租户后从 URI 中去掉该段。
+     * 未启用多租户、未携带租户名或租户不存在时使用全局路由表。
+     *
+     * @param tenantHeader 租户请求头的值，可以为 null
+     * @param uri          请求的 URI
+     * @return 租户选择结果
+     */
+    public TenantSelection selectTenant(String tenantHeader, String uri) {
+        Map<String, RouteTable> tables = tenantRouteTables;
+        if (tables.isEmpty()) {
+            return new TenantSelection(null, routeTable, uri);
+        }
+        if (!tenancy.isPathPrefix()) {
+            RouteTable table = tenantHeader == null ? null : tables.get(tenantHeader);
+            return table == null ? new TenantSelection(null, routeTable, uri) : new TenantSelection(tenantHeader, table, uri);
+        }
+        if (uri != null && uri.length() > 1 && uri.charAt(0) == '/') {
+            int end = uri.indexOf('/', 1);
+            String tenant = end < 0 ? uri.substring(1) : uri.substring(1, end);
+            RouteTable table = tables.get(tenant);
+            if (table != null) {
+                return new TenantSelection(tenant, table, end < 0 ? "/" : uri.substring(end));
+            }
+        }
+        return new TenantSelection(null, routeTable, uri);
+    }
+
+    /**
+     * 获取租户的路由表
+     *
+     * @param tenant 租户名
+     * @return 租户路由表，租户不存在时返回 null
+     */
+    public RouteTable getTenantRouteTable(String tenant) {
+        return tenant == null ? null : tenantRouteTables.get(tenant);
+    }
+
+    /**
+     * 把租户的模式配置叠加到全局模式配置上：租户配置在前，
+     * 全局配置中与租户配置的请求方法和 URI 模板相同的部分被移除，其余请求方法保留。
+     *
+     * @param tenantSchemas 租户的模式配置
+     * @param globalSchemas 全局模式配置
+     * @return 租户生效的模式配置
+     */
+    private List<SchemaConfig> overlay(List<SchemaConfig> tenantSchemas, List<SchemaConfig> globalSchemas) {
+        List<SchemaConfig> merged = new ArrayList<>();
+        Set<String> overridden = new HashSet<>();
+        if (tenantSchemas != null) {
+            for (SchemaConfig schemaConfig : tenantSchemas) {
+                merged.add(schemaConfig);
+                List<HttpMethod> methods = resolveMethods(schemaConfig);
+                if (schemaConfig.isEnabled() && methods != null && schemaConfig.getUri() != null) {
+                    for (HttpMethod method : methods) {
+                        overridden.add(routeKey(method, schemaConfig.getUri()));
+                    }
+                }
+            }
+        }
+        for (SchemaConfig schemaConfig : globalSchemas) {
+            List<HttpMethod> methods = resolveMethods(schemaConfig);
+            if (methods == null || schemaConfig.getUri() == null) {
+                merged.add(schemaConfig);
+                continue;
+            }
+            List<String> remaining = new ArrayList<>();
+            for (HttpMethod method : methods) {
+                if (!overridden.contains(routeKey(method, schemaConfig.getUri()))) {
+                    remaining.add(method.name());
+                }
+            }
+            if (remaining.size() == methods.size()) {
+                merged.add(schemaConfig);
+            } else if (!remaining.isEmpty()) {
+                SchemaConfig copy = new SchemaConfig();
+                copy.setUri(schemaConfig.getUri());
+                copy.setMethods(remaining);
+                copy.setSchema(schemaConfig.getSchema());
+                copy.setDescription(schemaConfig.getDescription());
+                copy.setEnabled(schemaConfig.isEnabled());
+                copy.setPriority(schemaConfig.getPriority());
+                copy.setResponseSchema(schemaConfig.getResponseSchema());
+                copy.setShadowSchema(schemaConfig.getShadowSchema());
+                merged.add(copy);
+            }
+        }
+        return merged;
     }
 
     /**
@@ -124,15 +557,31 @@ public class JsonSchemaConfig {
     }
 
     /**
-     * 遍历 schemas 列表，对每个模式配置进行验证。
-     * 验证内容包括配置是否启用、URI 是否在排除列表中、URI 格式是否有效、URI 是否重复、
-     * JSON Schema 格式是否有效以及模式转换是否成功。
-     * 如果验证通过，则将 URI 加入 uriTemplateSet 集合，并将 URI 和对应的 JsonSchema 对象存入 validSchemas 映射。
+     * 遍历模式配置列表，对每个模式配置进行验证。
+     * 验证内容包括配置是否启用、URI 是否在排除列表中、URI 格式是否有效、请求方法是否有效、
+     * 请求方法和 URI 模板是否重复、JSON Schema 格式是否有效以及模式转换是否成功。
+     * 验证通过的配置按请求方法拆分为路由记录。
+     *
+     * 源哈希与持久化快照条目一致的配置跳过 URI、请求方法和 schema 格式的验证，直接使用快照中的结果。
+     *
+     * @param schemaConfigs   模式配置列表
+     * @param snapshot        持久化快照，未启用或不存在时为 null
+     * @param previous        上一次加载的 schema 引用，按内容哈希复用
+     * @param current         本次加载使用的 schema 引用
+     * @param errorMessages   用于接收被跳过的配置及原因
+     * @param invalidConfigs  用于接收因内容无效被跳过或忽略的配置及原因，是 errorMessages 的子集，不包括禁用和排除的配置
+     * @param snapshotEntries 用于接收需要写入新快照的条目，按源哈希索引
+     * @return 路由记录列表
      */
-    private void validateSchemas() {
-        List<String> errorMessages = new ArrayList<>();
+    private List<RouteEntry> validateSchemas(List<SchemaConfig> schemaConfigs, SchemaSnapshot snapshot,
+                                             Map<String, SchemaHandle> previous, Map<String, SchemaHandle> current,
+                                             List<String> errorMessages, List<String> invalidConfigs,
+                                             Map<String, SchemaSnapshot.Entry> snapshotEntries) {
+        List<RouteEntry> routes = new ArrayList<>();
+        Set<String> routeKeys = new HashSet<>();
+        List<String> overBudget = new ArrayList<>();
 
-        for (SchemaConfig schemaConfig : schemas) {
+        for (SchemaConfig schemaConfig : schemaConfigs) {
             String uri = schemaConfig.getUri();
             String schema = schemaConfig.getSchema();
             boolean enabled = schemaConfig.isEnabled();
@@ -147,37 +596,349 @@ public class JsonSchemaConfig {
                 continue;
             }
 
-            if (!isValidUri(uri)) {
-                errorMessages.add(String.format("Skipping validation for URI '%s': Invalid format", uri));
-                continue;
+            String sourceHash = snapshotFile.isEnabled() ? sourceHash(schemaConfig) : null;
+            SchemaSnapshot.Entry restored = snapshot == null ? null : snapshot.getEntries().get(sourceHash);
+
+            List<HttpMethod> methods;
+            if (restored != null) {
+                methods = restored.getMethods();
+            } else {
+                if (!isValidUri(uri)) {
+                    reject(errorMessages, invalidConfigs, String.format("Skipping validation for URI '%s': Invalid format", uri));
+                    continue;
+                }
+
+                methods = resolveMethods(schemaConfig);
+                if (methods == null) {
+                    reject(errorMessages, invalidConfigs, String.format("Skipping validation for URI '%s': Invalid HTTP method in %s", uri, schemaConfig.getMethods()));
+                    continue;
+                }
+                if (methods.isEmpty()) {
+                    reject(errorMessages, invalidConfigs, String.format("Skipping validation for URI '%s': No HTTP methods configured", uri));
+                    continue;
+                }
             }
 
-            if (schemaMap.containsKey(uri)) {
-                errorMessages.add(String.format("Skipping validation for URI '%s': URI is duplicated", uri));
+            List<HttpMethod> duplicated = new ArrayList<>();
+            for (HttpMethod method : methods) {
+                if (routeKeys.contains(routeKey(method, uri))) {
+                    duplicated.add(method);
+                }
+            }
+            if (!duplicated.isEmpty()) {
+                reject(errorMessages, invalidConfigs, String.format("Skipping validation for URI '%s': URI is duplicated for %s", uri, duplicated));
                 continue;
             }
 
-            if (!isValidJson(schema)) {
-                errorMessages.add(String.format("Skipping validation for URI '%s': Invalid JSON schema", uri));
+            SchemaHandle schemaHandle;
+            try {
+                schemaHandle = restored != null
+                        ? lookupOrRestore(snapshot.getSchemas().get(restored.getSchemaHash()), previous, current)
+                        : lookupOrCreate(schema, previous, current);
+            } catch (IllegalArgumentException e) {
+                reject(errorMessages, invalidConfigs, String.format("Skipping validation for URI '%s': %s", uri, e.getMessage()));
                 continue;
             }
 
-            JsonSchema jsonSchema = getJsonSchema(schema);
-            if (jsonSchema == null) {
-                errorMessages.add(String.format("Skipping validation for URI '%s': Schema conversion failed", uri));
-                continue;
+            // 响应 schema 无效时只忽略响应验证，不影响请求验证；这样的配置不写入快照，下次启动时重新验证并输出原因
+            SchemaHandle responseSchema = null;
+            boolean responseSchemaIgnored = false;
+            if (restored != null && restored.getResponseSchemaHash() != null) {
+                responseSchema = lookupOrRestore(snapshot.getSchemas().get(restored.getResponseSchemaHash()), previous, current);
+            } else if (restored == null && schemaConfig.getResponseSchema() != null && !schemaConfig.getResponseSchema().trim().isEmpty()) {
+                try {
+                    responseSchema = lookupOrCreate(schemaConfig.getResponseSchema(), previous, current);
+                } catch (IllegalArgumentException e) {
+                    responseSchemaIgnored = true;
+                    reject(errorMessages, invalidConfigs, String.format("Ignoring response schema for URI '%s': %s", uri, e.getMessage()));
+                }
+            }
+
+            // 影子 schema 只用于对比，无效时忽略；它不记录在快照条目中，每次加载都按配置处理
+            SchemaHandle shadowSchema = null;
+            if (schemaConfig.getShadowSchema() != null && !schemaConfig.getShadowSchema().trim().isEmpty()) {
+                try {
+                    shadowSchema = lookupOrCreate(schemaConfig.getShadowSchema(), previous, current);
+                } catch (IllegalArgumentException e) {
+                    reject(errorMessages, invalidConfigs, String.format("Ignoring shadow schema for URI '%s': %s", uri, e.getMessage()));
+                }
             }
 
-            if (UriMatcher.hasPathVariable(uri)) {
-                pathVariableUriSet.add(uri);
+            double sampleRate = 1.0;
+            if (isOverBudget(schemaHandle)) {
+                String message = String.format("URI '%s' schema cost %d exceeds budget %d: %s",
+                        uri, schemaHandle.getCost().getScore(), costBudget, schemaHandle.getCost());
+                if (overBudgetAction == OverBudgetAction.FAIL) {
+                    overBudget.add(message);
+                    continue;
+                }
+                sampleRate = overBudgetSampleRate;
+                errorMessages.add(message + String.format(", downgraded to sampled validation (rate %.2f)", sampleRate));
             }
-            schemaMap.put(uri, jsonSchema);
+            for (HttpMethod method : methods) {
+                routeKeys.add(routeKey(method, uri));
+                routes.add(new RouteEntry(method, uri, schemaHandle, sampleRate, schemaConfig.getPriority(), responseSchema,
+                        shadowSchema));
+            }
+            if (sourceHash != null && !responseSchemaIgnored) {
+                snapshotEntries.put(sourceHash, new SchemaSnapshot.Entry(sourceHash, uri, methods, schemaConfig.getPriority(),
+                        schemaHandle.getHash(), responseSchema == null ? null : responseSchema.getHash()));
+            }
+        }
+
+        if (!overBudget.isEmpty()) {
+            String errorMessage = "JSON schema cost budget exceeded:\n" + String.join("\n", overBudget);
+            log.error(errorMessage);
+            throw new IllegalArgumentException(errorMessage);
         }
 
         // Output all error messages
         if (!errorMessages.isEmpty()) {
             log.error("Validation errors encountered:\n{}", String.join("\n", errorMessages));
         }
+        return routes;
+    }
+
+    private static void reject(List<String> errorMessages, List<String> invalidConfigs, String message) {
+        errorMessages.add(message);
+        invalidConfigs.add(message);
+    }
+
+    /**
+     * 试编译本次加载新增的延迟编译 schema，编译结果不放入缓存。
+     * 上一次加载已有的和持久化快照中已接受过的 schema 不再试编译。
+     *
+     * @param snapshot       持久化快照，未启用或不存在时为 null
+     * @param previous       上一次加载的 schema 引用
+     * @param current        本次加载使用的 schema 引用
+     * @param invalidConfigs 用于接收无法编译的 schema 及原因
+     */
+    private void verifyCompilable(SchemaSnapshot snapshot, Map<String, SchemaHandle> previous,
+                                  Map<String, SchemaHandle> current, List<String> invalidConfigs) {
+        for (SchemaHandle handle : current.values()) {
+            String hash = handle.getHash();
+            if (!handle.isLazy() || previous.containsKey(hash)
+                    || (snapshot != null && snapshot.getSchemas().containsKey(hash))) {
+                continue;
+            }
+            try {
+                compileTree(hash, handle.getSource());
+            } catch (IllegalArgumentException e) {
+                invalidConfigs.add(String.format("Schema %s cannot be compiled: %s", hash, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * 按内容哈希查找已有的 schema 引用，本次加载和上一次加载中都不存在时才创建。
+     * 立即编译模式下创建时编译，只有启用持久化快照时才保存 Smile 编码的 schema 树；
+     * 延迟编译模式下只解析 schema、计算静态代价并保存 Smile 编码的 schema 树。
+     *
+     * @param schema   schema 文本
+     * @param previous 上一次加载的 schema 引用
+     * @param current  本次加载使用的 schema 引用，创建或复用的结果会写入其中
+     * @return schema 引用
+     * @throws IllegalArgumentException schema 无效时抛出，异常消息为原因
+     */
+    private SchemaHandle lookupOrCreate(String schema, Map<String, SchemaHandle> previous,
+                                        Map<String, SchemaHandle> current) {
+        String hash = CompiledSchema.hash(schema);
+        SchemaHandle handle = current.get(hash);
+        if (handle == null) {
+            handle = previous.get(hash);
+        }
+        if (handle == null) {
+            long startNanos = System.nanoTime();
+            JsonNode schemaNode = parseJson(schema);
+            if (schemaNode == null) {
+                throw new IllegalArgumentException("Invalid JSON schema");
+            }
+            LazySchemaCache cache = lazySchemaCache;
+            if (cache != null) {
+                handle = SchemaHandle.lazy(hash, SchemaSnapshot.encodeTree(schemaNode), SchemaCostAnalyzer.analyze(schemaNode),
+                        cache);
+            } else {
+                // 立即编译模式下只有写入持久化快照时才需要 schema 树，否则不编码也不保留
+                byte[] tree = snapshotFile.isEnabled() ? SchemaSnapshot.encodeTree(schemaNode) : null;
+                handle = SchemaHandle.of(compileNode(hash, schemaNode, startNanos), tree);
+            }
+        }
+        current.put(hash, handle);
+        return handle;
+    }
+
+    /**
+     * 按内容哈希查找已有的 schema 引用，不存在时使用持久化快照中的 schema 树创建延迟编译的引用，
+     * 加载时跳过 JSON 解析、代价分析和编译。networknt 的 JsonSchema 对象无法序列化，
+     * 立即编译模式下恢复的 schema 同样在首次使用时由 {@link #restoredSchemaCache} 编译，
+     * 只有源哈希变化的配置在加载时编译。
+     *
+     * @param schema   持久化快照中的 schema
+     * @param previous 上一次加载的 schema 引用
+     * @param current  本次加载使用的 schema 引用，创建或复用的结果会写入其中
+     * @return schema 引用
+     */
+    private SchemaHandle lookupOrRestore(SchemaSnapshot.Schema schema, Map<String, SchemaHandle> previous,
+                                         Map<String, SchemaHandle> current) {
+        String hash = schema.getHash();
+        SchemaHandle handle = current.get(hash);
+        if (handle == null) {
+            handle = previous.get(hash);
+        }
+        if (handle == null) {
+            LazySchemaCache cache = lazySchemaCache != null ? lazySchemaCache : restoredSchemaCache;
+            handle = SchemaHandle.lazy(hash, schema.getTree(), schema.getCost(), cache);
+        }
+        current.put(hash, handle);
+        return handle;
+    }
+
+    /**
+     * 编译 Smile 编码的 schema 树，延迟编译模式下首次使用时调用
+     *
+     * @param hash schema 源文本的内容哈希
+     * @param tree Smile 编码的 schema 树
+     * @return 编译后的 schema
+     * @throws IllegalArgumentException schema 无效时抛出，异常消息为原因
+     */
+    private CompiledSchema compileTree(String hash, byte[] tree) {
+        return compileNode(hash, SchemaSnapshot.decodeTree(tree), System.nanoTime());
+    }
+
+    private CompiledSchema compileNode(String hash, JsonNode schemaNode, long startNanos) {
+        JsonSchema jsonSchema = getJsonSchema(schemaNode);
+        if (jsonSchema == null) {
+            throw new IllegalArgumentException("Schema conversion failed");
+        }
+        return CompiledSchema.of(hash, jsonSchema, startNanos);
+    }
+
+    /**
+     * 计算模式配置的源哈希，包括 URI、请求方法（未单独配置时为全局的 includeMethods）、优先级以及请求和响应 schema 文本，
+     * 任何一项变化都会使持久化快照中的对应条目失效
+     *
+     * @param schemaConfig 模式配置
+     * @return 十六进制的 SHA-256 哈希
+     */
+    private String sourceHash(SchemaConfig schemaConfig) {
+        List<String> methods = schemaConfig.getMethods() == null || schemaConfig.getMethods().isEmpty()
+                ? includeMethods : schemaConfig.getMethods();
+        return CompiledSchema.hash(schemaConfig.getUri() + '\n' + methods + '\n' + schemaConfig.getPriority() + '\n'
+                + schemaConfig.getSchema() + '\n' + schemaConfig.getResponseSchema());
+    }
+
+    /**
+     * 把本次加载的结果写入持久化快照，写入失败只记录日志
+     *
+     * @param entries 快照条目
+     * @param handles 本次加载使用的 schema 引用
+     */
+    private void writeSnapshot(Map<String, SchemaSnapshot.Entry> entries, Map<String, SchemaHandle> handles) {
+        Map<String, SchemaSnapshot.Schema> schemas = new HashMap<>();
+        for (SchemaHandle handle : handles.values()) {
+            byte[] tree = handle.getSource();
+            if (tree == null) {
+                continue;
+            }
+            // 从快照恢复、尚未编译的 schema 直接沿用快照中的错误消息，不重新解码 schema 树
+            CompiledSchema compiledSchema = handle.getIfCompiled();
+            SchemaSnapshot persisted = persistedSnapshot;
+            SchemaSnapshot.Schema previousSchema = persisted == null ? null : persisted.getSchemas().get(handle.getHash());
+            Map<String, String> errorMessages = compiledSchema != null ? compiledSchema.getErrorMessages()
+                    : previousSchema != null ? previousSchema.getErrorMessages()
+                    : CompiledSchema.extractErrorMessages(SchemaSnapshot.decodeTree(tree));
+            schemas.put(handle.getHash(), new SchemaSnapshot.Schema(handle.getHash(), tree, handle.getCost(), errorMessages));
+        }
+        SchemaSnapshot snapshot = new SchemaSnapshot(entries, schemas);
+        Path path = Paths.get(snapshotFile.getPath());
+        try {
+            snapshot.write(path);
+            persistedSnapshot = snapshot;
+        } catch (IOException e) {
+            log.warn("Failed to write JSON schema snapshot file {}: {}", path.toAbsolutePath(), e.toString());
+        }
+    }
+
+    /**
+     * 计算快照的内容哈希
+     *
+     * @param routes 路由记录列表
+     * @return 十六进制的 SHA-256 哈希
+     */
+    private static String computeSnapshotHash(List<RouteEntry> routes) {
+        StringBuilder content = new StringBuilder();
+        for (RouteEntry route : routes) {
+            content.append(route.getMethod()).append(' ').append(route.getUriTemplate()).append(' ')
+                    .append(route.getSchema().getHash()).append(' ').append(route.getSampleRate()).append(' ')
+                    .append(route.getPriority()).append(' ')
+                    .append(route.getResponseSchema() == null ? "-" : route.getResponseSchema().getHash()).append(' ')
+                    .append(route.getShadowSchema() == null ? "-" : route.getShadowSchema().getHash()).append('\n');
+        }
+        return CompiledSchema.hash(content.toString());
+    }
+
+    /**
+     * 判断 schema 的静态代价是否超出预算
+     *
+     * @param schemaHandle schema 引用
+     * @return 超出预算返回 true，否则返回 false
+     */
+    private boolean isOverBudget(SchemaHandle schemaHandle) {
+        return costBudget > 0 && schemaHandle.getCost().getScore() > costBudget;
+    }
+
+    /**
+     * 获取每个路由的 schema 静态代价分值
+     *
+     * @return 路由（"METHOD URI 模板"）到代价分值的映射，按注册顺序排列
+     */
+    public Map<String, Integer> getRouteCosts() {
+        Map<String, Integer> costs = new LinkedHashMap<>();
+        for (RouteEntry route : routeTable.getRoutes()) {
+            costs.put(route.getMethod() + " " + route.getUriTemplate(), route.getSchema().getCost().getScore());
+        }
+        return costs;
+    }
+
+    /**
+     * 解析模式配置适用的请求方法，未单独配置时使用全局的 includeMethods。
+     *
+     * @param schemaConfig 模式配置
+     * @return 请求方法列表，包含无效的请求方法时返回 null
+     */
+    private List<HttpMethod> resolveMethods(SchemaConfig schemaConfig) {
+        List<String> configured = schemaConfig.getMethods() == null || schemaConfig.getMethods().isEmpty()
+                ? includeMethods : schemaConfig.getMethods();
+        List<HttpMethod> methods = new ArrayList<>();
+        if (configured == null) {
+            return methods;
+        }
+        for (String method : configured) {
+            HttpMethod httpMethod = HttpMethod.resolve(method.trim().toUpperCase());
+            if (httpMethod == null) {
+                return null;
+            }
+            if (!methods.contains(httpMethod)) {
+                methods.add(httpMethod);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * 生成用于判重的路由键。路径变量统一替换为 {}，
+     * 因此 /api/users/{id} 与 /api/users/{userId} 会被视为同一路由。
+     *
+     * @param method 请求方法
+     * @param uri    URI 模板
+     * @return 路由键
+     */
+    private static String routeKey(HttpMethod method, String uri) {
+        StringBuilder key = new StringBuilder(method.name()).append(' ');
+        for (String segment : UriMatcher.splitPath(uri)) {
+            key.append('/').append(UriMatcher.isPathVariable(segment) ? "{}" : segment);
+        }
+        return key.toString();
     }
 
 
@@ -199,34 +960,37 @@ public class JsonSchemaConfig {
     }
 
     /**
-     * 验证 JSON 字符串格式是否有效。
+     * 解析 JSON 字符串并验证格式是否有效。
      * 使用 ObjectMapper 尝试将 JSON 字符串解析为树结构，
-     * 如果解析过程中出现异常，则记录错误日志并返回 false。
+     * 如果解析过程中出现异常，则记录错误日志并返回 null。
      *
      * @param schema 待验证的 JSON 字符串。
-     * @return 如果 JSON 格式有效返回 true，否则返回 false。
+     * @return 如果 JSON 格式有效返回解析后的树，否则返回 null。
      */
-    private boolean isValidJson(String schema) {
+    private JsonNode parseJson(String schema) {
         try {
-            new ObjectMapper().readTree(schema);
-            return true;
+            return SCHEMA_MAPPER.readTree(schema);
         } catch (Exception e) {
             log.error("Error validating JSON schema: {}", schema, e);
-            return false;
+            return null;
         }
     }
 
-    private JsonSchemaFactory jsonSchemaFactory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
+    private static final ObjectMapper SCHEMA_MAPPER = new ObjectMapper();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final JsonSchemaFactory jsonSchemaFactory = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
 
     /**
-     * 将 JSON 字符串转换为 JsonSchema 对象。
-     * 使用 JsonSchemaFactory 根据 JSON 字符串创建 JsonSchema 对象，
+     * 将 JSON 树转换为 JsonSchema 对象。
+     * 使用 JsonSchemaFactory 根据 JSON 树创建 JsonSchema 对象，
      * 如果创建过程中出现异常，则记录错误日志并返回 null。
      *
-     * @param schema 待转换的 JSON 字符串。
+     * @param schema 待转换的 JSON 树。
      * @return 转换后的 JsonSchema 对象，如果转换失败则返回 null。
      */
-    private JsonSchema getJsonSchema(String schema) {
+    private JsonSchema getJsonSchema(JsonNode schema) {
         try {
             return jsonSchemaFactory.getSchema(schema);
         } catch (Exception e) {
@@ -235,6 +999,344 @@ public class JsonSchemaConfig {
         }
     }
 
+    /**
+     * schema 注册中心配置
+     */
+    @Data
+    public static class Registry {
+        /**
+         * 是否启用 schema 注册中心，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * schema bundle 的 HTTP 地址。
+         */
+        private String url;
+        /**
+         * 轮询间隔，单位毫秒，默认 30 秒。
+         */
+        private long pollIntervalMillis = 30_000L;
+        /**
+         * 连接超时，单位毫秒。
+         */
+        private int connectTimeoutMillis = 2_000;
+        /**
+         * 读取超时，单位毫秒。
+         */
+        private int readTimeoutMillis = 5_000;
+        /**
+         * 本地磁盘缓存目录，注册中心不可用时从缓存快速启动。
+         */
+        private String cacheDir = "schema-cache";
+    }
+
+    /**
+     * 自适应降级配置
+     */
+    @Data
+    public static class LoadShedding {
+        /**
+         * 是否启用自适应降级，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 统计窗口长度，单位毫秒，每个窗口结束时评估一次是否需要调整降级级别。
+         */
+        private long windowMillis = 1_000L;
+        /**
+         * 单个路由在窗口内的平均验证耗时预算，单位微秒，小于等于 0 表示不限制。超出时只提升该路由的降级级别。
+         */
+        private long latencyBudgetMicros = 0L;
+        /**
+         * 窗口内所有线程每秒消耗的验证 CPU 时间预算，单位毫秒，小于等于 0 表示不限制。
+         * 所有路由合计超出时提升全局降级级别，单个路由超出时提升该路由的降级级别。
+         * 启用后每次验证会额外读取两次线程 CPU 时间。
+         */
+        private long cpuBudgetMillisPerSecond = 0L;
+        /**
+         * 降级为采样验证时的采样率，取值 (0, 1]。
+         */
+        private double sampleRate = 0.1;
+        /**
+         * 连续多少个窗口未超出预算后恢复一级。
+         */
+        private int recoveryWindows = 3;
+    }
+
+    /**
+     * 影子 schema 对比配置
+     */
+    @Data
+    public static class ShadowEvaluation {
+        /**
+         * 是否启用影子 schema 对比，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 请求采样率，取值 (0, 1]。
+         */
+        private double sampleRate = 0.05;
+        /**
+         * 对比线程数量。
+         */
+        private int threads = 1;
+        /**
+         * 等待对比的请求队列容量，队列已满时丢弃新的采样并计数。
+         */
+        private int queueCapacity = 1_000;
+        /**
+         * CPU 预算，每个预算窗口内对比线程合计最多使用的 CPU 时间占单个 CPU 核心的百分比。
+         */
+        private double cpuBudgetPercent = 5.0;
+        /**
+         * 预算窗口长度（毫秒）。
+         */
+        private long budgetWindowMillis = 1_000;
+    }
+
+    /**
+     * 响应体契约验证配置
+     */
+    @Data
+    public static class ResponseValidation {
+        /**
+         * 是否启用响应体契约验证，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 响应采样率，取值 (0, 1]。
+         */
+        private double sampleRate = 0.01;
+        /**
+         * 验证线程数量。
+         */
+        private int threads = 1;
+        /**
+         * 等待验证的响应队列容量，队列已满时丢弃新的采样并计数。
+         */
+        private int queueCapacity = 1_000;
+    }
+
+    /**
+     * 流量录制配置
+     */
+    @Data
+    public static class TrafficRecording {
+        /**
+         * 是否启用流量录制，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 请求采样率，取值 (0, 1]。
+         */
+        private double sampleRate = 0.01;
+        /**
+         * 录制文件所在目录。
+         */
+        private String directory = "traffic-recordings";
+        /**
+         * 单个录制文件的最大字节数，超出后切换到新文件。
+         */
+        private long maxFileBytes = 64L * 1024 * 1024;
+        /**
+         * 最多保留的录制文件数量，超出后删除最早的文件。
+         */
+        private int maxFiles = 10;
+        /**
+         * 等待写入的记录队列容量，队列已满时丢弃新的采样并计数。
+         */
+        private int queueCapacity = 10_000;
+        /**
+         * 写入缓冲区的字节数。
+         */
+        private int bufferBytes = 64 * 1024;
+    }
+
+    /**
+     * 多租户配置
+     */
+    @Data
+    public static class Tenancy {
+        /**
+         * 是否启用多租户，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 携带租户名的请求头。
+         */
+        private String header = "X-Tenant-Id";
+        /**
+         * 是否改为使用 URI 的第一段路径作为租户名，例如 /partner-a/api/users 选择租户 partner-a 并按 /api/users 匹配路由。
+         */
+        private boolean pathPrefix = false;
+        /**
+         * 租户名到该租户模式配置列表的映射，格式与全局 schemas 相同。
+         */
+        private Map<String, List<SchemaConfig>> tenants = new LinkedHashMap<>();
+    }
+
+    /**
+     * 虚拟线程配置
+     */
+    @Data
+    public static class VirtualThreadSettings {
+        /**
+         * 是否启用虚拟线程，默认为 false；当前 JDK 不支持虚拟线程时回退为平台线程。
+         */
+        private boolean enabled = false;
+        /**
+         * 是否让 Tomcat 为每个请求创建一个虚拟线程，代替有界的平台线程池。
+         */
+        private boolean tomcat = true;
+    }
+
+    /**
+     * 违规统计配置
+     */
+    @Data
+    public static class ViolationAnalytics {
+        /**
+         * 是否启用违规统计，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 同时跟踪的高频违规项数量上限。
+         */
+        private int capacity = 1_000;
+        /**
+         * Count-Min sketch 每行的计数器数量，向上取整为 2 的幂，越大估计误差越小。
+         */
+        private int sketchWidth = 2_048;
+        /**
+         * Count-Min sketch 的行数，取值 1 到 8，越大高估的概率越低。
+         */
+        private int sketchDepth = 4;
+        /**
+         * 计数器按线程划分的分片数，向上取整为 2 的幂，减少并发写入同一计数器的竞争。
+         */
+        private int stripes = 4;
+        /**
+         * /actuator/jsonschema 中输出的违规项数量。
+         */
+        private int topN = 20;
+    }
+
+    /**
+     * 启动预热配置
+     */
+    @Data
+    public static class WarmUp {
+        /**
+         * 是否启用启动预热，默认为 false。
+         */
+        private boolean enabled = false;
+        /**
+         * 预热迭代次数，每次迭代对每个已编译的路由验证一组合法参数和一组非法参数。
+         */
+        private int iterations = 1_000;
+        /**
+         * 预热最长耗时，单位毫秒，超出后提前结束，避免拖慢就绪。
+         */
+        private long maxMillis = 30_000L;
+    }
+
+    /**
+     * 持久化快照配置
+     */
+    @Data
+    public static class SnapshotFile {
+        /**
+         * 是否启用持久化快照，默认为 false。启用后即使未开启延迟编译，从快照恢复的 schema 也在首次使用时才编译。
+         */
+        private boolean enabled = false;
+        /**
+         * 快照文件路径。
+         */
+        private String path = "schema-cache/schema-snapshot.smile";
+    }
+
+    /**
+     * 请求体验证配置
+     */
+    @Data
+    public static class RequestBody {
+        /**
+         * 是否验证请求体，默认为 false，只验证查询参数和路径变量。
+         */
+        private boolean enabled = false;
+        /**
+         * 参与验证的请求体最大字节数，超出或未声明 Content-Length 的请求体不做验证。
+         */
+        private long maxBytes = 1024L * 1024;
+    }
+
+    /**
+     * 延迟编译配置
+     */
+    @Data
+    public static class LazyCompilation {
+        /**
+         * 是否启用延迟编译，默认为 false，所有 schema 在加载时编译并常驻内存。
+         */
+        private boolean enabled = false;
+        /**
+         * 已编译 schema 的堆内存预算，单位字节，超出后淘汰最久未使用的 schema，小于等于 0 表示不淘汰。
+         */
+        private long heapBudgetBytes = 64L * 1024 * 1024;
+        /**
+         * 估算编译结果堆内存时，Smile 编码的 schema 树每个字节对应的堆内存字节数。
+         */
+        private int estimatedBytesPerSourceByte = 32;
+    }
+
+    /**
+     * 路由优先级，自适应降级时按优先级从低到高依次降级
+     */
+    public enum RoutePriority {
+        /**
+         * 关键路由，始终完整验证
+         */
+        CRITICAL,
+        /**
+         * 普通路由
+         */
+        NORMAL,
+        /**
+         * 低优先级路由，最先降级
+         */
+        LOW
+    }
+
+    /**
+     * 验证的执行位置
+     */
+    public enum ValidationMode {
+        /**
+         * 在 {@link JsonSchemaValidationInterceptor} 中验证，请求先经过 DispatcherServlet 的处理器映射，
+         * 验证失败时由 GlobalExceptionHandler 返回 400
+         */
+        INTERCEPTOR,
+        /**
+         * 在 {@link JsonSchemaValidationFilter} 中验证，请求进入 DispatcherServlet 之前按路由表验证，
+         * 验证失败时直接写出预先渲染的 400 响应
+         */
+        FILTER
+    }
+
+    /**
+     * schema 代价超出预算时的处理方式
+     */
+    public enum OverBudgetAction {
+        /**
+         * 启动失败
+         */
+        FAIL,
+        /**
+         * 降级为按 overBudgetSampleRate 采样验证
+         */
+        SAMPLE
+    }
+
     /**
      * SchemaConfig 类用于存储每个 URI 的 JSON Schema 配置信息，
      * 包括 URI、Schema、描述和启用标志。
@@ -245,6 +1347,11 @@ public class JsonSchemaConfig {
          * URI
          */
         private String uri;
+        /**
+         * 该 URI 需要验证的 HTTP 方法列表，为空时使用全局的 include-methods。
+         * 同一 URI 模板的不同方法可以分别配置不同的 JSON Schema。
+         */
+        private List<String> methods = new ArrayList<>();
         /**
          * JSON Schema 字符串。
          */
@@ -257,6 +1364,19 @@ public class JsonSchemaConfig {
          * 表示该配置是否启用的标志，默认为 true。
          */
         private boolean enabled = true;
+        /**
+         * 路由优先级，自适应降级时使用，默认为 NORMAL。
+         */
+        private RoutePriority priority = RoutePriority.NORMAL;
+        /**
+         * 可选的响应体 JSON Schema，启用 response-validation 后对采样的响应做契约检查。
+         */
+        private String responseSchema;
+        /**
+         * 可选的影子（候选）请求 JSON Schema，启用 shadow-evaluation 后对采样的请求在后台与当前 schema 对比验证结果和耗时，
+         * 不影响请求的验证结果。
+         */
+        private String shadowSchema;
     }
 }
 
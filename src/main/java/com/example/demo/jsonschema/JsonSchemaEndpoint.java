@@ -0,0 +1,197 @@
+package com.example.demo.jsonschema;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator 端点 /actuator/jsonschema，输出验证器运行时加载的内容和统计信息：
+ * 快照版本、路由表、被跳过的 schema 及原因、编译耗时、缓存大小与命中率（包括延迟编译的未命中编译耗时和淘汰次数）、每个路由的验证次数和耗时、降级级别、启动预热结果、出现次数最多的违规项。
+ * <p>
+ * 所有数据都读取自已经聚合好的状态（不可变的路由表和 {@link RouteStats} 中的 LongAdder），
+ * 轮询端点不会对验证热路径加锁或写入共享状态。
+ */
+@Component
+@Endpoint(id = "jsonschema")
+public class JsonSchemaEndpoint {
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Autowired
+    private LoadSheddingController loadSheddingController;
+
+    @Autowired
+    private JsonSchemaWarmUp jsonSchemaWarmUp;
+
+    @Autowired
+    private ViolationAnalyticsTable violationAnalytics;
+
+    @Autowired
+    private TrafficRecorder trafficRecorder;
+
+    @Autowired
+    private ShadowSchemaEvaluator shadowSchemaEvaluator;
+
+    @ReadOperation
+    public Map<String, Object> jsonSchema() {
+        RouteTable routeTable = jsonSchemaConfig.getRouteTable();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", jsonSchemaConfig.isEnabled());
+        result.put("mode", jsonSchemaConfig.getMode());
+        result.put("snapshot", snapshot(routeTable));
+        result.put("routes", routes(routeTable));
+        if (!jsonSchemaConfig.getTenantRouteTables().isEmpty()) {
+            result.put("tenants", tenants());
+        }
+        result.put("rejected", jsonSchemaConfig.getRejectedSchemas());
+        result.put("caches", caches());
+        result.put("loadShedding", loadSheddingController.getLevel());
+        result.put("warmUp", jsonSchemaWarmUp.getReport());
+        if (violationAnalytics.isEnabled()) {
+            result.put("violations", violations());
+        }
+        if (shadowSchemaEvaluator.isEnabled()) {
+            result.put("shadowEvaluation", shadowEvaluation());
+        }
+        if (trafficRecorder.isEnabled()) {
+            result.put("trafficRecording", trafficRecording());
+        }
+        if (jsonSchemaConfig.getVirtualThreads().isEnabled()) {
+            result.put("virtualThreads", virtualThreads());
+        }
+        return result;
+    }
+
+    private Map<String, Object> tenants() {
+        Map<String, Object> tenants = new TreeMap<>();
+        for (Map.Entry<String, RouteTable> entry : jsonSchemaConfig.getTenantRouteTables().entrySet()) {
+            Map<String, Object> tenant = new LinkedHashMap<>();
+            tenant.put("routeCount", entry.getValue().size());
+            tenant.put("routeMatcher", entry.getValue().isGeneratedMatcher() ? "generated" : "trie");
+            tenant.put("routes", routes(entry.getValue()));
+            tenants.put(entry.getKey(), tenant);
+        }
+        return tenants;
+    }
+
+    private Map<String, Object> snapshot(RouteTable routeTable) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("version", jsonSchemaConfig.getSnapshotVersion());
+        snapshot.put("hash", jsonSchemaConfig.getSnapshotHash());
+        snapshot.put("routeCount", routeTable.size());
+        snapshot.put("routeMatcher", routeTable.isGeneratedMatcher() ? "generated" : "trie");
+        snapshot.put("restoredFromSnapshotFile", jsonSchemaConfig.getRestoredFromSnapshotFile());
+        return snapshot;
+    }
+
+    private List<Map<String, Object>> routes(RouteTable routeTable) {
+        List<Map<String, Object>> routes = new ArrayList<>(routeTable.size());
+        for (RouteEntry route : routeTable.getRoutes()) {
+            SchemaHandle schema = route.getSchema();
+            CompiledSchema compiledSchema = schema.getIfCompiled();
+            RouteStats stats = route.getStats();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("method", route.getMethod());
+            entry.put("uriTemplate", route.getUriTemplate());
+            entry.put("priority", route.getPriority());
+            entry.put("sampleRate", route.getSampleRate());
+            entry.put("schemaHash", schema.getHash());
+            entry.put("cost", schema.getCost().getScore());
+            entry.put("compiled", compiledSchema != null);
+            entry.put("compileMillis", compiledSchema == null ? null : compiledSchema.getCompileNanos() / 1e6);
+            entry.put("validations", stats.getValidations());
+            entry.put("meanMicros", stats.getMeanMicros());
+            entry.put("cpuMillis", stats.getCpuNanos() / 1e6);
+            entry.put("shed", stats.getShed());
+            entry.put("sheddingLevel", stats.getSheddingLevel());
+            entry.put("responseSchemaHash", route.getResponseSchema() == null ? null : route.getResponseSchema().getHash());
+            entry.put("responseValidations", stats.getResponseValidations());
+            entry.put("responseViolations", stats.getResponseViolations());
+            if (route.getShadowSchema() != null) {
+                entry.put("shadowSchemaHash", route.getShadowSchema().getHash());
+                entry.put("shadowEvaluations", stats.getShadowEvaluations());
+                entry.put("shadowStricter", stats.getShadowStricter());
+                entry.put("shadowLooser", stats.getShadowLooser());
+                entry.put("shadowLatencyDiffMicros", stats.getShadowLatencyDiffMicros());
+            }
+            routes.add(entry);
+        }
+        return routes;
+    }
+
+    private Map<String, Object> violations() {
+        Map<String, Object> violations = new LinkedHashMap<>();
+        violations.put("total", violationAnalytics.getTotal());
+        violations.put("tracked", violationAnalytics.getTracked());
+        violations.put("capacity", violationAnalytics.getCapacity());
+        violations.put("replacements", violationAnalytics.getReplacements());
+        violations.put("errorBound", violationAnalytics.getErrorBound());
+        violations.put("top", violationAnalytics.top(jsonSchemaConfig.getViolationAnalytics().getTopN()));
+        return violations;
+    }
+
+    private Map<String, Object> shadowEvaluation() {
+        Map<String, Object> shadow = new LinkedHashMap<>();
+        shadow.put("evaluations", shadowSchemaEvaluator.getEvaluations());
+        shadow.put("disagreements", shadowSchemaEvaluator.getDisagreements());
+        shadow.put("dropped", shadowSchemaEvaluator.getDropped());
+        shadow.put("overBudget", shadowSchemaEvaluator.getOverBudget());
+        shadow.put("cpuBudgetMillisPerWindow", shadowSchemaEvaluator.getBudgetNanos() / 1e6);
+        return shadow;
+    }
+
+    private Map<String, Object> trafficRecording() {
+        Map<String, Object> recording = new LinkedHashMap<>();
+        recording.put("recorded", trafficRecorder.getRecorded());
+        recording.put("dropped", trafficRecorder.getDropped());
+        recording.put("bytesWritten", trafficRecorder.getBytesWritten());
+        recording.put("filesWritten", trafficRecorder.getFilesWritten());
+        recording.put("currentFile", trafficRecorder.getCurrentFile() == null ? null : trafficRecorder.getCurrentFile().toString());
+        return recording;
+    }
+
+    private Map<String, Object> virtualThreads() {
+        Map<String, Object> virtualThreads = new LinkedHashMap<>();
+        virtualThreads.put("supported", VirtualThreads.isSupported());
+        virtualThreads.put("tomcat", jsonSchemaConfig.getVirtualThreads().isTomcat() && VirtualThreads.isSupported());
+        return virtualThreads;
+    }
+
+    private Map<String, Object> caches() {
+        long hits = jsonSchemaConfig.getCompileCacheHits();
+        long misses = jsonSchemaConfig.getCompileCacheMisses();
+        Map<String, Object> compiledSchemas = new LinkedHashMap<>();
+        compiledSchemas.put("size", jsonSchemaConfig.getSchemaHandles().size());
+        compiledSchemas.put("hits", hits);
+        compiledSchemas.put("misses", misses);
+        compiledSchemas.put("hitRatio", hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+
+        Map<String, Object> caches = new LinkedHashMap<>();
+        caches.put("compiledSchemas", compiledSchemas);
+        LazySchemaCache lazySchemaCache = jsonSchemaConfig.getLazySchemaCache();
+        if (lazySchemaCache != null) {
+            Map<String, Object> lazy = new LinkedHashMap<>();
+            lazy.put("size", lazySchemaCache.size());
+            lazy.put("estimatedBytes", lazySchemaCache.getEstimatedBytes());
+            lazy.put("heapBudgetBytes", lazySchemaCache.getHeapBudgetBytes());
+            lazy.put("hits", lazySchemaCache.getHits());
+            lazy.put("misses", lazySchemaCache.getMisses());
+            lazy.put("evictions", lazySchemaCache.getEvictions());
+            lazy.put("failures", lazySchemaCache.getFailures());
+            lazy.put("meanCompileMicros", lazySchemaCache.getMeanCompileMicros());
+            lazy.put("maxCompileMicros", lazySchemaCache.getMaxCompileMicros());
+            caches.put("lazySchemas", lazy);
+        }
+        caches.put("keywordFragments", JsonSchemaErrorRenderer.keywordFragmentCacheSize());
+        return caches;
+    }
+}
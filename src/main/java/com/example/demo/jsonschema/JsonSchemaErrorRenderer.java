@@ -0,0 +1,171 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 验证错误响应的渲染工具类。
+ * <p>
+ * 响应体格式为：
+ * <pre>
+ * {"status":400,"errors":[{"keyword":"required","property":"userId","message":"..."}]}
+ * </pre>
+ * 属性片段在 schema 编译时生成，关键字片段按需生成后缓存，
+ * 请求线程上只做字节数组的拼接。
+ */
+public final class JsonSchemaErrorRenderer {
+
+    private static final byte[] BODY_PREFIX = "{\"status\":400,\"errors\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BODY_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PROPERTY_NULL = "\"property\":null,\"message\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] KEYWORD_NULL = "{\"keyword\":null,".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] OBJECT_END = "}".getBytes(StandardCharsets.UTF_8);
+    private static final byte COMMA = ',';
+
+    /**
+     * 关键字到 {"keyword":"xxx", 片段的缓存，关键字数量有限，不会无限增长
+     */
+    private static final ConcurrentMap<String, byte[]> KEYWORD_FRAGMENTS = new ConcurrentHashMap<>();
+
+    private JsonSchemaErrorRenderer() {
+    }
+
+    /**
+     * 渲染包含自定义消息的属性片段：{@code "property":"xxx","message":"xxx"}
+     *
+     * @param property 属性名
+     * @param message  自定义错误消息
+     * @return 片段字节数组
+     */
+    static byte[] renderMessageFragment(String property, String message) {
+        return concat(renderPropertyFragment(property), quote(message));
+    }
+
+    /**
+     * 渲染属性片段：{@code "property":"xxx","message":}，之后需要拼接消息内容
+     *
+     * @param property 属性名
+     * @return 片段字节数组
+     */
+    static byte[] renderPropertyFragment(String property) {
+        return concat("\"property\":".getBytes(StandardCharsets.UTF_8), quote(property),
+                ",\"message\":".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 渲染单条验证错误的 JSON 对象，优先使用编译期生成的片段。
+     *
+     * @param compiledSchema 编译后的 schema
+     * @param property       属性名，可能为 null
+     * @param keyword        关键字
+     * @param message        错误消息
+     * @return JSON 对象字节数组
+     */
+    static byte[] renderError(CompiledSchema compiledSchema, String property, String keyword, String message) {
+        byte[] keywordFragment = keywordFragment(keyword);
+        if (property != null) {
+            byte[] messageFragment = compiledSchema.getMessageFragments().get(property);
+            if (messageFragment != null) {
+                return concat(keywordFragment, messageFragment, OBJECT_END);
+            }
+            byte[] propertyFragment = compiledSchema.getPropertyFragments().get(property);
+            if (propertyFragment == null) {
+                propertyFragment = renderPropertyFragment(property);
+            }
+            return concat(keywordFragment, propertyFragment, quote(message), OBJECT_END);
+        }
+        return concat(keywordFragment, PROPERTY_NULL, quote(message), OBJECT_END);
+    }
+
+    /**
+     * 渲染验证异常的响应体。只带消息、没有结构化错误的异常渲染为一条 keyword 和 property 都为 null 的错误，
+     * 消息不会丢失。
+     *
+     * @param e 验证异常
+     * @return 响应体字节数组
+     */
+    public static byte[] renderBody(JsonSchemaValidationException e) {
+        if (!e.getErrors().isEmpty()) {
+            return renderBody(e.getErrors());
+        }
+        byte[] json = concat(KEYWORD_NULL, PROPERTY_NULL, quote(e.getMessage()), OBJECT_END);
+        return renderBody(Collections.singletonList(new JsonSchemaValidationError(null, null, e.getMessage(), json)));
+    }
+
+    /**
+     * 将多条错误的 JSON 片段拼接为完整的响应体
+     *
+     * @param errors 验证错误列表
+     * @return 响应体字节数组
+     */
+    public static byte[] renderBody(List<JsonSchemaValidationError> errors) {
+        int length = BODY_PREFIX.length + BODY_SUFFIX.length + Math.max(errors.size() - 1, 0);
+        for (JsonSchemaValidationError error : errors) {
+            length += error.getJson().length;
+        }
+        byte[] body = new byte[length];
+        int offset = copy(BODY_PREFIX, body, 0);
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) {
+                body[offset++] = COMMA;
+            }
+            offset = copy(errors.get(i).getJson(), body, offset);
+        }
+        copy(BODY_SUFFIX, body, offset);
+        return body;
+    }
+
+    /**
+     * 关键字片段缓存的大小
+     *
+     * @return 已缓存的关键字数量
+     */
+    static int keywordFragmentCacheSize() {
+        return KEYWORD_FRAGMENTS.size();
+    }
+
+    private static byte[] keywordFragment(String keyword) {
+        String key = keyword == null ? "" : keyword;
+        byte[] fragment = KEYWORD_FRAGMENTS.get(key);
+        if (fragment == null) {
+            fragment = concat("{\"keyword\":".getBytes(StandardCharsets.UTF_8), quote(key), new byte[]{COMMA});
+            KEYWORD_FRAGMENTS.putIfAbsent(key, fragment);
+        }
+        return fragment;
+    }
+
+    private static byte[] quote(String value) {
+        if (value == null) {
+            return "null".getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] result = new byte[length];
+        int offset = 0;
+        for (byte[] part : parts) {
+            offset = copy(part, result, offset);
+        }
+        return result;
+    }
+
+    private static int copy(byte[] source, byte[] target, int offset) {
+        System.arraycopy(source, 0, target, offset, source.length);
+        return offset + source.length;
+    }
+}
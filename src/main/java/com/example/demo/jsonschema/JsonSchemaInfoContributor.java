@@ -0,0 +1,28 @@
+package com.example.demo.jsonschema;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 在 /actuator/info 中输出当前生效的 schema 快照版本和内容哈希，用于确认集群中各节点的 schema 是否一致。
+ */
+@Component
+public class JsonSchemaInfoContributor implements InfoContributor {
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("version", jsonSchemaConfig.getSnapshotVersion());
+        snapshot.put("hash", jsonSchemaConfig.getSnapshotHash());
+        snapshot.put("routes", jsonSchemaConfig.getRouteTable().size());
+        builder.withDetail("jsonSchema", snapshot);
+    }
+}
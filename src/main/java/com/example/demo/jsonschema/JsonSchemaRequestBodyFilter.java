@@ -0,0 +1,52 @@
+package com.example.demo.jsonschema;
+
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 请求体验证的过滤器，在拦截器之前读取并缓存 JSON、Smile 和 CBOR 格式的请求体。
+ * <p>
+ * 只缓存声明了 Content-Length 且不超过 {@link JsonSchemaConfig.RequestBody#getMaxBytes()} 的请求体，
+ * 未声明长度（分块传输）或超出上限的请求不做请求体验证，原样交给后续处理，避免无限制地占用内存。
+ * 过滤器按包装请求的过滤器排序，保证在 {@link JsonSchemaValidationFilter} 之前执行。
+ */
+@Setter
+@Component
+@Order(OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER)
+public class JsonSchemaRequestBodyFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Autowired
+    private JsonSchemaValidationService jsonSchemaValidationService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        JsonSchemaConfig.RequestBody requestBody = jsonSchemaConfig.getRequestBody();
+        long contentLength = request.getContentLengthLong();
+        return !requestBody.isEnabled()
+                || contentLength <= 0 || contentLength > requestBody.getMaxBytes()
+                || RequestBodyFormat.fromContentType(request.getContentType()) == null
+                || !jsonSchemaValidationService.isMethodValidated(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        RequestBodyFormat format = RequestBodyFormat.fromContentType(request.getContentType());
+        filterChain.doFilter(new CachedBodyRequestWrapper(request, body, format), response);
+    }
+}
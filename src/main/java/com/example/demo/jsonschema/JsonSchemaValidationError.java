@@ -0,0 +1,39 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单条 JSON Schema 验证错误，包含属性名、关键字、错误消息以及预先渲染好的 JSON 片段。
+ */
+@Getter
+@ToString(exclude = "json")
+public class JsonSchemaValidationError {
+
+    /**
+     * 验证失败的属性名，无法确定时为 null
+     */
+    private final String property;
+
+    /**
+     * 触发错误的 JSON Schema 关键字，例如 required、pattern、enum
+     */
+    private final String keyword;
+
+    /**
+     * 错误消息，优先使用 schema 中配置的自定义消息
+     */
+    private final String message;
+
+    /**
+     * 该错误对应的 JSON 对象字节，例如 {"keyword":"required","property":"userId","message":"..."}
+     */
+    private final byte[] json;
+
+    public JsonSchemaValidationError(String property, String keyword, String message, byte[] json) {
+        this.property = property;
+        this.keyword = keyword;
+        this.message = message;
+        this.json = json;
+    }
+}
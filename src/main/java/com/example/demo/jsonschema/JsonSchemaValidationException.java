@@ -1,17 +1,26 @@
 package com.example.demo.jsonschema;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * 自定义异常类，用于在 JSON Schema 验证过程中出现错误时抛出特定的异常信息。
  * 继承自 RuntimeException，属于非受检异常，使用时无需在方法签名中显式声明抛出。
  */
 public class JsonSchemaValidationException extends RuntimeException {
 
+    /**
+     * 结构化的验证错误列表，每条错误都带有预先渲染好的 JSON 片段
+     */
+    private final List<JsonSchemaValidationError> errors;
+
     /**
      * 无参构造函数。
      * 调用父类 RuntimeException 的无参构造函数，创建一个没有特定错误消息的异常实例。
      */
     public JsonSchemaValidationException() {
         super();
+        this.errors = Collections.emptyList();
     }
 
     /**
@@ -23,6 +32,19 @@ public class JsonSchemaValidationException extends RuntimeException {
      */
     public JsonSchemaValidationException(String message) {
         super(message, null, false, false);
+        this.errors = Collections.emptyList();
+    }
+
+    /**
+     * 带有错误消息和结构化错误列表的构造函数。
+     * 由 JsonSchemaValidationService 在验证失败时使用，异常处理器直接拼接错误列表中的 JSON 片段生成响应体。
+     *
+     * @param message 异常的详细错误消息
+     * @param errors  结构化的验证错误列表
+     */
+    public JsonSchemaValidationException(String message, List<JsonSchemaValidationError> errors) {
+        super(message, null, false, false);
+        this.errors = Collections.unmodifiableList(errors);
     }
 
     /**
@@ -35,6 +57,7 @@ public class JsonSchemaValidationException extends RuntimeException {
      */
     public JsonSchemaValidationException(String message, Throwable cause) {
         super(message, cause, false, false);
+        this.errors = Collections.emptyList();
     }
 
     /**
@@ -46,6 +69,7 @@ public class JsonSchemaValidationException extends RuntimeException {
      */
     public JsonSchemaValidationException(Throwable cause) {
         super(cause);
+        this.errors = Collections.emptyList();
     }
 
     /**
@@ -59,5 +83,15 @@ public class JsonSchemaValidationException extends RuntimeException {
      */
     protected JsonSchemaValidationException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace) {
         super(message, cause, enableSuppression, writableStackTrace);
+        this.errors = Collections.emptyList();
+    }
+
+    /**
+     * 获取结构化的验证错误列表
+     *
+     * @return 验证错误列表，不存在时为空列表
+     */
+    public List<JsonSchemaValidationError> getErrors() {
+        return errors;
     }
 }
\ No newline at end of file
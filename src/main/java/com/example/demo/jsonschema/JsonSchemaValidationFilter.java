@@ -0,0 +1,64 @@
+package com.example.demo.jsonschema;
+
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 过滤器模式的请求验证，{@link JsonSchemaConfig#getMode()} 为 {@link JsonSchemaConfig.ValidationMode#FILTER} 时生效。
+ * <p>
+ * 在请求进入 DispatcherServlet 之前按编译好的路由表验证，验证失败时直接写出预先渲染的 400 响应体，
+ * 不再经过处理器映射、拦截器链和异常解析器，适合无效请求占比较高的场景。
+ * 响应体与拦截器模式下 GlobalExceptionHandler 返回的内容完全相同。
+ * <p>
+ * 过滤器排在 {@link JsonSchemaRequestBodyFilter} 之后，可以验证已缓存的请求体。
+ */
+@Setter
+@Component
+@Order(JsonSchemaValidationFilter.ORDER)
+public class JsonSchemaValidationFilter extends OncePerRequestFilter {
+
+    /**
+     * 过滤器顺序，在包装请求的过滤器（包括 {@link JsonSchemaRequestBodyFilter}）之后执行
+     */
+    public static final int ORDER = OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER + 1;
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Autowired
+    private JsonSchemaValidationService jsonSchemaValidationService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return jsonSchemaConfig.getMode() != JsonSchemaConfig.ValidationMode.FILTER
+                || !jsonSchemaValidationService.isMethodValidated(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            jsonSchemaValidationService.validate(request);
+        } catch (JsonSchemaValidationException e) {
+            byte[] body = JsonSchemaErrorRenderer.renderBody(e);
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -4,16 +4,12 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.HashMap;
-import java.util.Map;
 
 @Slf4j
 @Getter
@@ -24,16 +20,21 @@ public class JsonSchemaValidationInterceptor implements HandlerInterceptor {
     @Autowired
     private JsonSchemaValidationService jsonSchemaValidationService;
 
+    @Autowired
+    private JsonSchemaValidationLogger validationLogger;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // 检查请求方法是否为 GET
-        if (!isGetRequest(request)) {
-            log.warn("不支持的请求方法，仅支持 GET 请求");
+        // 过滤器模式下已经在 JsonSchemaValidationFilter 中验证
+        if (this.getJsonSchemaValidationService().getJsonSchemaConfig().getMode() == JsonSchemaConfig.ValidationMode.FILTER) {
             return true;
         }
-        // 提取请求参数
-        Map<String, Object> params = extractRequestParams(request);
-        this.getJsonSchemaValidationService().validate(request.getMethod(), request.getRequestURI(), params);
+        // 检查请求方法是否配置了需要验证的路由
+        if (!this.getJsonSchemaValidationService().isMethodValidated(request.getMethod())) {
+            validationLogger.warn(request.getMethod(), "unsupported-method", "请求方法 {} 未配置 JSON Schema 验证", request.getMethod());
+            return true;
+        }
+        this.getJsonSchemaValidationService().validate(request);
         return true;
 
     }
@@ -48,32 +49,4 @@ public class JsonSchemaValidationInterceptor implements HandlerInterceptor {
         // 可以在这里添加请求完成后的逻辑，例如日志记录等
 
     }
-
-    /**
-     * 检查请求是否为 GET 请求
-     *
-     * @param request HttpServletRequest 对象
-     * @return 如果是 GET 请求返回 true，否则返回 false
-     */
-    private boolean isGetRequest(HttpServletRequest request) {
-        return HttpMethod.GET.matches(request.getMethod());
-    }
-
-    /**
-     * 提取请求参数
-     *
-     * @param request HttpServletRequest 对象
-     * @return 包含请求参数的 Map
-     */
-    private Map<String, Object> extractRequestParams(HttpServletRequest request) {
-        Map<String, String[]> parameterMap = request.getParameterMap();
-        Map<String, Object> params = new HashMap<>();
-        for (Map.Entry<String, String[]> entry : parameterMap.entrySet()) {
-            String[] values = entry.getValue();
-            if (values != null && values.length > 0) {
-                params.put(entry.getKey(), values[0]);
-            }
-        }
-        return params;
-    }
-}
\ No newline at end of file
+}
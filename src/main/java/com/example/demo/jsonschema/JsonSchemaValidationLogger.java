@@ -0,0 +1,186 @@
+package com.example.demo.jsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 验证热路径上的限流日志组件。
+ * <p>
+ * 同一事件（按路由和原因区分）在一个时间间隔内最多输出一次，
+ * 间隔内被抑制的次数会附加在下一次输出的日志中。事件在突发后不再出现时，后台线程每个间隔检查一次，
+ * 把时间间隔已结束但尚未报告的抑制次数单独输出；应用关闭时输出所有未报告的抑制次数。
+ * 计数使用 {@link LongAdder}，并发请求线程之间不会在同一个计数器上竞争。
+ */
+@Slf4j
+@Component
+public class JsonSchemaValidationLogger {
+
+    /**
+     * 最多跟踪的不同事件数量，超出后的事件合并到同一个溢出事件中，避免未知 URI 导致内存无限增长
+     */
+    private static final int MAX_EVENTS = 10_000;
+
+    private static final String OVERFLOW_ROUTE = "*";
+
+    private final ConcurrentMap<String, EventCounter> counters = new ConcurrentHashMap<>();
+
+    private final long intervalNanos;
+
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public JsonSchemaValidationLogger(JsonSchemaConfig jsonSchemaConfig) {
+        this(jsonSchemaConfig.getLogIntervalMillis());
+    }
+
+    public JsonSchemaValidationLogger(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(intervalMillis, 0));
+    }
+
+    /**
+     * 启动后台线程，定期输出已结束时间间隔内被抑制的次数
+     */
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "validation-log-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(TimeUnit.NANOSECONDS.toMillis(intervalNanos), 1000L);
+        flusher.scheduleWithFixedDelay(() -> flush(false), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台线程，并输出所有尚未报告的抑制次数
+     */
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush(true);
+    }
+
+    /**
+     * 以 WARN 级别输出限流日志
+     *
+     * @param route  路由，例如 URI 模板或请求方法
+     * @param reason 事件原因
+     * @param format 日志格式
+     * @param args   日志参数
+     */
+    public void warn(String route, String reason, String format, Object... args) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        String suffix = acquire(route, reason);
+        if (suffix != null) {
+            log.warn(format + suffix, args);
+        }
+    }
+
+    /**
+     * 以 INFO 级别输出限流日志
+     *
+     * @param route  路由，例如 URI 模板或请求方法
+     * @param reason 事件原因
+     * @param format 日志格式
+     * @param args   日志参数
+     */
+    public void info(String route, String reason, String format, Object... args) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        String suffix = acquire(route, reason);
+        if (suffix != null) {
+            log.info(format + suffix, args);
+        }
+    }
+
+    /**
+     * 记录一次事件，并判断本次是否允许输出日志
+     *
+     * @param route  路由
+     * @param reason 事件原因
+     * @return 允许输出时返回附加在日志末尾的抑制次数摘要，否则返回 null
+     */
+    String acquire(String route, String reason) {
+        EventCounter counter = getCounter(route, reason);
+        counter.occurrences.increment();
+
+        long now = System.nanoTime();
+        long next = counter.nextEmitNanos.get();
+        if (now - next < 0 || !counter.nextEmitNanos.compareAndSet(next, now + intervalNanos)) {
+            return null;
+        }
+        long suppressed = counter.occurrences.sumThenReset() - 1;
+        return suppressed > 0 ? String.format(" (suppressed %d similar events)", suppressed) : "";
+    }
+
+    /**
+     * 输出尚未报告的抑制次数。只检查时间间隔已结束的事件时，下一次出现的同一事件不再附带这些次数，会立即输出
+     *
+     * @param all 为 true 时不论时间间隔是否结束都输出（应用关闭时）
+     * @return 输出了抑制次数的事件数量
+     */
+    int flush(boolean all) {
+        long now = System.nanoTime();
+        int flushed = 0;
+        for (EventCounter counter : counters.values()) {
+            long next = counter.nextEmitNanos.get();
+            if ((!all && now - next < 0) || counter.occurrences.sum() == 0
+                    || !counter.nextEmitNanos.compareAndSet(next, all ? next : now)) {
+                continue;
+            }
+            long suppressed = counter.occurrences.sumThenReset();
+            if (suppressed > 0) {
+                log.info("Suppressed {} '{}' events for {}", suppressed, counter.reason, counter.route);
+                flushed++;
+            }
+        }
+        return flushed;
+    }
+
+    private EventCounter getCounter(String route, String reason) {
+        String key = route + '|' + reason;
+        EventCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= MAX_EVENTS) {
+            route = OVERFLOW_ROUTE;
+            key = route + '|' + reason;
+        }
+        EventCounter created = new EventCounter(route, reason, System.nanoTime());
+        counter = counters.putIfAbsent(key, created);
+        return counter == null ? created : counter;
+    }
+
+    /**
+     * 单个事件的计数器
+     */
+    private static final class EventCounter {
+        private final String route;
+        private final String reason;
+        private final LongAdder occurrences = new LongAdder();
+        private final AtomicLong nextEmitNanos;
+
+        private EventCounter(String route, String reason, long now) {
+            this.route = route;
+            this.reason = reason;
+            this.nextEmitNanos = new AtomicLong(now);
+        }
+    }
+}
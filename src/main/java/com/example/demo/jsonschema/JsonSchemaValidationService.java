@@ -1,20 +1,39 @@
 package com.example.demo.jsonschema;
 
+import com.example.demo.jsonschema.jfr.ValidationPhase;
+import com.example.demo.jsonschema.jfr.ValidationPhases;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.networknt.schema.JsonSchema;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.networknt.schema.JsonNodePath;
 import com.networknt.schema.ValidationMessage;
 import lombok.Data;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.WebUtils;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * JSON Schema 验证服务。
+ * <p>
+ * 路由解析、JsonNode 树构建、schema 验证和错误渲染各阶段都会发出 JFR 事件（见 {@code jfr} 包），
+ * 在 Java Flight Recorder 中可以按 URI 模板观察验证耗时，并与 GC、锁等事件关联。
+ */
 @Slf4j
 @Component
 @Getter
@@ -27,6 +46,56 @@ public class JsonSchemaValidationService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JsonSchemaValidationLogger validationLogger;
+
+    @Autowired
+    private LoadSheddingController loadSheddingController;
+
+    /**
+     * 违规统计表，未注入时不统计
+     */
+    @Autowired(required = false)
+    private ViolationAnalyticsTable violationAnalytics;
+
+    /**
+     * 流量录制器，未注入时不录制
+     */
+    @Autowired(required = false)
+    private TrafficRecorder trafficRecorder;
+
+    /**
+     * 影子 schema 对比器，未注入时不对比
+     */
+    @Autowired(required = false)
+    private ShadowSchemaEvaluator shadowSchemaEvaluator;
+
+    /**
+     * 验证 HTTP 请求，{@link JsonSchemaValidationInterceptor} 和 {@link JsonSchemaValidationFilter} 共用。
+     * 查询字符串在命中路由后按 schema 声明的参数名按需解码，表单请求的参数由容器解析；
+     * 请求体由 {@link JsonSchemaRequestBodyFilter} 缓存，在命中路由后才解析。
+     *
+     * @param request HTTP 请求
+     */
+    public void validate(HttpServletRequest request) {
+        CachedBodyRequestWrapper bodyRequest = WebUtils.getNativeRequest(request, CachedBodyRequestWrapper.class);
+        RequestBodyFormat bodyFormat = bodyRequest == null ? null : bodyRequest.getFormat();
+        byte[] body = bodyRequest == null ? null : bodyRequest.getBody();
+        TenantSelection selection = this.getJsonSchemaConfig().selectTenant(request);
+        String queryString = request.getQueryString();
+        if (queryString != null && !isFormContent(request.getContentType())) {
+            validate(selection.getRouteTable(), request.getMethod(), selection.getUri(), null, queryString, bodyFormat, body);
+            return;
+        }
+        // 表单参数只能通过容器解析；没有查询字符串的非表单请求参数表为空，不会读取请求体
+        ValidationPhase phase = ValidationPhases.parameterExtraction();
+        Map<String, Object> params = extractRequestParams(request);
+        phase.complete(request.getMethod(), request.getRequestURI(), null, ValidationPhase.OUTCOME_COMPLETED, 0);
+        if (hasParams(params)) {
+            validate(selection.getRouteTable(), request.getMethod(), selection.getUri(), params, null, bodyFormat, body);
+        }
+    }
+
     /**
      * 对给定的请求方法、URI和参数进行JSON Schema验证
      *
@@ -35,47 +104,190 @@ public class JsonSchemaValidationService {
      * @param params 请求的参数，以键值对的形式存储
      */
     public void validate(String method, String uri, Map<String, Object> params) {
-        if (!shouldValidate(method, uri, params)) {
+        validate(method, uri, params, null, null);
+    }
+
+    /**
+     * 对给定的请求方法、URI、参数和请求体进行JSON Schema验证。
+     * 请求体只在命中路由并需要验证时才解析，对象类型请求体的字段与参数合并为同一个 JsonNode 树，
+     * 与参数同名的字段以参数（包括路径变量）为准；非对象类型的请求体放在 body 属性下。
+     *
+     * @param method     请求方法，如GET、POST等
+     * @param uri        请求的URI
+     * @param params     请求的参数，以键值对的形式存储
+     * @param bodyFormat 请求体格式，没有请求体时为 null
+     * @param body       原始请求体，没有请求体时为 null
+     */
+    public void validate(String method, String uri, Map<String, Object> params, RequestBodyFormat bodyFormat, byte[] body) {
+        if (!hasParams(params)) {
             return;
         }
+        validate(this.getJsonSchemaConfig().getRouteTable(), method, uri, params, null, bodyFormat, body);
+    }
 
-        uri = adjustUri(uri, params);
-        JsonSchema jsonSchema = getSchema(uri);
+    /**
+     * 对给定的请求方法、URI、原始查询字符串和请求体进行JSON Schema验证。
+     * 查询字符串在命中路由后才解析，只解码 schema 声明的参数，schema 需要检查未声明的参数时才解码全部参数，
+     * 见 {@link QueryStringParser}。
+     *
+     * @param method      请求方法，如GET、POST等
+     * @param uri         请求的URI
+     * @param queryString 原始查询字符串，不包含 ?，没有查询字符串时为 null
+     * @param bodyFormat  请求体格式，没有请求体时为 null
+     * @param body        原始请求体，没有请求体时为 null
+     */
+    public void validateQueryString(String method, String uri, String queryString, RequestBodyFormat bodyFormat, byte[] body) {
+        validate(this.getJsonSchemaConfig().getRouteTable(), method, uri, null, queryString, bodyFormat, body);
+    }
 
-        if (jsonSchema != null) {
-            performValidation(uri, params, jsonSchema);
+    /**
+     * 验证入口，按给定的路由表（全局或租户的路由表）匹配路由，params 为 null 时从 queryString 中按需解析参数
+     */
+    private void validate(RouteTable routeTable, String method, String uri, Map<String, Object> params, String queryString,
+                          RequestBodyFormat bodyFormat, byte[] body) {
+        validate(routeTable, method, uri, params, queryString, bodyFormat, body, false);
+    }
+
+    /**
+     * 验证入口的实现。warmUp 为 true 时（预热）执行相同的路由解析、参数解析、树构建、schema 验证和错误渲染，
+     * 但不做采样和降级判断，不编译尚未编译的 schema，不计入路由统计和自适应降级，不录制流量，
+     * 也不输出验证失败日志和做影子 schema 对比。
+     *
+     * @return 执行了验证返回 true，未命中路由、未被采样或 schema 不可用时返回 false
+     */
+    private boolean validate(RouteTable routeTable, String method, String uri, Map<String, Object> params, String queryString,
+                             RequestBodyFormat bodyFormat, byte[] body, boolean warmUp) {
+        HttpMethod httpMethod = HttpMethod.resolve(method);
+        if (!shouldValidate(routeTable, httpMethod, uri)) {
+            return false;
+        }
+
+        RouteMatch routeMatch = resolveRoute(routeTable, httpMethod, uri);
+        if (routeMatch == null) {
+            return false;
         }
+
+        // 代价超出预算的路由降级为采样验证，验证耗时超出预算时按优先级降级
+        RouteEntry route = routeMatch.getRoute();
+        if (!warmUp && (!route.isSampled() || !loadSheddingController.shouldValidate(route))) {
+            return false;
+        }
+
+        // 延迟编译模式下首次使用时在这里编译，编译耗时单独统计，不计入路由的验证耗时
+        CompiledSchema compiledSchema = warmUp ? route.getSchema().getIfCompiled() : route.getCompiledSchema();
+        if (compiledSchema == null) {
+            if (!warmUp) {
+                validationLogger.warn(route.getUriTemplate(), "schema-unavailable",
+                        "JSON schema for {} {} failed to compile, skipping validation", method, route.getUriTemplate());
+            }
+            return false;
+        }
+
+        long startNanos = System.nanoTime();
+        long startCpuTime = loadSheddingController.currentCpuTime();
+        boolean failed = false;
+        try {
+            // 复制参数，路径变量只写入副本，避免修改调用方传入的 Map
+            params = params == null
+                    ? extractQueryParams(method, uri, route.getUriTemplate(), queryString, compiledSchema)
+                    : new HashMap<>(params);
+            addPathVariables(params, routeMatch.getPathVariables());
+            performValidation(method, uri, route, params, bodyFormat, body, compiledSchema, !warmUp);
+        } catch (JsonSchemaValidationException e) {
+            failed = true;
+            throw e;
+        } finally {
+            if (!warmUp) {
+                loadSheddingController.record(route, startNanos, startCpuTime);
+                // 参数副本在验证后不再修改，直接交给录制线程
+                if (trafficRecorder != null && trafficRecorder.isSampled()) {
+                    trafficRecorder.record(method, uri, route.getUriTemplate(), params, System.nanoTime() - startNanos, failed);
+                }
+            }
+        }
+        return true;
     }
 
     /**
-     * 判断是否应该进行验证
+     * 预热使用的验证入口，与带查询字符串的请求走相同的验证路径（包括 {@link QueryStringParser} 按需解码参数），
+     * 但不做采样和降级判断，不计入路由统计，也不输出验证失败日志。
+     * 延迟编译模式下尚未编译的路由不会被编译。
      *
-     * @param method 请求方法
-     * @param uri    请求的URI
-     * @param params 请求的参数
-     * @return 如果应该验证返回true，否则返回false
+     * @param routeTable  全局或租户的路由表
+     * @param method      请求方法
+     * @param uri         用于匹配路由的 URI
+     * @param queryString 查询字符串
+     * @return 验证通过返回 true，验证失败返回 false，未命中路由或路由尚未编译时返回 null
      */
-    private boolean shouldValidate(String method, String uri, Map<String, Object> params) {
-        return isValidationEnabled() && isMethodAllowed(method) && isValidUri(uri) && hasParams(params) && !isUriExcluded(uri);
+    Boolean validateForWarmUp(RouteTable routeTable, String method, String uri, String queryString) {
+        try {
+            return validate(routeTable, method, uri, null, queryString, null, null, true) ? Boolean.TRUE : null;
+        } catch (JsonSchemaValidationException e) {
+            return false;
+        }
     }
 
     /**
-     * 检查JSON Schema验证功能是否启用
+     * 判断请求体是否为表单，表单字段会出现在 {@link HttpServletRequest#getParameterMap()} 中
      *
-     * @return 如果启用则返回true，否则返回false
+     * @param contentType 请求的 Content-Type
+     * @return 表单请求返回 true
      */
-    private boolean isValidationEnabled() {
-        return this.getJsonSchemaConfig().isEnabled();
+    private static boolean isFormContent(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE) || type.startsWith("multipart/");
+    }
+
+    /**
+     * 通过容器提取请求参数，同名参数只保留第一个值
+     *
+     * @param request HttpServletRequest 对象
+     * @return 包含请求参数的 Map
+     */
+    private static Map<String, Object> extractRequestParams(HttpServletRequest request) {
+        Map<String, String[]> parameterMap = request.getParameterMap();
+        Map<String, Object> params = new HashMap<>();
+        for (Map.Entry<String, String[]> entry : parameterMap.entrySet()) {
+            String[] values = entry.getValue();
+            if (values != null && values.length > 0) {
+                params.put(entry.getKey(), values[0]);
+            }
+        }
+        return params;
     }
 
     /**
-     * 检查请求方法是否在允许的方法列表中
+     * 判断请求方法是否在全局或任一租户中注册了需要验证的路由
      *
      * @param method 请求方法
-     * @return 如果在允许的方法列表中则返回true，否则返回false
+     * @return 注册了路由返回true，否则返回false
+     */
+    public boolean isMethodValidated(String method) {
+        return isValidationEnabled() && this.getJsonSchemaConfig().hasRoutes(HttpMethod.resolve(method));
+    }
+
+    /**
+     * 判断是否应该进行验证
+     *
+     * @param routeTable 路由表
+     * @param method     请求方法
+     * @param uri        请求的URI
+     * @return 如果应该验证返回true，否则返回false
+     */
+    private boolean shouldValidate(RouteTable routeTable, HttpMethod method, String uri) {
+        return isValidationEnabled() && routeTable.hasRoutes(method) && isValidUri(uri) && !routeTable.isExcluded(uri);
+    }
+
+    /**
+     * 检查JSON Schema验证功能是否启用
+     *
+     * @return 如果启用则返回true，否则返回false
      */
-    private boolean isMethodAllowed(String method) {
-        return this.getJsonSchemaConfig().getIncludeMethods().contains(method);
+    private boolean isValidationEnabled() {
+        return this.getJsonSchemaConfig().isEnabled();
     }
 
     /**
@@ -99,48 +311,41 @@ public class JsonSchemaValidationService {
     }
 
     /**
-     * 检查URI是否在排除列表中
+     * 在请求方法对应的路由中解析URI，只会查找该请求方法注册的路由
      *
-     * @param uri 请求的URI
-     * @return 如果URI在排除列表中则返回true，否则返回false
-     */
-    private boolean isUriExcluded(String uri) {
-        return this.getJsonSchemaConfig().getExcludeUris().contains(uri);
-    }
-
-    /**
-     * 调整URI，处理其中的路径变量，并将路径变量添加到参数中
-     *
-     * @param uri    请求的URI
-     * @param params 请求的参数
-     * @return 调整后的URI
+     * @param routeTable 路由表
+     * @param method     请求方法
+     * @param uri        请求的URI
+     * @return 解析结果，如果不存在则返回null
      */
-    private String adjustUri(String uri, Map<String, Object> params) {
-        Set<String> pathVariableUriSet = this.getJsonSchemaConfig().getPathVariableUriSet();
-        UriMatcher.UriMatchResult matchResult = findMatchingUri(uri, pathVariableUriSet);
-
-        if (matchResult != null && matchResult.isMatch()) {
-            uri = matchResult.getUriTemplate();
-            addPathVariables(params, matchResult.getPathVariableMap());
+    private RouteMatch resolveRoute(RouteTable routeTable, HttpMethod method, String uri) {
+        ValidationPhase phase = ValidationPhases.routeResolution();
+        RouteMatch routeMatch = routeTable.resolve(method, uri);
+        phase.complete(method.name(), uri, routeMatch == null ? null : routeMatch.getRoute().getUriTemplate(),
+                routeMatch == null ? ValidationPhase.OUTCOME_UNMATCHED : ValidationPhase.OUTCOME_MATCHED, 0);
+        if (routeMatch == null) {
+            // 未命中路由的 URI 不受控制（扫描器、路径中的 ID），按请求方法限流，URI 只出现在日志内容中
+            validationLogger.warn(method.name(), "no-schema", "No JSON schema found for {} {}", method, uri);
         }
-        return uri;
+        return routeMatch;
     }
 
     /**
-     * 查找与给定URI匹配的URI模板
+     * 按命中路由的 schema 声明的参数名解析查询字符串
      *
-     * @param uri          请求的URI
-     * @param uriTemplates 包含URI模板的集合
-     * @return 匹配结果，如果没有匹配则返回null
+     * @param method         请求方法
+     * @param uri            请求的URI
+     * @param uriTemplate    命中的URI模板
+     * @param queryString    原始查询字符串
+     * @param compiledSchema 编译后的 JSON Schema
+     * @return 参与验证的参数
      */
-    private UriMatcher.UriMatchResult findMatchingUri(String uri, Set<String> uriTemplates) {
-        for (String uriTemplate : uriTemplates) {
-            UriMatcher.UriMatchResult result = UriMatcher.matchUriToTemplate(uri, uriTemplate);
-            if (result.isMatch()) {
-                return result;
-            }
-        }
-        return null;
+    private Map<String, Object> extractQueryParams(String method, String uri, String uriTemplate, String queryString,
+                                                   CompiledSchema compiledSchema) {
+        ValidationPhase phase = ValidationPhases.parameterExtraction();
+        Map<String, Object> params = QueryStringParser.parse(queryString, compiledSchema.getDeclaredParameters());
+        phase.complete(method, uri, uriTemplate, ValidationPhase.OUTCOME_COMPLETED, 0);
+        return params;
     }
 
     /**
@@ -154,96 +359,160 @@ public class JsonSchemaValidationService {
     }
 
     /**
-     * 获取与给定URI对应的JSON Schema
+     * 执行JSON Schema验证
      *
-     * @param uri 请求的URI
-     * @return 对应的JSON Schema，如果不存在则返回null
+     * @param method         请求方法
+     * @param uri            请求的URI
+     * @param route          命中的路由
+     * @param params         请求的参数
+     * @param bodyFormat     请求体格式，没有请求体时为 null
+     * @param body           原始请求体，没有请求体时为 null
+     * @param compiledSchema 对应的编译后 JSON Schema
+     * @param report         验证失败时是否输出日志，为 false 时（预热）也不做影子 schema 对比
      */
-    private JsonSchema getSchema(String uri) {
-        JsonSchema jsonSchema = this.getJsonSchemaConfig().getSchemaMap().get(uri);
-        if (jsonSchema == null) {
-            log.warn("No JSON schema found for URI: {}", uri);
+    private void performValidation(String method, String uri, RouteEntry route, Map<String, Object> params,
+                                   RequestBodyFormat bodyFormat, byte[] body, CompiledSchema compiledSchema, boolean report) {
+        if (!hasParams(params)) {
+            return;
+        }
+        String uriTemplate = route.getUriTemplate();
+        ValidationPhase treePhase = ValidationPhases.treeConstruction();
+        ObjectNode jsonNode = this.getObjectMapper().valueToTree(params);
+        if (bodyFormat != null && body != null && body.length > 0) {
+            try {
+                mergeBody(jsonNode, bodyFormat.readTree(body));
+            } catch (IOException e) {
+                treePhase.complete(method, uri, uriTemplate, ValidationPhase.OUTCOME_ERROR, 0);
+                handleMalformedBody(uriTemplate, bodyFormat, e, compiledSchema);
+            }
+        }
+        treePhase.complete(method, uri, uriTemplate, ValidationPhase.OUTCOME_COMPLETED, 0);
+
+        ValidationPhase evaluationPhase = ValidationPhases.schemaEvaluation();
+        Set<ValidationMessage> validationMessages;
+        try {
+            validationMessages = compiledSchema.getJsonSchema().validate(jsonNode);
+        } catch (RuntimeException e) {
+            evaluationPhase.complete(method, uri, uriTemplate, ValidationPhase.OUTCOME_ERROR, 0);
+            throw e;
+        }
+        evaluationPhase.complete(method, uri, uriTemplate,
+                validationMessages.isEmpty() ? ValidationPhase.OUTCOME_PASSED : ValidationPhase.OUTCOME_FAILED,
+                validationMessages.size());
+
+        // 参数树在验证后不再修改，直接交给影子 schema 对比线程
+        if (report && shadowSchemaEvaluator != null && shadowSchemaEvaluator.isSampled(route)) {
+            shadowSchemaEvaluator.submit(route, compiledSchema, jsonNode);
+        }
+
+        if (!validationMessages.isEmpty()) {
+            handleValidationErrors(method, uri, uriTemplate, validationMessages, compiledSchema, report);
         }
-        return jsonSchema;
     }
 
     /**
-     * 执行JSON Schema验证
+     * 将请求体合并到参数树中，与参数同名的字段以参数为准
      *
-     * @param uri        请求的URI
-     * @param params     请求的参数
-     * @param jsonSchema 对应的JSON Schema
+     * @param tree     参数树
+     * @param bodyNode 请求体树
      */
-    private void performValidation(String uri, Map<String, Object> params, JsonSchema jsonSchema) {
-        if (!hasParams(params)) {
+    private void mergeBody(ObjectNode tree, JsonNode bodyNode) {
+        if (!bodyNode.isObject()) {
+            tree.putIfAbsent("body", bodyNode);
             return;
         }
-        JsonNode jsonNode = this.getObjectMapper().valueToTree(params);
-        Set<ValidationMessage> validationMessages = jsonSchema.validate(jsonNode);
+        Iterator<Map.Entry<String, JsonNode>> fields = bodyNode.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            tree.putIfAbsent(field.getKey(), field.getValue());
+        }
+    }
 
-        if (!validationMessages.isEmpty()) {
-            handleValidationErrors(uri, validationMessages, jsonSchema);
+    /**
+     * 请求体无法解析时按验证失败处理
+     *
+     * @param uriTemplate    命中的URI模板
+     * @param bodyFormat     请求体格式
+     * @param cause          解析异常
+     * @param compiledSchema 编译后的 JSON Schema
+     */
+    private void handleMalformedBody(String uriTemplate, RequestBodyFormat bodyFormat, IOException cause,
+                                     CompiledSchema compiledSchema) {
+        String message = String.format("Malformed %s request body: %s", bodyFormat,
+                cause instanceof JsonProcessingException ? ((JsonProcessingException) cause).getOriginalMessage() : cause.getMessage());
+        byte[] json = JsonSchemaErrorRenderer.renderError(compiledSchema, null, "format", message);
+        validationLogger.info(uriTemplate, "malformed-body", "URI '{}' {}", uriTemplate, message);
+        if (violationAnalytics != null) {
+            violationAnalytics.record(uriTemplate, null, "format");
         }
+        throw new JsonSchemaValidationException(message,
+                Collections.singletonList(new JsonSchemaValidationError(null, "format", message, json)));
     }
 
     /**
      * 处理验证错误
      *
+     * @param method             请求方法
      * @param uri                请求的URI
+     * @param uriTemplate        命中的URI模板
      * @param validationMessages 验证消息集合
-     * @param jsonSchema         JSON Schema对象
+     * @param compiledSchema     编译后的 JSON Schema
+     * @param report             是否输出验证失败日志
      */
-    private void handleValidationErrors(String uri, Set<ValidationMessage> validationMessages, JsonSchema jsonSchema) {
-        List<String> customErrorMessages = buildCustomErrorMessages(validationMessages, jsonSchema);
-        String errors = String.join("; ", customErrorMessages);
-        log.info("URI '{}' parameter validation failed: {}", uri, errors);
-        throw new JsonSchemaValidationException(errors);
+    private void handleValidationErrors(String method, String uri, String uriTemplate, Set<ValidationMessage> validationMessages,
+                                        CompiledSchema compiledSchema, boolean report) {
+        ValidationPhase renderingPhase = ValidationPhases.errorRendering();
+        List<JsonSchemaValidationError> errors = buildValidationErrors(validationMessages, compiledSchema);
+        StringBuilder messageBuilder = new StringBuilder();
+        for (JsonSchemaValidationError error : errors) {
+            if (messageBuilder.length() > 0) {
+                messageBuilder.append("; ");
+            }
+            messageBuilder.append(error.getMessage());
+        }
+        String message = messageBuilder.toString();
+        renderingPhase.complete(method, uri, uriTemplate, ValidationPhase.OUTCOME_FAILED, errors.size());
+        if (report) {
+            validationLogger.info(uriTemplate, "validation-failed", "URI '{}' parameter validation failed: {}", uriTemplate, message);
+            if (violationAnalytics != null) {
+                violationAnalytics.record(uriTemplate, errors);
+            }
+        }
+        throw new JsonSchemaValidationException(message, errors);
     }
 
     /**
-     * 构建自定义的错误消息列表
+     * 构建结构化的验证错误列表
      *
-     * @param messages   验证消息集合
-     * @param jsonSchema JSON Schema对象
-     * @return 自定义的错误消息列表
+     * @param messages       验证消息集合
+     * @param compiledSchema 编译后的 JSON Schema
+     * @return 验证错误列表
      */
-    private List<String> buildCustomErrorMessages(Set<ValidationMessage> messages, JsonSchema jsonSchema) {
-        List<String> errorMessages = new ArrayList<>();
+    private List<JsonSchemaValidationError> buildValidationErrors(Set<ValidationMessage> messages, CompiledSchema compiledSchema) {
+        List<JsonSchemaValidationError> errors = new ArrayList<>(messages.size());
         for (ValidationMessage message : messages) {
-            errorMessages.add(getCustomErrorMessage(message, jsonSchema));
+            String property = getNodeName(message);
+            String errorMessage = getCustomErrorMessage(message, property, compiledSchema);
+            byte[] json = JsonSchemaErrorRenderer.renderError(compiledSchema, property, message.getType(), errorMessage);
+            errors.add(new JsonSchemaValidationError(property, message.getType(), errorMessage, json));
         }
-        return errorMessages;
+        return errors;
     }
 
     /**
-     * 从验证消息中提取自定义的错误消息
+     * 获取自定义的错误消息，自定义消息在 schema 编译时已从 errorMessages 节点中提取
      *
-     * @param message    验证消息
-     * @param jsonSchema JSON Schema对象
+     * @param message        验证消息
+     * @param nodeName       节点名称
+     * @param compiledSchema 编译后的 JSON Schema
      * @return 自定义错误消息或原始验证消息
      */
-    private String getCustomErrorMessage(ValidationMessage message, JsonSchema jsonSchema) {
-        try {
-            // 获取包含自定义错误信息的节点
-            JsonNode errorMessagesNode = jsonSchema.getSchemaNode().at("/errorMessages");
-            if (errorMessagesNode.isMissingNode()) {
-                return message.getMessage();
-            }
-
-            // 获取节点名称
-            String nodeName = getNodeName(message);
-            JsonNode customMessageNode = errorMessagesNode.get(nodeName);
-
-            // 检查节点是否存在且为文本类型，并且文本内容不为空
-            if (customMessageNode != null && customMessageNode.isTextual()) {
-                String customMessage = customMessageNode.asText().trim();
-                if (!customMessage.isEmpty()) {
-                    return String.format("参数 '%s' 验证失败 ： '%s' ", nodeName, customMessage);
-                }
+    private String getCustomErrorMessage(ValidationMessage message, String nodeName, CompiledSchema compiledSchema) {
+        if (nodeName != null) {
+            String customMessage = compiledSchema.getErrorMessages().get(nodeName);
+            if (customMessage != null) {
+                return customMessage;
             }
-        } catch (Exception e) {
-            // 记录处理验证消息时的异常信息
-            log.warn("Error processing validation message", e);
         }
         // 若未找到有效自定义消息，返回原始验证消息
         return message.getMessage();
@@ -253,9 +522,16 @@ public class JsonSchemaValidationService {
      * 根据验证消息获取节点名称
      *
      * @param message 验证消息
-     * @return 节点名称
+     * @return 节点名称，无法确定时返回 null
      */
     private String getNodeName(ValidationMessage message) {
-        return message.getMessageKey().equals("required") ? message.getProperty() : message.getInstanceLocation().getName(0);
+        if ("required".equals(message.getMessageKey())) {
+            return message.getProperty();
+        }
+        JsonNodePath instanceLocation = message.getInstanceLocation();
+        if (instanceLocation != null && instanceLocation.getNameCount() > 0) {
+            return instanceLocation.getName(0);
+        }
+        return message.getProperty();
     }
-}
\ No newline at end of file
+}
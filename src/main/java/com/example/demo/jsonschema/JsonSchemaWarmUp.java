@@ -0,0 +1,313 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动后的 JIT 预热。
+ * <p>
+ * 根据每个路由 schema 中 properties 的 default、enum、examples 和 pattern 提示生成一组合法参数和一组非法参数，
+ * 编码为查询字符串后通过 {@link JsonSchemaValidationService} 与真实请求相同的验证路径反复验证，
+ * 使路由解析、查询参数解码、JsonNode 树构建、schema 验证和错误渲染的代码在接收流量之前完成 JIT 编译。
+ * 全局路由表和每个租户的路由表都会预热。预热在 {@link ApplicationRunner} 中同步执行，Spring Boot 在所有 ApplicationRunner
+ * 完成后才把就绪状态切换为 ACCEPTING_TRAFFIC，因此就绪探针会等待预热结束。
+ * <p>
+ * 预热流量不计入路由统计，不参与自适应降级，也不输出验证失败日志；延迟编译模式下尚未编译的路由不会被编译。
+ */
+@Slf4j
+@Component
+public class JsonSchemaWarmUp implements ApplicationRunner {
+
+    /**
+     * 非法枚举值
+     */
+    private static final String INVALID_ENUM_VALUE = "__warm_up_invalid__";
+
+    @Setter
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Setter
+    @Autowired
+    private JsonSchemaValidationService jsonSchemaValidationService;
+
+    /**
+     * 最近一次预热的结果，未执行预热时为 null
+     */
+    @Getter
+    private volatile Report report;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (jsonSchemaConfig.isEnabled() && jsonSchemaConfig.getWarmUp().isEnabled()) {
+            warmUp();
+        }
+    }
+
+    /**
+     * 执行预热
+     *
+     * @return 预热结果
+     */
+    public Report warmUp() {
+        JsonSchemaConfig.WarmUp settings = jsonSchemaConfig.getWarmUp();
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.MILLISECONDS.toNanos(settings.getMaxMillis());
+
+        Report result = new Report();
+        List<Sample> samples = new ArrayList<>();
+        Map<String, RouteTable> tables = new LinkedHashMap<>();
+        tables.put(null, jsonSchemaConfig.getRouteTable());
+        tables.putAll(new TreeMap<>(jsonSchemaConfig.getTenantRouteTables()));
+        for (Map.Entry<String, RouteTable> table : tables.entrySet()) {
+            for (RouteEntry route : table.getValue().getRoutes()) {
+                result.routes++;
+                CompiledSchema compiledSchema = route.getSchema().getIfCompiled();
+                if (compiledSchema == null) {
+                    result.skippedRoutes++;
+                    continue;
+                }
+                samples.addAll(buildSamples(table.getKey(), table.getValue(), route,
+                        compiledSchema.getJsonSchema().getSchemaNode(), result));
+            }
+        }
+
+        Set<String> warmedRoutes = new HashSet<>();
+        int iterations = Math.max(settings.getIterations(), 0);
+        outer:
+        for (int i = 0; i < iterations; i++) {
+            for (Sample sample : samples) {
+                if (System.nanoTime() - deadline > 0) {
+                    result.timedOut = true;
+                    break outer;
+                }
+                Boolean passed = jsonSchemaValidationService.validateForWarmUp(sample.routeTable, sample.method, sample.uri,
+                        sample.queryString);
+                if (passed == null) {
+                    continue;
+                }
+                result.validations++;
+                if (passed != sample.expectValid) {
+                    result.unexpectedOutcomes++;
+                }
+                warmedRoutes.add(sample.routeKey);
+            }
+            result.completedIterations = i + 1;
+        }
+        result.warmedRoutes = warmedRoutes.size();
+        result.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        this.report = result;
+
+        log.info("JSON schema warm-up finished in {} ms: {}/{} routes warmed ({} not compiled), {} of {} iterations, "
+                        + "{} validations, {}/{} properties with hints, {} unexpected outcomes{}",
+                result.elapsedMillis, result.warmedRoutes, result.routes, result.skippedRoutes, result.completedIterations,
+                iterations, result.validations, result.hintedProperties, result.properties, result.unexpectedOutcomes,
+                result.timedOut ? ", stopped at max-millis" : "");
+        return result;
+    }
+
+    /**
+     * 为一个路由生成合法和非法的参数集
+     */
+    private List<Sample> buildSamples(String tenant, RouteTable routeTable, RouteEntry route, JsonNode schemaNode,
+                                      Report result) {
+        Map<String, Object> valid = new HashMap<>();
+        Map<String, Object> invalid = new HashMap<>();
+        JsonNode properties = schemaNode.path("properties");
+        Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            result.properties++;
+            Object validValue = validValue(field.getValue());
+            if (validValue != null) {
+                result.hintedProperties++;
+                valid.put(field.getKey(), validValue);
+            }
+            Object invalidValue = invalidValue(field.getValue());
+            if (invalidValue != null) {
+                invalid.put(field.getKey(), invalidValue);
+            }
+        }
+        // 非法参数集中缺少必填参数
+        for (JsonNode required : schemaNode.path("required")) {
+            invalid.remove(required.asText());
+            if (!valid.containsKey(required.asText())) {
+                valid.put(required.asText(), "1");
+            }
+        }
+
+        String uri = expandUri(route, valid);
+        String method = route.getMethod().name();
+        String routeKey = (tenant == null ? "" : tenant + ' ') + method + ' ' + route.getUriTemplate();
+        List<Sample> samples = new ArrayList<>(2);
+        samples.add(new Sample(routeKey, routeTable, method, uri, toQueryString(valid), true));
+        if (!invalid.equals(valid)) {
+            samples.add(new Sample(routeKey, routeTable, method, uri, toQueryString(invalid), false));
+        }
+        return samples;
+    }
+
+    /**
+     * 依次使用 default、enum、examples、pattern 提示生成合法值
+     */
+    private static Object validValue(JsonNode property) {
+        JsonNode hint = property.get("default");
+        if (hint == null && property.path("enum").size() > 0) {
+            hint = property.path("enum").get(0);
+        }
+        if (hint == null && property.path("examples").size() > 0) {
+            hint = property.path("examples").get(0);
+        }
+        if (hint != null) {
+            return toParameterValue(hint);
+        }
+        if (property.path("pattern").isTextual()) {
+            return PatternSampler.sample(property.path("pattern").asText());
+        }
+        return null;
+    }
+
+    /**
+     * 使用 enum 或 pattern 提示生成非法值
+     */
+    private static Object invalidValue(JsonNode property) {
+        if (property.path("enum").size() > 0) {
+            return INVALID_ENUM_VALUE;
+        }
+        if (property.path("pattern").isTextual()) {
+            return PatternSampler.mismatch(property.path("pattern").asText());
+        }
+        return null;
+    }
+
+    /**
+     * 请求参数都是字符串，提示值按文本形式传入
+     */
+    private static Object toParameterValue(JsonNode hint) {
+        return hint.isValueNode() ? hint.asText() : null;
+    }
+
+    /**
+     * 把参数编码为查询字符串，预热与真实请求一样由 {@link QueryStringParser} 解码
+     */
+    private static String toQueryString(Map<String, Object> params) {
+        StringBuilder queryString = new StringBuilder();
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            if (queryString.length() > 0) {
+                queryString.append('&');
+            }
+            try {
+                queryString.append(URLEncoder.encode(param.getKey(), "UTF-8")).append('=')
+                        .append(URLEncoder.encode(String.valueOf(param.getValue()), "UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return queryString.toString();
+    }
+
+    /**
+     * 用合法参数值替换 URI 模板中的路径变量，没有提示的路径变量使用 1
+     */
+    private static String expandUri(RouteEntry route, Map<String, Object> valid) {
+        StringBuilder uri = new StringBuilder();
+        for (String segment : UriMatcher.splitPath(route.getUriTemplate())) {
+            uri.append('/');
+            if (UriMatcher.isPathVariable(segment)) {
+                Object value = valid.get(segment.substring(1, segment.length() - 1));
+                uri.append(value == null ? "1" : value);
+            } else {
+                uri.append(segment);
+            }
+        }
+        return uri.length() == 0 ? "/" : uri.toString();
+    }
+
+    /**
+     * 一组预热参数
+     */
+    private static final class Sample {
+        private final String routeKey;
+        private final RouteTable routeTable;
+        private final String method;
+        private final String uri;
+        private final String queryString;
+        private final boolean expectValid;
+
+        private Sample(String routeKey, RouteTable routeTable, String method, String uri, String queryString,
+                       boolean expectValid) {
+            this.routeKey = routeKey;
+            this.routeTable = routeTable;
+            this.method = method;
+            this.uri = uri;
+            this.queryString = queryString;
+            this.expectValid = expectValid;
+        }
+    }
+
+    /**
+     * 预热结果
+     */
+    @Getter
+    public static final class Report {
+        /**
+         * 路由总数
+         */
+        private int routes;
+        /**
+         * 至少完成一次验证的路由数
+         */
+        private int warmedRoutes;
+        /**
+         * 延迟编译模式下尚未编译而跳过的路由数
+         */
+        private int skippedRoutes;
+        /**
+         * schema 中的属性总数
+         */
+        private int properties;
+        /**
+         * 能从 default、enum、examples 或 pattern 生成合法值的属性数
+         */
+        private int hintedProperties;
+        /**
+         * 完成的迭代次数
+         */
+        private int completedIterations;
+        /**
+         * 执行的验证次数
+         */
+        private long validations;
+        /**
+         * 合法参数集验证失败或非法参数集验证通过的次数，通常说明提示不足以生成合法参数
+         */
+        private long unexpectedOutcomes;
+        /**
+         * 是否因达到 max-millis 而提前结束
+         */
+        private boolean timedOut;
+        /**
+         * 预热耗时，单位毫秒
+         */
+        private long elapsedMillis;
+    }
+}
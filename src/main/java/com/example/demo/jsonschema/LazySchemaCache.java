@@ -0,0 +1,277 @@
+package com.example.demo.jsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * 延迟编译模式下按内容哈希缓存编译结果，并在估算的堆内存超出预算时淘汰最久未使用的 schema。
+ * <p>
+ * <ul>
+ *     <li>同一个哈希同时只会编译一次：第一个未命中的请求线程通过 {@link ConcurrentMap#putIfAbsent} 占位并编译，
+ *     并发到达的其他线程等待同一个 {@link CompletableFuture}；</li>
+ *     <li>编译结果的堆内存按 Smile 编码的 schema 树长度乘以系数估算，networknt 的 JsonSchema 对象图无法在运行时精确测量；</li>
+ *     <li>超出预算时由一个线程按最近访问时间淘汰到预算的 90%，热点 schema 的访问时间持续刷新，不会被淘汰；</li>
+ *     <li>编译失败的结果同样保留在缓存中，避免每个请求都重复编译同一个无效 schema。</li>
+ * </ul>
+ */
+@Slf4j
+public class LazySchemaCache {
+
+    /**
+     * 刷新访问时间的最小间隔，热点 schema 不会在每个请求上都写同一个共享字段
+     */
+    private static final long TOUCH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 每个缓存项除 schema 对象图外的固定开销估算
+     */
+    private static final long ENTRY_OVERHEAD_BYTES = 512;
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long heapBudgetBytes;
+
+    private final int bytesPerSourceByte;
+
+    /**
+     * 编译函数，参数为内容哈希和 Smile 编码的 schema 树，schema 无效时抛出 IllegalArgumentException
+     */
+    private final BiFunction<String, byte[], CompiledSchema> compiler;
+
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder compileNanos = new LongAdder();
+    private final AtomicLong maxCompileNanos = new AtomicLong();
+
+    public LazySchemaCache(long heapBudgetBytes, int bytesPerSourceByte, BiFunction<String, byte[], CompiledSchema> compiler) {
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.bytesPerSourceByte = Math.max(bytesPerSourceByte, 1);
+        this.compiler = compiler;
+    }
+
+    /**
+     * 获取编译后的 schema，未命中时在当前线程编译，同一哈希的并发请求等待同一次编译
+     *
+     * @param hash   内容哈希
+     * @param source Smile 编码的 schema 树
+     * @return 编译后的 schema，编译失败时返回 null
+     */
+    public CompiledSchema get(String hash, byte[] source) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            Entry created = new Entry(ENTRY_OVERHEAD_BYTES + (long) source.length * bytesPerSourceByte);
+            entry = entries.putIfAbsent(hash, created);
+            if (entry == null) {
+                estimatedBytes.addAndGet(created.estimatedBytes);
+                compile(hash, source, created);
+                return created.getNow();
+            }
+        }
+        hits.increment();
+        entry.touch(System.nanoTime());
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取已编译的 schema，不会触发编译，也不刷新访问时间
+     *
+     * @param hash 内容哈希
+     * @return 编译后的 schema，未编译、正在编译或编译失败时返回 null
+     */
+    public CompiledSchema getIfCompiled(String hash) {
+        Entry entry = entries.get(hash);
+        return entry == null || !entry.future.isDone() ? null : entry.getNow();
+    }
+
+    /**
+     * 只保留给定哈希的缓存项，重新加载后不再被任何路由引用的 schema 立即释放
+     *
+     * @param hashes 当前快照引用的内容哈希
+     */
+    public void retainAll(Collection<String> hashes) {
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!hashes.contains(entry.getKey()) && entries.remove(entry.getKey(), entry.getValue())) {
+                estimatedBytes.addAndGet(-entry.getValue().estimatedBytes);
+            }
+        }
+    }
+
+    private void compile(String hash, byte[] source, Entry entry) {
+        long startNanos = System.nanoTime();
+        try {
+            entry.future.complete(compiler.apply(hash, source));
+        } catch (RuntimeException | Error e) {
+            // 等待同一次编译的线程也需要结束等待
+            failures.increment();
+            entry.future.completeExceptionally(e);
+            if (e instanceof Error) {
+                throw e;
+            }
+            log.error("Failed to compile JSON schema {} on first use: {}", hash, e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - startNanos;
+            misses.increment();
+            compileNanos.add(elapsed);
+            long max = maxCompileNanos.get();
+            while (elapsed > max && !maxCompileNanos.compareAndSet(max, elapsed)) {
+                max = maxCompileNanos.get();
+            }
+            entry.touch(System.nanoTime());
+            log.debug("Compiled JSON schema {} on first use in {} us", hash, TimeUnit.NANOSECONDS.toMicros(elapsed));
+        }
+        evictIfOverBudget(entry);
+    }
+
+    /**
+     * 估算内存超出预算时，按最近访问时间从旧到新淘汰，直到回到预算的 90%。
+     * 同一时间只有一个线程执行淘汰，其他线程不等待。
+     *
+     * @param keep 刚编译完成的缓存项，不参与本次淘汰
+     */
+    private void evictIfOverBudget(Entry keep) {
+        if (heapBudgetBytes <= 0 || estimatedBytes.get() <= heapBudgetBytes || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Entry value = entry.getValue();
+                if (value != keep && value.future.isDone()) {
+                    candidates.add(new Candidate(entry.getKey(), value, value.lastAccessNanos));
+                }
+            }
+            candidates.sort((a, b) -> Long.compare(a.lastAccessNanos - b.lastAccessNanos, 0));
+
+            long target = heapBudgetBytes - heapBudgetBytes / 10;
+            for (Candidate candidate : candidates) {
+                if (estimatedBytes.get() <= target) {
+                    break;
+                }
+                if (entries.remove(candidate.hash, candidate.entry)) {
+                    estimatedBytes.addAndGet(-candidate.entry.estimatedBytes);
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 缓存项数量，包括正在编译和编译失败的项
+     *
+     * @return 缓存项数量
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 已缓存编译结果的估算堆内存，单位字节
+     *
+     * @return 估算的字节数
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public long getHeapBudgetBytes() {
+        return heapBudgetBytes;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * 未命中时编译的平均耗时，单位微秒
+     *
+     * @return 平均耗时，没有编译过时返回 0
+     */
+    public double getMeanCompileMicros() {
+        long count = misses.sum();
+        return count == 0 ? 0 : compileNanos.sum() / 1e3 / count;
+    }
+
+    /**
+     * 未命中时编译的最大耗时，单位微秒
+     *
+     * @return 最大耗时
+     */
+    public double getMaxCompileMicros() {
+        return maxCompileNanos.get() / 1e3;
+    }
+
+    /**
+     * 单个缓存项
+     */
+    private static final class Entry {
+        private final CompletableFuture<CompiledSchema> future = new CompletableFuture<>();
+        private final long estimatedBytes;
+        private volatile long lastAccessNanos;
+
+        private Entry(long estimatedBytes) {
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        private void touch(long now) {
+            if (now - lastAccessNanos > TOUCH_INTERVAL_NANOS) {
+                lastAccessNanos = now;
+            }
+        }
+
+        private CompiledSchema getNow() {
+            return future.isCompletedExceptionally() ? null : future.getNow(null);
+        }
+    }
+
+    /**
+     * 淘汰候选项，访问时间在排序前取快照，避免排序过程中被并发修改
+     */
+    private static final class Candidate {
+        private final String hash;
+        private final Entry entry;
+        private final long lastAccessNanos;
+
+        private Candidate(String hash, Entry entry, long lastAccessNanos) {
+            this.hash = hash;
+            this.entry = entry;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+}
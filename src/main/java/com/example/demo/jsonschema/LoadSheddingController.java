@@ -0,0 +1,238 @@
+package com.example.demo.jsonschema;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应降级控制器。
+ * <p>
+ * 每个路由按固定窗口统计自己的平均验证耗时和 CPU 消耗，超出预算时提升该路由的降级级别；
+ * 全局窗口统计所有路由合计的 CPU 消耗，超出预算时提升全局降级级别。请求按路由级别和全局级别中较高的一个处理，
+ * 因此一个昂贵的路由只会降级它自己，隐藏在大量廉价请求中的昂贵路由也会被单独降级。
+ * 连续 recoveryWindows 个窗口未超出预算后恢复一级：
+ * <ul>
+ *     <li>{@link Level#NONE}：所有路由完整验证；</li>
+ *     <li>{@link Level#SAMPLE_LOW}：LOW 路由采样验证；</li>
+ *     <li>{@link Level#SKIP_LOW}：LOW 路由跳过验证，NORMAL 路由采样验证；</li>
+ *     <li>{@link Level#SKIP_NON_CRITICAL}：LOW 和 NORMAL 路由都跳过验证。</li>
+ * </ul>
+ * CRITICAL 路由在任何级别下都完整验证。窗口评估由请求线程在窗口结束后通过 CAS 触发，不需要后台线程；
+ * 每次级别变化都会输出日志，并通过 jsonschema.shedding.* 指标暴露。
+ */
+@Slf4j
+@Component
+public class LoadSheddingController {
+
+    /**
+     * 降级级别
+     */
+    public enum Level {
+        NONE, SAMPLE_LOW, SKIP_LOW, SKIP_NON_CRITICAL
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final JsonSchemaConfig.LoadShedding settings;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ThreadMXBean threadMXBean;
+
+    private final boolean measureCpu;
+
+    private final long windowNanos;
+
+    /**
+     * 全局窗口，统计所有路由合计的 CPU 消耗
+     */
+    private final LoadWindow globalWindow = new LoadWindow();
+
+    private final Map<JsonSchemaConfig.RoutePriority, Counter> skippedCounters = new EnumMap<>(JsonSchemaConfig.RoutePriority.class);
+
+    private final Map<JsonSchemaConfig.RoutePriority, Counter> sampledOutCounters = new EnumMap<>(JsonSchemaConfig.RoutePriority.class);
+
+    @Autowired
+    public LoadSheddingController(JsonSchemaConfig jsonSchemaConfig, MeterRegistry meterRegistry) {
+        this.settings = jsonSchemaConfig.getLoadShedding();
+        this.meterRegistry = meterRegistry;
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.measureCpu = settings.isEnabled() && settings.getCpuBudgetMillisPerSecond() > 0
+                && threadMXBean.isCurrentThreadCpuTimeSupported();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(settings.getWindowMillis(), 1L));
+
+        Gauge.builder("jsonschema.shedding.level", this, controller -> controller.globalWindow.level.ordinal())
+                .description("Current JSON schema load shedding level (0 = none)")
+                .register(meterRegistry);
+        for (JsonSchemaConfig.RoutePriority priority : JsonSchemaConfig.RoutePriority.values()) {
+            skippedCounters.put(priority, Counter.builder("jsonschema.shedding.requests")
+                    .tag("priority", priority.name()).tag("action", "skipped").register(meterRegistry));
+            sampledOutCounters.put(priority, Counter.builder("jsonschema.shedding.requests")
+                    .tag("priority", priority.name()).tag("action", "sampled-out").register(meterRegistry));
+        }
+    }
+
+    /**
+     * 根据路由实际生效的降级级别和路由优先级判断本次请求是否需要验证
+     *
+     * @param route 路由
+     * @return 需要验证返回 true，被降级时返回 false
+     */
+    public boolean shouldValidate(RouteEntry route) {
+        Level current = getLevel(route);
+        if (current == Level.NONE || route.getPriority() == JsonSchemaConfig.RoutePriority.CRITICAL) {
+            return true;
+        }
+        boolean skip;
+        boolean sample;
+        if (route.getPriority() == JsonSchemaConfig.RoutePriority.LOW) {
+            skip = current.compareTo(Level.SKIP_LOW) >= 0;
+            sample = current == Level.SAMPLE_LOW;
+        } else {
+            skip = current == Level.SKIP_NON_CRITICAL;
+            sample = current == Level.SKIP_LOW;
+        }
+        if (skip) {
+            route.getStats().recordShed();
+            skippedCounters.get(route.getPriority()).increment();
+            tick(route, System.nanoTime());
+            return false;
+        }
+        if (sample && ThreadLocalRandom.current().nextDouble() >= settings.getSampleRate()) {
+            route.getStats().recordShed();
+            sampledOutCounters.get(route.getPriority()).increment();
+            tick(route, System.nanoTime());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 当前线程的 CPU 时间，用于计算验证消耗的 CPU 时间
+     *
+     * @return 当前线程的 CPU 时间，单位纳秒；未启用 CPU 预算时返回 0
+     */
+    public long currentCpuTime() {
+        return measureCpu ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /**
+     * 记录一次验证的耗时，并在窗口结束时评估降级级别
+     *
+     * @param route        路由
+     * @param startNanos   验证开始时的 {@link System#nanoTime()}
+     * @param startCpuTime 验证开始时的 {@link #currentCpuTime()}
+     */
+    public void record(RouteEntry route, long startNanos, long startCpuTime) {
+        long now = System.nanoTime();
+        long nanos = now - startNanos;
+        long cpuNanos = measureCpu ? threadMXBean.getCurrentThreadCpuTime() - startCpuTime : 0L;
+        route.getStats().recordValidation(nanos, cpuNanos);
+        if (!settings.isEnabled()) {
+            return;
+        }
+        globalWindow.record(nanos, cpuNanos);
+        route.getStats().getLoadWindow().record(nanos, cpuNanos);
+        tick(route, now);
+    }
+
+    /**
+     * 当前的全局降级级别
+     *
+     * @return 降级级别
+     */
+    public Level getLevel() {
+        return globalWindow.level;
+    }
+
+    /**
+     * 路由实际生效的降级级别，即路由级别和全局级别中较高的一个
+     *
+     * @param route 路由
+     * @return 降级级别
+     */
+    public Level getLevel(RouteEntry route) {
+        Level global = globalWindow.level;
+        Level own = route.getStats().getSheddingLevel();
+        return own.compareTo(global) > 0 ? own : global;
+    }
+
+    /**
+     * 全局窗口和路由窗口结束后分别由第一个通过 CAS 的线程评估。被降级的请求也会触发评估，
+     * 因此即使路由的所有请求都被跳过，级别也能随窗口推进逐步恢复。
+     *
+     * @param route 路由
+     * @param now   当前的 {@link System#nanoTime()}
+     */
+    private void tick(RouteEntry route, long now) {
+        long elapsed = globalWindow.close(now, windowNanos);
+        if (elapsed >= 0) {
+            evaluate(globalWindow, null, elapsed);
+        }
+        LoadWindow routeWindow = route.getStats().getLoadWindow();
+        elapsed = routeWindow.close(now, windowNanos);
+        if (elapsed >= 0) {
+            evaluate(routeWindow, route, elapsed);
+        }
+    }
+
+    /**
+     * 评估刚结束的窗口，超出预算时提升一级，连续多个窗口未超出预算时恢复一级。
+     * 路由窗口比较平均耗时和 CPU 消耗，全局窗口只比较所有路由合计的 CPU 消耗，
+     * 平均耗时是单个请求的预算，不同路由混合后的平均值没有意义。
+     *
+     * @param window       窗口
+     * @param route        路由窗口所属的路由，全局窗口为 null
+     * @param elapsedNanos 窗口实际长度
+     */
+    private void evaluate(LoadWindow window, RouteEntry route, long elapsedNanos) {
+        long validations = window.validations.sumThenReset();
+        long nanos = window.nanos.sumThenReset();
+        long cpuNanos = window.cpuNanos.sumThenReset();
+        long meanMicros = validations == 0 ? 0 : nanos / validations / 1_000;
+        long cpuMillisPerSecond = elapsedNanos <= 0 ? 0 : cpuNanos * 1_000 / elapsedNanos;
+
+        boolean overBudget = (route != null && settings.getLatencyBudgetMicros() > 0
+                && meanMicros > settings.getLatencyBudgetMicros())
+                || (settings.getCpuBudgetMillisPerSecond() > 0 && cpuMillisPerSecond > settings.getCpuBudgetMillisPerSecond());
+        Level current = window.level;
+        Level next = current;
+        if (overBudget) {
+            window.calmWindows = 0;
+            if (current.ordinal() < LEVELS.length - 1) {
+                next = LEVELS[current.ordinal() + 1];
+            }
+        } else if (current != Level.NONE && ++window.calmWindows >= Math.max(settings.getRecoveryWindows(), 1)) {
+            window.calmWindows = 0;
+            next = LEVELS[current.ordinal() - 1];
+        }
+        if (next == current) {
+            return;
+        }
+
+        window.level = next;
+        String scope = route == null ? "global" : "route";
+        meterRegistry.counter("jsonschema.shedding.transitions", "scope", scope, "from", current.name(), "to", next.name())
+                .increment();
+        String format = "JSON schema load shedding ({}) {} -> {}: {} validations, mean latency {}us (budget {}us), "
+                + "cpu {}ms/s (budget {}ms/s)";
+        Object[] args = {route == null ? scope : route.getMethod() + " " + route.getUriTemplate(), current, next,
+                validations, meanMicros, settings.getLatencyBudgetMicros(), cpuMillisPerSecond,
+                settings.getCpuBudgetMillisPerSecond()};
+        if (next.compareTo(current) > 0) {
+            log.warn(format, args);
+        } else {
+            log.info(format, args);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.jsonschema;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 自适应降级的一个固定统计窗口及其降级级别。
+ * <p>
+ * {@link LoadSheddingController} 持有一个全局窗口，每个路由在 {@link RouteStats} 中持有自己的窗口。
+ * 计数使用 {@link LongAdder}；窗口结束后由第一个通过 CAS 的线程取走计数并评估级别。
+ */
+final class LoadWindow {
+
+    final LongAdder validations = new LongAdder();
+
+    final LongAdder nanos = new LongAdder();
+
+    final LongAdder cpuNanos = new LongAdder();
+
+    private final AtomicLong startNanos = new AtomicLong(System.nanoTime());
+
+    volatile LoadSheddingController.Level level = LoadSheddingController.Level.NONE;
+
+    /**
+     * 连续未超出预算的窗口数量，只在持有窗口评估权的线程中修改
+     */
+    int calmWindows;
+
+    /**
+     * 记录一次验证
+     *
+     * @param nanos    验证耗时，单位纳秒
+     * @param cpuNanos 验证消耗的 CPU 时间，单位纳秒，未测量时为 0
+     */
+    void record(long nanos, long cpuNanos) {
+        validations.increment();
+        this.nanos.add(nanos);
+        if (cpuNanos > 0) {
+            this.cpuNanos.add(cpuNanos);
+        }
+    }
+
+    /**
+     * 窗口已结束时尝试开始新窗口
+     *
+     * @param now         当前的 {@link System#nanoTime()}
+     * @param windowNanos 窗口长度
+     * @return 当前线程获得评估权时返回刚结束的窗口的实际长度，否则返回 -1
+     */
+    long close(long now, long windowNanos) {
+        long start = startNanos.get();
+        if (now - start >= windowNanos && startNanos.compareAndSet(start, now)) {
+            return now - start;
+        }
+        return -1;
+    }
+}
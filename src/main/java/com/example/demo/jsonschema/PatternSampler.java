@@ -0,0 +1,227 @@
+package com.example.demo.jsonschema;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 根据 schema 中的 pattern 生成预热用的示例字符串。
+ * <p>
+ * 只支持参数校验中常见的正则子集：字面量、转义字符（\d \w \s 等）、字符类与范围、分组和分支（取第一个分支）、
+ * 量词（取最小次数，+ 取 1 次）以及锚点。生成的字符串会用 {@link Pattern} 再次校验，
+ * 无法生成或校验不通过时返回 null，由调用方跳过该提示。
+ */
+public final class PatternSampler {
+
+    /**
+     * 生成不匹配字符串时依次尝试的候选值
+     */
+    private static final String[] MISMATCH_CANDIDATES = {"!", "~~", " ", "-1", "a", "0", ""};
+
+    private final String regex;
+
+    private int position;
+
+    private PatternSampler(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * 生成匹配 pattern 的示例字符串
+     *
+     * @param regex 正则表达式
+     * @return 示例字符串，无法生成时返回 null
+     */
+    public static String sample(String regex) {
+        Pattern pattern = compile(regex);
+        if (pattern == null) {
+            return null;
+        }
+        String sample;
+        try {
+            PatternSampler sampler = new PatternSampler(regex);
+            StringBuilder out = new StringBuilder();
+            sampler.alternation(out);
+            if (sampler.position != regex.length()) {
+                return null;
+            }
+            sample = out.toString();
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            return null;
+        }
+        // JSON Schema 的 pattern 不隐式锚定，与 networknt 一致使用 find
+        return pattern.matcher(sample).find() ? sample : null;
+    }
+
+    /**
+     * 生成不匹配 pattern 的示例字符串
+     *
+     * @param regex 正则表达式
+     * @return 示例字符串，所有候选值都匹配时返回 null
+     */
+    public static String mismatch(String regex) {
+        Pattern pattern = compile(regex);
+        if (pattern == null) {
+            return null;
+        }
+        for (String candidate : MISMATCH_CANDIDATES) {
+            if (!pattern.matcher(candidate).find()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static Pattern compile(String regex) {
+        try {
+            return regex == null ? null : Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 分支：只生成第一个分支，跳过其余分支
+     */
+    private void alternation(StringBuilder out) {
+        sequence(out);
+        while (position < regex.length() && regex.charAt(position) == '|') {
+            position++;
+            sequence(new StringBuilder());
+        }
+    }
+
+    private void sequence(StringBuilder out) {
+        while (position < regex.length()) {
+            char c = regex.charAt(position);
+            if (c == '|' || c == ')') {
+                return;
+            }
+            if (c == '^' || c == '$') {
+                position++;
+                continue;
+            }
+            StringBuilder atom = new StringBuilder();
+            atom(atom);
+            int times = quantifier();
+            for (int i = 0; i < times; i++) {
+                out.append(atom);
+            }
+        }
+    }
+
+    private void atom(StringBuilder out) {
+        char c = regex.charAt(position++);
+        switch (c) {
+            case '(':
+                if (regex.startsWith("?:", position)) {
+                    position += 2;
+                } else if (regex.charAt(position) == '?') {
+                    throw new IllegalArgumentException("Unsupported group");
+                }
+                alternation(out);
+                expect(')');
+                break;
+            case '[':
+                out.append(characterClass());
+                break;
+            case '\\':
+                out.append(escape(regex.charAt(position++)));
+                break;
+            case '.':
+                out.append('a');
+                break;
+            default:
+                out.append(c);
+        }
+    }
+
+    private char characterClass() {
+        if (regex.charAt(position) == '^') {
+            throw new IllegalArgumentException("Negated character class");
+        }
+        Character first = null;
+        boolean start = true;
+        while (start || regex.charAt(position) != ']') {
+            start = false;
+            char c = regex.charAt(position++);
+            char value = c == '\\' ? escape(regex.charAt(position++)) : c;
+            if (regex.charAt(position) == '-' && regex.charAt(position + 1) != ']') {
+                position++;
+                char end = regex.charAt(position++);
+                if (end == '\\') {
+                    position++;
+                }
+            }
+            if (first == null) {
+                first = value;
+            }
+        }
+        position++;
+        return first;
+    }
+
+    private char escape(char c) {
+        switch (c) {
+            case 'd':
+                return '1';
+            case 'w':
+                return 'a';
+            case 's':
+                return ' ';
+            case 'D':
+            case 'W':
+            case 'S':
+                return '-';
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'b':
+            case 'B':
+            case 'p':
+            case 'P':
+            case 'u':
+            case 'x':
+                throw new IllegalArgumentException("Unsupported escape \\" + c);
+            default:
+                return c;
+        }
+    }
+
+    /**
+     * 解析量词并返回生成次数
+     */
+    private int quantifier() {
+        if (position >= regex.length()) {
+            return 1;
+        }
+        char c = regex.charAt(position);
+        int times;
+        if (c == '?' || c == '*') {
+            position++;
+            times = 0;
+        } else if (c == '+') {
+            position++;
+            times = 1;
+        } else if (c == '{') {
+            int end = regex.indexOf('}', position);
+            String range = regex.substring(position + 1, end);
+            int comma = range.indexOf(',');
+            times = Integer.parseInt((comma < 0 ? range : range.substring(0, comma)).trim());
+            position = end + 1;
+        } else {
+            return 1;
+        }
+        // 懒惰和占有量词的后缀不影响最小次数
+        if (position < regex.length() && (regex.charAt(position) == '?' || regex.charAt(position) == '+')) {
+            position++;
+        }
+        return times;
+    }
+
+    private void expect(char c) {
+        if (regex.charAt(position++) != c) {
+            throw new IllegalArgumentException("Expected " + c);
+        }
+    }
+}
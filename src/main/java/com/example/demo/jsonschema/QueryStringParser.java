@@ -0,0 +1,124 @@
+package com.example.demo.jsonschema;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按需解码的查询字符串解析器。
+ * <p>
+ * 单次扫描原始查询字符串，参数名不含 % 和 + 时直接在原始字符上查找 {@link DeclaredParameters}，
+ * 只有 schema 声明的参数（或 schema 需要检查未声明参数时的所有参数）才截取并解码参数值，其余参数直接跳过。
+ * 解码规则与 Servlet 容器一致：+ 表示空格，%XX 按 UTF-8 解码，同名参数只保留第一个值，
+ * 编码不合法的参数被忽略。
+ */
+public final class QueryStringParser {
+
+    private QueryStringParser() {
+    }
+
+    /**
+     * 解析查询字符串
+     *
+     * @param query    原始查询字符串，不包含 ?，可以为 null
+     * @param declared schema 声明的参数名
+     * @return 参数名到参数值的可修改映射
+     */
+    public static Map<String, Object> parse(String query, DeclaredParameters declared) {
+        Map<String, Object> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        int length = query.length();
+        int start = 0;
+        while (start <= length) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                parsePair(query, start, end, declared, params);
+            }
+            start = end + 1;
+        }
+        return params;
+    }
+
+    private static void parsePair(String query, int start, int end, DeclaredParameters declared, Map<String, Object> params) {
+        int separator = query.indexOf('=', start);
+        if (separator < 0 || separator > end) {
+            separator = end;
+        }
+        String name;
+        if (needsDecoding(query, start, separator)) {
+            name = decode(query, start, separator);
+            if (name == null || !declared.isKeepUndeclared() && !declared.contains(name)) {
+                return;
+            }
+        } else {
+            if (!declared.isKeepUndeclared() && !declared.contains(query, start, separator)) {
+                return;
+            }
+            name = query.substring(start, separator);
+        }
+        if (params.containsKey(name)) {
+            return;
+        }
+        String value = separator == end ? "" : decode(query, separator + 1, end);
+        if (value != null) {
+            params.put(name, value);
+        }
+    }
+
+    private static boolean needsDecoding(String query, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解码 [start, end) 范围内的字符
+     *
+     * @return 解码后的字符串，编码不合法时返回 null
+     */
+    private static String decode(String query, int start, int end) {
+        if (!needsDecoding(query, start, end)) {
+            return query.substring(start, end);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(end - start);
+        for (int i = start; i < end; i++) {
+            char c = query.charAt(i);
+            if (c == '+') {
+                bytes.write(' ');
+            } else if (c == '%') {
+                if (i + 2 >= end) {
+                    return null;
+                }
+                int high = Character.digit(query.charAt(i + 1), 16);
+                int low = Character.digit(query.charAt(i + 2), 16);
+                if (high < 0 || low < 0) {
+                    return null;
+                }
+                bytes.write((high << 4) | low);
+                i += 2;
+            } else if (c < 0x80) {
+                bytes.write(c);
+            } else {
+                // 容器传入的原始查询字符串中出现未编码的非 ASCII 字符时按 UTF-8 处理
+                int runEnd = i + 1;
+                while (runEnd < end && query.charAt(runEnd) >= 0x80) {
+                    runEnd++;
+                }
+                byte[] encoded = query.substring(i, runEnd).getBytes(StandardCharsets.UTF_8);
+                bytes.write(encoded, 0, encoded.length);
+                i = runEnd - 1;
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
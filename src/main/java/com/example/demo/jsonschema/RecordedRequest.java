@@ -0,0 +1,55 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 录制的一次请求验证，由 {@link TrafficRecorder} 写入录制文件，由 {@link TrafficRecordFormat#read} 读出。
+ */
+@Getter
+public class RecordedRequest {
+
+    /**
+     * 验证完成时的时间戳（毫秒）
+     */
+    private final long timestamp;
+
+    private final String method;
+
+    /**
+     * 用于匹配路由的 URI，不包含查询字符串
+     */
+    private final String uri;
+
+    /**
+     * 命中的 URI 模板
+     */
+    private final String uriTemplate;
+
+    /**
+     * 参与验证的参数，包括路径变量，录制后不能再修改
+     */
+    private final Map<String, Object> params;
+
+    /**
+     * 验证耗时（纳秒）
+     */
+    private final long validationNanos;
+
+    /**
+     * 录制时是否验证失败
+     */
+    private final boolean failed;
+
+    public RecordedRequest(long timestamp, String method, String uri, String uriTemplate, Map<String, Object> params,
+                           long validationNanos, boolean failed) {
+        this.timestamp = timestamp;
+        this.method = method;
+        this.uri = uri;
+        this.uriTemplate = uriTemplate;
+        this.params = params;
+        this.validationNanos = validationNanos;
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * 支持验证的请求体格式。
+ * <p>
+ * Smile 和 CBOR 是 Jackson 支持的二进制 JSON 格式，使用对应的二进制解析器直接解析为与文本 JSON 相同的
+ * {@link JsonNode} 树，因此同一个编译后的 schema 可以验证三种格式的请求体。
+ */
+public enum RequestBodyFormat {
+
+    /**
+     * 文本 JSON：application/json 以及 application/*+json
+     */
+    JSON(new ObjectMapper()),
+
+    /**
+     * Jackson Smile：application/x-jackson-smile
+     */
+    SMILE(new ObjectMapper(new SmileFactory())),
+
+    /**
+     * CBOR：application/cbor
+     */
+    CBOR(new ObjectMapper(new CBORFactory()));
+
+    private static final MediaType SMILE_MEDIA_TYPE = MediaType.valueOf("application/x-jackson-smile");
+
+    private static final MediaType CBOR_MEDIA_TYPE = MediaType.valueOf("application/cbor");
+
+    private final ObjectMapper mapper;
+
+    RequestBodyFormat(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * 根据 Content-Type 判断请求体格式
+     *
+     * @param contentType 请求的 Content-Type
+     * @return 请求体格式，不支持的格式返回 null
+     */
+    public static RequestBodyFormat fromContentType(String contentType) {
+        if (contentType == null || contentType.isEmpty()) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        if (SMILE_MEDIA_TYPE.equalsTypeAndSubtype(mediaType)) {
+            return SMILE;
+        }
+        if (CBOR_MEDIA_TYPE.equalsTypeAndSubtype(mediaType)) {
+            return CBOR;
+        }
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(mediaType)
+                || "application".equals(mediaType.getType()) && mediaType.getSubtype().endsWith("+json")) {
+            return JSON;
+        }
+        return null;
+    }
+
+    /**
+     * 将请求体解析为 JsonNode 树
+     *
+     * @param body 请求体
+     * @return JsonNode 树
+     * @throws IOException 请求体格式错误时抛出
+     */
+    public JsonNode readTree(byte[] body) throws IOException {
+        return mapper.readTree(body);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.jsonschema;
+
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * 采样响应体并提交给 {@link ResponseContractValidator} 做契约验证。
+ * <p>
+ * 请求进入过滤器时先按采样率采样，再匹配路由；只有被采样且路由配置了响应 schema 的请求才用
+ * {@link ContentCachingResponseWrapper} 包装响应，处理完成后把消息转换器实际写出的字节提交验证，再原样写回响应。
+ * 响应体不会被重新序列化，{@code @JsonView}、{@code MappingJacksonValue} 和转换器自身的 ObjectMapper 配置都照常生效，
+ * 采样和未采样的响应完全相同：
+ * <ul>
+ *     <li>状态码为 2xx 的 JSON 响应（application/json 和 application/*+json）按 JSON 验证；</li>
+ *     <li>状态码为 2xx 的文本响应按 JSON 字符串验证；</li>
+ *     <li>其他响应不验证。</li>
+ * </ul>
+ * 未被采样的请求不包装响应，不做任何额外处理。
+ */
+@Setter
+@Component
+@Order(ResponseContractFilter.ORDER)
+public class ResponseContractFilter extends OncePerRequestFilter {
+
+    /**
+     * 过滤器顺序，在包装请求的过滤器之前执行，缓存的响应包含后续所有过滤器写出的内容
+     */
+    public static final int ORDER = OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER - 1;
+
+    /**
+     * 保存被采样路由的请求属性，异步请求再次分派时使用
+     */
+    private static final String ROUTE_ATTRIBUTE = ResponseContractFilter.class.getName() + ".route";
+
+    @Autowired
+    private ResponseContractValidator responseContractValidator;
+
+    @Autowired
+    private JsonSchemaConfig jsonSchemaConfig;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !responseContractValidator.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteEntry route = isAsyncDispatch(request) ? (RouteEntry) request.getAttribute(ROUTE_ATTRIBUTE) : sample(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // 异步请求再次分派时响应已经是首次分派时的包装对象
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+        request.setAttribute(ROUTE_ATTRIBUTE, route);
+        filterChain.doFilter(request, wrapper);
+        if (!isAsyncStarted(request)) {
+            submit(route, wrapper);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * 按采样率采样并匹配路由
+     *
+     * @param request HTTP 请求
+     * @return 被采样且配置了响应 schema 的路由，否则返回 null
+     */
+    private RouteEntry sample(HttpServletRequest request) {
+        if (!responseContractValidator.isSampled()) {
+            return null;
+        }
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        if (method == null) {
+            return null;
+        }
+        TenantSelection selection = jsonSchemaConfig.selectTenant(request);
+        RouteMatch routeMatch = selection.getRouteTable().resolve(method, selection.getUri());
+        return routeMatch == null || routeMatch.getRoute().getResponseSchema() == null ? null : routeMatch.getRoute();
+    }
+
+    private void submit(RouteEntry route, ContentCachingResponseWrapper wrapper) {
+        int status = wrapper.getStatus();
+        if (status < 200 || status >= 300 || wrapper.getContentSize() == 0 || wrapper.getContentType() == null) {
+            return;
+        }
+        MediaType contentType;
+        try {
+            contentType = MediaType.parseMediaType(wrapper.getContentType());
+        } catch (InvalidMediaTypeException e) {
+            return;
+        }
+        if (MediaType.APPLICATION_JSON.includes(contentType) || contentType.getSubtype().endsWith("+json")) {
+            responseContractValidator.submit(route, wrapper.getContentAsByteArray());
+        } else if ("text".equals(contentType.getType())) {
+            Charset charset = contentType.getCharset() != null ? contentType.getCharset()
+                    : Charset.forName(wrapper.getCharacterEncoding());
+            responseContractValidator.submitText(route, new String(wrapper.getContentAsByteArray(), charset));
+        }
+    }
+}
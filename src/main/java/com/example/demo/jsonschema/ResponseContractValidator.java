@@ -0,0 +1,177 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.networknt.schema.ValidationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 响应体契约验证器。
+ * <p>
+ * 按采样率选中的响应交给独立的线程池异步验证，请求线程只负责提交已经序列化好的字节数组，
+ * 解析和验证都不在请求线程上执行。违反契约时只计数并输出限流日志，不会影响返回给客户端的响应。
+ * 队列已满时丢弃新的采样并计数，验证压力不会反压到请求线程。启用虚拟线程时验证线程为虚拟线程，线程数和队列容量的限制不变。
+ */
+@Slf4j
+@Component
+public class ResponseContractValidator {
+
+    private final JsonSchemaConfig.ResponseValidation settings;
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonSchemaValidationLogger validationLogger;
+
+    private final Counter violations;
+
+    private final Counter dropped;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 已提交但尚未完成的验证数量
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    @Autowired
+    public ResponseContractValidator(JsonSchemaConfig jsonSchemaConfig, ObjectMapper objectMapper,
+                                     JsonSchemaValidationLogger validationLogger, MeterRegistry meterRegistry) {
+        this.settings = jsonSchemaConfig.getResponseValidation();
+        this.objectMapper = objectMapper;
+        this.validationLogger = validationLogger;
+        this.violations = meterRegistry.counter("jsonschema.response.violations");
+        this.dropped = meterRegistry.counter("jsonschema.response.dropped");
+
+        int threads = Math.max(settings.getThreads(), 1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(settings.getQueueCapacity(), 1)),
+                VirtualThreads.threadFactory("response-contract-validator-", jsonSchemaConfig.getVirtualThreads().isEnabled()),
+                (runnable, pool) -> {
+                    pending.decrementAndGet();
+                    dropped.increment();
+                });
+    }
+
+    /**
+     * 是否启用响应体契约验证
+     *
+     * @return 启用返回 true，否则返回 false
+     */
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * 按采样率判断本次响应是否需要验证
+     *
+     * @return 需要验证返回 true，否则返回 false
+     */
+    public boolean isSampled() {
+        return settings.isEnabled() && ThreadLocalRandom.current().nextDouble() < settings.getSampleRate();
+    }
+
+    /**
+     * 提交已经序列化好的 JSON 响应体，异步解析并验证
+     *
+     * @param route 路由，需要配置了响应 schema
+     * @param json  JSON 响应体字节数组，提交后调用方不能再修改
+     */
+    public void submit(RouteEntry route, byte[] json) {
+        execute(() -> {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(json);
+            } catch (Exception e) {
+                report(route, "response body is not valid JSON: " + e.getMessage());
+                return;
+            }
+            validate(route, node);
+        });
+    }
+
+    /**
+     * 提交非 JSON 的文本响应体，按 JSON 字符串验证
+     *
+     * @param route 路由，需要配置了响应 schema
+     * @param text  文本响应体
+     */
+    public void submitText(RouteEntry route, String text) {
+        execute(() -> validate(route, TextNode.valueOf(text)));
+    }
+
+    private void execute(Runnable task) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Response contract validation failed unexpectedly", e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void validate(RouteEntry route, JsonNode node) {
+        CompiledSchema responseSchema = route.getResponseSchema().get();
+        if (responseSchema == null) {
+            return;
+        }
+        Set<ValidationMessage> messages = responseSchema.getJsonSchema().validate(node);
+        if (messages.isEmpty()) {
+            route.getStats().recordResponseValidation(false);
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (ValidationMessage validationMessage : messages) {
+            if (message.length() > 0) {
+                message.append("; ");
+            }
+            message.append(validationMessage.getMessage());
+        }
+        report(route, message.toString());
+    }
+
+    private void report(RouteEntry route, String message) {
+        route.getStats().recordResponseValidation(true);
+        violations.increment();
+        validationLogger.warn(route.getUriTemplate(), "response-contract",
+                "Response of {} {} violates its contract: {}", route.getMethod(), route.getUriTemplate(), message);
+    }
+
+    /**
+     * 等待已提交的验证完成，供测试使用
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 在超时前完成返回 true
+     * @throws InterruptedException 等待被中断
+     */
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 路由表中的一条记录，由请求方法和 URI 模板唯一确定，并关联 JSON Schema 的引用。
+ * 启用延迟编译时，schema 在路由第一次被验证时才编译。
+ */
+@Getter
+@ToString(of = {"method", "uriTemplate"})
+public class RouteEntry {
+
+    /**
+     * 请求方法
+     */
+    private final HttpMethod method;
+
+    /**
+     * URI 模板
+     */
+    private final String uriTemplate;
+
+    /**
+     * 预先拆分好的 URI 模板
+     */
+    private final CompiledUriTemplate compiledUriTemplate;
+
+    /**
+     * JSON Schema 的引用
+     */
+    private final SchemaHandle schema;
+
+    /**
+     * 验证采样率，取值 (0, 1]。为 1 时验证所有请求，代价超出预算的 schema 降级后只验证部分请求
+     */
+    private final double sampleRate;
+
+    /**
+     * 路由优先级，自适应降级时使用
+     */
+    private final JsonSchemaConfig.RoutePriority priority;
+
+    /**
+     * 响应体 JSON Schema 的引用，未配置时为 null
+     */
+    private final SchemaHandle responseSchema;
+
+    /**
+     * 影子（候选）请求 JSON Schema 的引用，未配置时为 null
+     */
+    private final SchemaHandle shadowSchema;
+
+    /**
+     * 路由的运行时统计，随路由表一起替换
+     */
+    private final RouteStats stats = new RouteStats();
+
+    /**
+     * 创建路由记录
+     *
+     * @param method         请求方法
+     * @param uriTemplate    URI 模板
+     * @param schema         请求 JSON Schema 的引用
+     * @param sampleRate     验证采样率
+     * @param priority       路由优先级，为 null 时使用 NORMAL
+     * @param responseSchema 响应体 JSON Schema 的引用，未配置时为 null
+     * @param shadowSchema   影子请求 JSON Schema 的引用，未配置时为 null
+     */
+    public RouteEntry(HttpMethod method, String uriTemplate, SchemaHandle schema, double sampleRate,
+                      JsonSchemaConfig.RoutePriority priority, SchemaHandle responseSchema, SchemaHandle shadowSchema) {
+        this.method = method;
+        this.uriTemplate = uriTemplate;
+        this.compiledUriTemplate = new CompiledUriTemplate(uriTemplate);
+        this.schema = schema;
+        this.sampleRate = sampleRate;
+        this.priority = priority == null ? JsonSchemaConfig.RoutePriority.NORMAL : priority;
+        this.responseSchema = responseSchema;
+        this.shadowSchema = shadowSchema;
+    }
+
+    /**
+     * 获取编译后的 JSON Schema，延迟编译模式下未编译时在当前线程编译
+     *
+     * @return 编译后的 JSON Schema，编译失败时返回 null
+     */
+    public CompiledSchema getCompiledSchema() {
+        return schema == null ? null : schema.get();
+    }
+
+    /**
+     * 按采样率判断本次请求是否需要验证
+     *
+     * @return 需要验证返回 true，否则返回 false
+     */
+    public boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 路由解析结果，包含命中的路由记录和从 URI 中提取的路径变量。
+ */
+@Getter
+public class RouteMatch {
+
+    /**
+     * 命中的路由记录
+     */
+    private final RouteEntry route;
+
+    /**
+     * 路径变量，键为变量名，值为 URI 中对应位置的路径段
+     */
+    private final Map<String, Object> pathVariables;
+
+    public RouteMatch(RouteEntry route, Map<String, Object> pathVariables) {
+        this.route = route;
+        this.pathVariables = pathVariables;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.jsonschema;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个路由的运行时统计，使用 {@link LongAdder} 计数，并发请求之间不会竞争同一个计数器。
+ */
+public class RouteStats {
+
+    private final LongAdder validations = new LongAdder();
+
+    private final LongAdder validationNanos = new LongAdder();
+
+    private final LongAdder cpuNanos = new LongAdder();
+
+    private final LongAdder shed = new LongAdder();
+
+    private final LongAdder responseValidations = new LongAdder();
+
+    private final LongAdder responseViolations = new LongAdder();
+
+    private final LongAdder shadowEvaluations = new LongAdder();
+
+    private final LongAdder shadowStricter = new LongAdder();
+
+    private final LongAdder shadowLooser = new LongAdder();
+
+    private final LongAdder shadowActiveNanos = new LongAdder();
+
+    private final LongAdder shadowCandidateNanos = new LongAdder();
+
+    private final LoadWindow loadWindow = new LoadWindow();
+
+    /**
+     * 记录一次验证
+     *
+     * @param nanos    验证耗时，单位纳秒
+     * @param cpuNanos 验证消耗的 CPU 时间，单位纳秒，未测量时为 0
+     */
+    void recordValidation(long nanos, long cpuNanos) {
+        validations.increment();
+        validationNanos.add(nanos);
+        if (cpuNanos > 0) {
+            this.cpuNanos.add(cpuNanos);
+        }
+    }
+
+    /**
+     * 记录一次因降级而未验证的请求
+     */
+    void recordShed() {
+        shed.increment();
+    }
+
+    /**
+     * 记录一次响应体契约验证
+     *
+     * @param violated 是否违反契约
+     */
+    void recordResponseValidation(boolean violated) {
+        responseValidations.increment();
+        if (violated) {
+            responseViolations.increment();
+        }
+    }
+
+    /**
+     * 记录一次影子 schema 对比验证
+     *
+     * @param activePassed   当前 schema 是否验证通过
+     * @param shadowPassed   影子 schema 是否验证通过
+     * @param activeNanos    当前 schema 的验证耗时，单位纳秒
+     * @param candidateNanos 影子 schema 的验证耗时，单位纳秒
+     */
+    void recordShadowEvaluation(boolean activePassed, boolean shadowPassed, long activeNanos, long candidateNanos) {
+        shadowEvaluations.increment();
+        if (activePassed && !shadowPassed) {
+            shadowStricter.increment();
+        } else if (!activePassed && shadowPassed) {
+            shadowLooser.increment();
+        }
+        shadowActiveNanos.add(activeNanos);
+        shadowCandidateNanos.add(candidateNanos);
+    }
+
+    /**
+     * 路由自己的自适应降级窗口
+     *
+     * @return 降级窗口
+     */
+    LoadWindow getLoadWindow() {
+        return loadWindow;
+    }
+
+    /**
+     * 路由自己的降级级别，由路由窗口内的耗时和 CPU 消耗决定，实际生效的级别还受全局级别影响
+     *
+     * @return 降级级别
+     */
+    public LoadSheddingController.Level getSheddingLevel() {
+        return loadWindow.level;
+    }
+
+    public long getValidations() {
+        return validations.sum();
+    }
+
+    public long getValidationNanos() {
+        return validationNanos.sum();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+
+    public long getResponseValidations() {
+        return responseValidations.sum();
+    }
+
+    public long getResponseViolations() {
+        return responseViolations.sum();
+    }
+
+    public long getShadowEvaluations() {
+        return shadowEvaluations.sum();
+    }
+
+    /**
+     * 当前 schema 通过、影子 schema 失败的次数
+     *
+     * @return 次数
+     */
+    public long getShadowStricter() {
+        return shadowStricter.sum();
+    }
+
+    /**
+     * 当前 schema 失败、影子 schema 通过的次数
+     *
+     * @return 次数
+     */
+    public long getShadowLooser() {
+        return shadowLooser.sum();
+    }
+
+    /**
+     * 影子 schema 与当前 schema 在相同输入上的平均验证耗时之差，单位微秒，为正表示影子 schema 更慢
+     *
+     * @return 平均耗时差，没有对比记录时返回 0
+     */
+    public double getShadowLatencyDiffMicros() {
+        long count = shadowEvaluations.sum();
+        return count == 0 ? 0 : (shadowCandidateNanos.sum() - shadowActiveNanos.sum()) / 1e3 / count;
+    }
+
+    /**
+     * 平均验证耗时，单位微秒
+     *
+     * @return 平均验证耗时，没有验证记录时返回 0
+     */
+    public double getMeanMicros() {
+        long count = validations.sum();
+        return count == 0 ? 0 : validationNanos.sum() / 1e3 / count;
+    }
+}
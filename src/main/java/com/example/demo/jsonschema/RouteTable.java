@@ -0,0 +1,280 @@
+package com.example.demo.jsonschema;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 按请求方法划分的路由表，创建后不可修改。
+ * <p>
+ * 每个 {@link HttpMethod} 拥有独立的路由集合（{@link EnumMap}），解析时只查找请求方法对应的路由，
+ * 不会访问其他方法注册的路由。每个方法内部：
+ * <ul>
+ *     <li>不含路径变量的路由按 URI 原文放入哈希表，一次查找即可命中；</li>
+ *     <li>所有路由按路径段构建前缀树，解析耗时只与路径段数量有关，与路由数量无关。</li>
+ * </ul>
+ * 如果 classpath 中存在构建时生成的 {@link GeneratedRouteMatcher}，并且其路由集合与当前路由表一致，
+ * 则使用生成的匹配器代替前缀树。
+ */
+@Slf4j
+public class RouteTable {
+
+    private static final GeneratedRouteMatcher GENERATED_MATCHER = loadGeneratedMatcher();
+
+    private static final RouteTable EMPTY = new RouteTable(Collections.emptyList(), Collections.emptyList());
+
+    private final Map<HttpMethod, MethodRoutes> routesByMethod = new EnumMap<>(HttpMethod.class);
+
+    private final Set<String> excludeUris;
+
+    private final List<RouteEntry> routes;
+
+    /**
+     * 与当前路由集合一致的生成匹配器，不存在或不一致时为 null
+     */
+    private final GeneratedRouteMatcher generatedMatcher;
+
+    public RouteTable(Collection<RouteEntry> routes, Collection<String> excludeUris) {
+        this(routes, excludeUris, GENERATED_MATCHER);
+    }
+
+    RouteTable(Collection<RouteEntry> routes, Collection<String> excludeUris, GeneratedRouteMatcher generatedMatcher) {
+        this.routes = Collections.unmodifiableList(new ArrayList<>(routes));
+        this.excludeUris = Collections.unmodifiableSet(new HashSet<>(excludeUris));
+        this.generatedMatcher = generatedMatcher != null && !this.routes.isEmpty()
+                && generatedMatcher.getRoutesHash().equals(routesHash(this.routes)) ? generatedMatcher : null;
+
+        Map<HttpMethod, List<RouteEntry>> grouped = new EnumMap<>(HttpMethod.class);
+        for (RouteEntry route : routes) {
+            grouped.computeIfAbsent(route.getMethod(), key -> new ArrayList<>()).add(route);
+        }
+        for (Map.Entry<HttpMethod, List<RouteEntry>> entry : grouped.entrySet()) {
+            routesByMethod.put(entry.getKey(), new MethodRoutes(entry.getValue()));
+        }
+    }
+
+    /**
+     * 空路由表
+     *
+     * @return 不包含任何路由的路由表
+     */
+    public static RouteTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 判断给定请求方法是否注册了路由
+     *
+     * @param method 请求方法
+     * @return 注册了路由返回 true，否则返回 false
+     */
+    public boolean hasRoutes(HttpMethod method) {
+        return method != null && routesByMethod.containsKey(method);
+    }
+
+    /**
+     * 判断 URI 是否在排除列表中
+     *
+     * @param uri 请求 URI
+     * @return 在排除列表中返回 true，否则返回 false
+     */
+    public boolean isExcluded(String uri) {
+        return excludeUris.contains(uri);
+    }
+
+    /**
+     * 根据请求方法和 URI 解析路由
+     *
+     * @param method 请求方法
+     * @param uri    请求 URI
+     * @return 解析结果，未命中时返回 null
+     */
+    public RouteMatch resolve(HttpMethod method, String uri) {
+        MethodRoutes methodRoutes = method == null ? null : routesByMethod.get(method);
+        if (methodRoutes == null) {
+            return null;
+        }
+        return generatedMatcher == null ? methodRoutes.resolve(uri) : methodRoutes.resolve(method, uri, generatedMatcher);
+    }
+
+    /**
+     * 获取给定请求方法和 URI 模板对应的路由
+     *
+     * @param method      请求方法
+     * @param uriTemplate URI 模板
+     * @return 路由记录，不存在时返回 null
+     */
+    public RouteEntry getRoute(HttpMethod method, String uriTemplate) {
+        MethodRoutes methodRoutes = method == null ? null : routesByMethod.get(method);
+        return methodRoutes == null ? null : methodRoutes.byTemplate.get(uriTemplate);
+    }
+
+    /**
+     * 获取所有路由，按注册顺序排列
+     *
+     * @return 不可修改的路由列表
+     */
+    public List<RouteEntry> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * 路由数量
+     *
+     * @return 路由数量
+     */
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * 是否使用构建时生成的路由匹配器
+     *
+     * @return 使用生成的匹配器返回 true，使用前缀树返回 false
+     */
+    public boolean isGeneratedMatcher() {
+        return generatedMatcher != null;
+    }
+
+    /**
+     * 计算路由集合哈希：对每个路由的 "METHOD URI模板" 排序后按行拼接，再计算 SHA-256。
+     * route-matcher-maven-plugin 使用相同的算法，两端的结果一致时说明生成的匹配器与路由表对应同一组路由。
+     *
+     * @param routes 路由记录
+     * @return 十六进制的哈希值
+     */
+    static String routesHash(Collection<RouteEntry> routes) {
+        Set<String> keys = new TreeSet<>();
+        for (RouteEntry route : routes) {
+            keys.add(route.getMethod().name() + ' ' + route.getUriTemplate());
+        }
+        StringBuilder content = new StringBuilder();
+        for (String key : keys) {
+            content.append(key).append('\n');
+        }
+        return CompiledSchema.hash(content.toString());
+    }
+
+    private static GeneratedRouteMatcher loadGeneratedMatcher() {
+        try {
+            Class<?> type = Class.forName(GeneratedRouteMatcher.CLASS_NAME, true, RouteTable.class.getClassLoader());
+            GeneratedRouteMatcher matcher = (GeneratedRouteMatcher) type.getDeclaredConstructor().newInstance();
+            log.info("Found build-time generated route matcher {}", GeneratedRouteMatcher.CLASS_NAME);
+            return matcher;
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            log.warn("Failed to load generated route matcher {}: {}", GeneratedRouteMatcher.CLASS_NAME, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 单个请求方法下的路由集合
+     */
+    private static final class MethodRoutes {
+
+        /**
+         * URI 模板到路由的映射，不含路径变量的路由可直接按请求 URI 命中
+         */
+        private final Map<String, RouteEntry> byTemplate = new HashMap<>();
+
+        /**
+         * 按路径段构建的前缀树根节点
+         */
+        private final Node root = new Node();
+
+        private MethodRoutes(List<RouteEntry> routes) {
+            for (RouteEntry route : routes) {
+                byTemplate.put(route.getUriTemplate(), route);
+                root.insert(route);
+            }
+        }
+
+        private RouteMatch resolve(String uri) {
+            RouteEntry literal = byTemplate.get(uri);
+            if (literal != null && !literal.getCompiledUriTemplate().isHasPathVariable()) {
+                return new RouteMatch(literal, Collections.emptyMap());
+            }
+
+            String[] segments = UriMatcher.splitPath(uri);
+            RouteEntry route = root.find(segments, 0);
+            if (route == null) {
+                return null;
+            }
+            return new RouteMatch(route, route.getCompiledUriTemplate().extractPathVariables(segments));
+        }
+
+        private RouteMatch resolve(HttpMethod method, String uri, GeneratedRouteMatcher matcher) {
+            RouteEntry literal = byTemplate.get(uri);
+            if (literal != null && !literal.getCompiledUriTemplate().isHasPathVariable()) {
+                return new RouteMatch(literal, Collections.emptyMap());
+            }
+
+            String[] segments = UriMatcher.splitPath(uri);
+            String[] variables = new String[segments.length];
+            String template = matcher.match(method, segments, variables);
+            RouteEntry route = template == null ? null : byTemplate.get(template);
+            if (route == null) {
+                return null;
+            }
+            return new RouteMatch(route, route.getCompiledUriTemplate().toPathVariables(variables));
+        }
+    }
+
+    /**
+     * 路由前缀树节点。每一层对应一个路径段，字面量路径段优先于路径变量匹配，与 Spring MVC 的优先级一致。
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literalChildren = new HashMap<>();
+
+        private Node variableChild;
+
+        private RouteEntry route;
+
+        private void insert(RouteEntry route) {
+            CompiledUriTemplate template = route.getCompiledUriTemplate();
+            String[] literals = template.getLiterals();
+            Node node = this;
+            for (String literal : literals) {
+                if (literal == null) {
+                    if (node.variableChild == null) {
+                        node.variableChild = new Node();
+                    }
+                    node = node.variableChild;
+                } else {
+                    node = node.literalChildren.computeIfAbsent(literal, key -> new Node());
+                }
+            }
+            // 同一位置上不同变量名的模板（如 /a/{x} 与 /a/{y}）结构相同，保留先注册的路由
+            if (node.route == null) {
+                node.route = route;
+            }
+        }
+
+        private RouteEntry find(String[] segments, int index) {
+            if (index == segments.length) {
+                return route;
+            }
+            Node literal = literalChildren.get(segments[index]);
+            if (literal != null) {
+                RouteEntry found = literal.find(segments, index + 1);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return variableChild == null ? null : variableChild.find(segments, index + 1);
+        }
+    }
+}
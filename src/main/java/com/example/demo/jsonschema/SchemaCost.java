@@ -0,0 +1,60 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * JSON Schema 的静态代价评估结果，在 schema 编译时计算。
+ * <p>
+ * 分值越高表示验证一次请求的开销越大，用于在上线前识别代价过高的 schema。
+ */
+@Getter
+@ToString
+public class SchemaCost {
+
+    /**
+     * 综合代价分值
+     */
+    private final int score;
+
+    /**
+     * 最大嵌套深度（展开 $ref 之后）
+     */
+    private final int depth;
+
+    /**
+     * 组合关键字（anyOf、oneOf、allOf、not、if/then/else）的分支总数
+     */
+    private final int combinatorFanOut;
+
+    /**
+     * 正则表达式数量（pattern 与 patternProperties）
+     */
+    private final int patternCount;
+
+    /**
+     * 正则表达式复杂度之和
+     */
+    private final int patternComplexity;
+
+    /**
+     * 属性数量（展开 $ref 之后）
+     */
+    private final int propertyCount;
+
+    /**
+     * $ref 引用次数
+     */
+    private final int refCount;
+
+    public SchemaCost(int score, int depth, int combinatorFanOut, int patternCount, int patternComplexity,
+                      int propertyCount, int refCount) {
+        this.score = score;
+        this.depth = depth;
+        this.combinatorFanOut = combinatorFanOut;
+        this.patternCount = patternCount;
+        this.patternComplexity = patternComplexity;
+        this.propertyCount = propertyCount;
+        this.refCount = refCount;
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Schema 静态代价分析器。
+ * <p>
+ * 遍历 schema 树并展开本地 $ref（#/...），统计嵌套深度、组合关键字的分支数、正则表达式的数量与复杂度、属性数量，
+ * 按如下权重计算综合分值：
+ * <pre>
+ * score = 属性数 * 1 + 分支数 * 3 + 正则数 * 2 + 正则复杂度 + 最大深度 * 2 + $ref 次数
+ * </pre>
+ * 组合关键字中的每个分支都可能被完整求值，因此分支内的代价会全部计入。
+ */
+public final class SchemaCostAnalyzer {
+
+    private static final int PROPERTY_WEIGHT = 1;
+    private static final int FAN_OUT_WEIGHT = 3;
+    private static final int PATTERN_WEIGHT = 2;
+    private static final int DEPTH_WEIGHT = 2;
+    private static final int REF_WEIGHT = 1;
+
+    /**
+     * 嵌套量词（例如 (a+)+）存在灾难性回溯风险，额外增加的复杂度
+     */
+    private static final int NESTED_QUANTIFIER_PENALTY = 50;
+
+    /**
+     * 展开 $ref 的最大深度，防止异常 schema 导致遍历过深
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private int maxDepth;
+    private int fanOut;
+    private int patternCount;
+    private int patternComplexity;
+    private int propertyCount;
+    private int refCount;
+
+    private SchemaCostAnalyzer() {
+    }
+
+    /**
+     * 计算 schema 的静态代价
+     *
+     * @param schemaNode schema 根节点
+     * @return 代价评估结果
+     */
+    public static SchemaCost analyze(JsonNode schemaNode) {
+        SchemaCostAnalyzer analyzer = new SchemaCostAnalyzer();
+        analyzer.visit(schemaNode, schemaNode, 1, new ArrayDeque<>());
+        int score = analyzer.propertyCount * PROPERTY_WEIGHT
+                + analyzer.fanOut * FAN_OUT_WEIGHT
+                + analyzer.patternCount * PATTERN_WEIGHT
+                + analyzer.patternComplexity
+                + analyzer.maxDepth * DEPTH_WEIGHT
+                + analyzer.refCount * REF_WEIGHT;
+        return new SchemaCost(score, analyzer.maxDepth, analyzer.fanOut, analyzer.patternCount,
+                analyzer.patternComplexity, analyzer.propertyCount, analyzer.refCount);
+    }
+
+    private void visit(JsonNode root, JsonNode node, int depth, Deque<String> refPath) {
+        if (node == null || !node.isObject() || depth > MAX_DEPTH) {
+            return;
+        }
+        maxDepth = Math.max(maxDepth, depth);
+
+        JsonNode ref = node.get("$ref");
+        if (ref != null && ref.isTextual()) {
+            refCount++;
+            String pointer = ref.asText();
+            // 只展开本地引用，并跳过循环引用
+            if (pointer.startsWith("#") && !refPath.contains(pointer)) {
+                refPath.push(pointer);
+                visit(root, root.at(pointer.substring(1)), depth + 1, refPath);
+                refPath.pop();
+            }
+        }
+
+        JsonNode pattern = node.get("pattern");
+        if (pattern != null && pattern.isTextual()) {
+            addPattern(pattern.asText());
+        }
+
+        visitProperties(root, node.get("properties"), depth, refPath, true);
+        JsonNode patternProperties = node.get("patternProperties");
+        if (patternProperties != null && patternProperties.isObject()) {
+            Iterator<String> names = patternProperties.fieldNames();
+            while (names.hasNext()) {
+                addPattern(names.next());
+            }
+            visitProperties(root, patternProperties, depth, refPath, false);
+        }
+
+        for (String keyword : new String[]{"anyOf", "oneOf", "allOf"}) {
+            JsonNode branches = node.get(keyword);
+            if (branches != null && branches.isArray()) {
+                fanOut += branches.size();
+                for (JsonNode branch : branches) {
+                    visit(root, branch, depth + 1, refPath);
+                }
+            }
+        }
+        for (String keyword : new String[]{"not", "if", "then", "else"}) {
+            JsonNode branch = node.get(keyword);
+            if (branch != null && branch.isObject()) {
+                fanOut++;
+                visit(root, branch, depth + 1, refPath);
+            }
+        }
+        for (String keyword : new String[]{"items", "additionalProperties", "additionalItems", "contains", "propertyNames"}) {
+            JsonNode child = node.get(keyword);
+            if (child != null && child.isObject()) {
+                visit(root, child, depth + 1, refPath);
+            } else if (child != null && child.isArray()) {
+                for (JsonNode item : child) {
+                    visit(root, item, depth + 1, refPath);
+                }
+            }
+        }
+    }
+
+    private void visitProperties(JsonNode root, JsonNode properties, int depth, Deque<String> refPath, boolean count) {
+        if (properties == null || !properties.isObject()) {
+            return;
+        }
+        Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+        while (fields.hasNext()) {
+            if (count) {
+                propertyCount++;
+            }
+            visit(root, fields.next().getValue(), depth + 1, refPath);
+        }
+    }
+
+    private void addPattern(String regex) {
+        patternCount++;
+        patternComplexity += patternComplexity(regex);
+    }
+
+    /**
+     * 估算正则表达式的复杂度：长度每 10 个字符计 1 分，每个量词、分支、分组各计 1 分，
+     * 出现嵌套量词时额外增加 {@link #NESTED_QUANTIFIER_PENALTY} 分。
+     *
+     * @param regex 正则表达式
+     * @return 复杂度分值
+     */
+    static int patternComplexity(String regex) {
+        int complexity = regex.length() / 10;
+        // 栈中记录每一层分组内是否出现过量词
+        Deque<Boolean> groups = new ArrayDeque<>();
+        boolean quantifiedInGroup = false;
+        boolean nested = false;
+        boolean lastWasGroupEnd = false;
+        boolean lastGroupQuantified = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            boolean groupEnd = false;
+            if (c == '?' && i > 0 && regex.charAt(i - 1) == '(') {
+                // (?:...)、(?=...) 等分组修饰符，不是量词
+                lastWasGroupEnd = false;
+                continue;
+            }
+            switch (c) {
+                case '\\':
+                    i++;
+                    break;
+                case '(':
+                    complexity++;
+                    groups.push(quantifiedInGroup);
+                    quantifiedInGroup = false;
+                    break;
+                case ')':
+                    lastGroupQuantified = quantifiedInGroup;
+                    quantifiedInGroup = groups.isEmpty() ? false : groups.pop() || quantifiedInGroup;
+                    groupEnd = true;
+                    break;
+                case '|':
+                    complexity++;
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    complexity++;
+                    if (lastWasGroupEnd && lastGroupQuantified && c != '?') {
+                        nested = true;
+                    }
+                    quantifiedInGroup = true;
+                    if (c == '{') {
+                        int close = regex.indexOf('}', i);
+                        i = close < 0 ? i : close;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            lastWasGroupEnd = groupEnd;
+        }
+        return nested ? complexity + NESTED_QUANTIFIER_PENALTY : complexity;
+    }
+}
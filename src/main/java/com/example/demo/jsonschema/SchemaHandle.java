@@ -0,0 +1,117 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+/**
+ * 按内容哈希标识的 schema 引用，路由表通过它获取编译后的 schema。
+ * <p>
+ * 立即编译模式下直接持有 {@link CompiledSchema}；延迟编译模式下只保存 Smile 编码的 schema 树和静态代价，
+ * 首次使用时由 {@link LazySchemaCache} 编译，冷 schema 被淘汰后在下一次使用时重新编译。
+ */
+public final class SchemaHandle {
+
+    /**
+     * schema 源文本的 SHA-256 内容哈希
+     */
+    @Getter
+    private final String hash;
+
+    /**
+     * 静态代价，延迟编译模式下在加载时根据 schema 树计算，不需要编译
+     */
+    @Getter
+    private final SchemaCost cost;
+
+    /**
+     * Smile 编码的规范化 schema 树，直接由 {@link CompiledSchema} 包装而来时为 null
+     */
+    private final byte[] source;
+
+    /**
+     * 立即编译模式下的编译结果，延迟编译模式下为 null
+     */
+    private final CompiledSchema pinned;
+
+    /**
+     * 延迟编译模式下的编译缓存，立即编译模式下为 null
+     */
+    private final LazySchemaCache cache;
+
+    private SchemaHandle(String hash, SchemaCost cost, byte[] source, CompiledSchema pinned, LazySchemaCache cache) {
+        this.hash = hash;
+        this.cost = cost;
+        this.source = source;
+        this.pinned = pinned;
+        this.cache = cache;
+    }
+
+    /**
+     * 包装已编译的 schema
+     *
+     * @param compiledSchema 编译后的 schema
+     * @return 始终持有编译结果的引用
+     */
+    public static SchemaHandle of(CompiledSchema compiledSchema) {
+        return of(compiledSchema, null);
+    }
+
+    /**
+     * 包装已编译的 schema，并保留 Smile 编码的 schema 树用于写入 {@link SchemaSnapshot}
+     *
+     * @param compiledSchema 编译后的 schema
+     * @param source         Smile 编码的 schema 树
+     * @return 始终持有编译结果的引用
+     */
+    public static SchemaHandle of(CompiledSchema compiledSchema, byte[] source) {
+        return new SchemaHandle(compiledSchema.getHash(), compiledSchema.getCost(), source, compiledSchema, null);
+    }
+
+    /**
+     * 创建延迟编译的引用
+     *
+     * @param hash   schema 源文本的内容哈希
+     * @param source Smile 编码的 schema 树
+     * @param cost   静态代价
+     * @param cache  编译缓存
+     * @return 首次使用时才编译的引用
+     */
+    public static SchemaHandle lazy(String hash, byte[] source, SchemaCost cost, LazySchemaCache cache) {
+        return new SchemaHandle(hash, cost, source, null, cache);
+    }
+
+    /**
+     * 获取编译后的 schema，延迟编译模式下未编译或已被淘汰时在当前线程编译
+     *
+     * @return 编译后的 schema，编译失败时返回 null
+     */
+    public CompiledSchema get() {
+        return pinned != null ? pinned : cache.get(hash, source);
+    }
+
+    /**
+     * 获取编译后的 schema，不会触发编译
+     *
+     * @return 编译后的 schema，未编译、已被淘汰或编译失败时返回 null
+     */
+    public CompiledSchema getIfCompiled() {
+        return pinned != null ? pinned : cache.getIfCompiled(hash);
+    }
+
+    /**
+     * Smile 编码的 schema 树
+     *
+     * @return 字节数组，直接由 {@link CompiledSchema} 包装而来时返回 null
+     */
+    byte[] getSource() {
+        return source;
+    }
+
+    /**
+     * 是否为延迟编译的引用
+     *
+     * @return 延迟编译返回 true，否则返回 false
+     */
+    public boolean isLazy() {
+        return pinned == null;
+    }
+}
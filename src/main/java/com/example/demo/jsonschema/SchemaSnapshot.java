@@ -0,0 +1,256 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 持久化到磁盘的 schema 快照，保存上一次加载时已经验证和规范化的结果，用于加快启动。
+ * <p>
+ * 快照是一个 Smile 编码的文档，包含：
+ * <ul>
+ *     <li>条目：每个通过验证的模式配置的源哈希（URI、请求方法、schema 文本等配置内容的哈希）、
+ *     解析后的请求方法、URI 模板、优先级以及请求/响应 schema 的内容哈希；</li>
+ *     <li>schema：按内容哈希存放 Smile 编码的规范化 schema 树、静态代价和提取好的自定义错误消息。</li>
+ * </ul>
+ * 启动时以内存映射的方式读取快照，源哈希未变化的条目跳过 URI 校验、JSON 解析、代价分析和错误消息提取，
+ * 直接从二进制 schema 树构建；源哈希变化的条目按正常流程验证和编译。
+ * networknt 的 JsonSchema 对象无法序列化，立即编译模式下仍然需要从 schema 树编译，
+ * 与延迟编译一起使用时启动阶段完全不编译。
+ */
+@Slf4j
+@Getter
+public final class SchemaSnapshot {
+
+    /**
+     * 快照格式版本，格式不兼容时忽略旧快照
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
+    /**
+     * 源哈希到条目的映射
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * 内容哈希到 schema 的映射
+     */
+    private final Map<String, Schema> schemas;
+
+    public SchemaSnapshot(Map<String, Entry> entries, Map<String, Schema> schemas) {
+        this.entries = Collections.unmodifiableMap(entries);
+        this.schemas = Collections.unmodifiableMap(schemas);
+    }
+
+    /**
+     * 以内存映射的方式读取快照
+     *
+     * @param path 快照文件
+     * @return 快照，文件不存在、格式版本不一致或内容损坏时返回 null
+     */
+    public static SchemaSnapshot read(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            JsonNode root;
+            try (InputStream input = new ByteBufferBackedInputStream(buffer)) {
+                root = SMILE_MAPPER.readTree(input);
+            }
+            if (root == null || root.path("formatVersion").asInt() != FORMAT_VERSION) {
+                log.info("Ignoring JSON schema snapshot {} with incompatible format", path.toAbsolutePath());
+                return null;
+            }
+            return fromTree(root);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable JSON schema snapshot {}: {}", path.toAbsolutePath(), e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 写入快照，先写临时文件再原子地替换
+     *
+     * @param path 快照文件
+     * @throws IOException 写入失败时抛出
+     */
+    public void write(Path path) throws IOException {
+        ObjectNode root = SMILE_MAPPER.createObjectNode();
+        root.put("formatVersion", FORMAT_VERSION);
+        ArrayNode entryNodes = root.putArray("entries");
+        for (Entry entry : entries.values()) {
+            ObjectNode node = entryNodes.addObject();
+            node.put("sourceHash", entry.sourceHash);
+            node.put("uri", entry.uri);
+            ArrayNode methods = node.putArray("methods");
+            for (HttpMethod method : entry.methods) {
+                methods.add(method.name());
+            }
+            node.put("priority", entry.priority.name());
+            node.put("schemaHash", entry.schemaHash);
+            node.put("responseSchemaHash", entry.responseSchemaHash);
+        }
+        ObjectNode schemaNodes = root.putObject("schemas");
+        for (Schema schema : schemas.values()) {
+            ObjectNode node = schemaNodes.putObject(schema.hash);
+            node.put("tree", schema.tree);
+            SchemaCost cost = schema.cost;
+            node.putArray("cost").add(cost.getScore()).add(cost.getDepth()).add(cost.getCombinatorFanOut())
+                    .add(cost.getPatternCount()).add(cost.getPatternComplexity()).add(cost.getPropertyCount())
+                    .add(cost.getRefCount());
+            ObjectNode errorMessages = node.putObject("errorMessages");
+            schema.errorMessages.forEach(errorMessages::put);
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        Files.write(temp, SMILE_MAPPER.writeValueAsBytes(root));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SchemaSnapshot fromTree(JsonNode root) throws IOException {
+        Map<String, Schema> schemas = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> schemaNodes = root.path("schemas").fields();
+        while (schemaNodes.hasNext()) {
+            Map.Entry<String, JsonNode> field = schemaNodes.next();
+            JsonNode node = field.getValue();
+            JsonNode cost = node.path("cost");
+            Map<String, String> errorMessages = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> messages = node.path("errorMessages").fields();
+            while (messages.hasNext()) {
+                Map.Entry<String, JsonNode> message = messages.next();
+                errorMessages.put(message.getKey(), message.getValue().asText());
+            }
+            schemas.put(field.getKey(), new Schema(field.getKey(), node.path("tree").binaryValue(),
+                    new SchemaCost(cost.path(0).asInt(), cost.path(1).asInt(), cost.path(2).asInt(), cost.path(3).asInt(),
+                            cost.path(4).asInt(), cost.path(5).asInt(), cost.path(6).asInt()),
+                    Collections.unmodifiableMap(errorMessages)));
+        }
+
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (JsonNode node : root.path("entries")) {
+            List<HttpMethod> methods = new ArrayList<>();
+            for (JsonNode method : node.path("methods")) {
+                methods.add(HttpMethod.valueOf(method.asText()));
+            }
+            String schemaHash = node.path("schemaHash").asText();
+            String responseSchemaHash = node.path("responseSchemaHash").isTextual() ? node.path("responseSchemaHash").asText() : null;
+            // 引用的 schema 缺失时丢弃该条目，按正常流程重新验证
+            if (!schemas.containsKey(schemaHash) || responseSchemaHash != null && !schemas.containsKey(responseSchemaHash)) {
+                continue;
+            }
+            Entry entry = new Entry(node.path("sourceHash").asText(), node.path("uri").asText(), Collections.unmodifiableList(methods),
+                    JsonSchemaConfig.RoutePriority.valueOf(node.path("priority").asText()), schemaHash, responseSchemaHash);
+            entries.put(entry.sourceHash, entry);
+        }
+        return new SchemaSnapshot(entries, schemas);
+    }
+
+    /**
+     * 将 schema 树编码为 Smile 二进制
+     *
+     * @param tree schema 树
+     * @return Smile 编码的字节数组
+     */
+    public static byte[] encodeTree(JsonNode tree) {
+        try {
+            return SMILE_MAPPER.writeValueAsBytes(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 解码 Smile 编码的 schema 树
+     *
+     * @param tree Smile 编码的字节数组
+     * @return schema 树
+     */
+    public static JsonNode decodeTree(byte[] tree) {
+        try {
+            return SMILE_MAPPER.readTree(tree);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 快照中的一个模式配置条目
+     */
+    @Getter
+    public static final class Entry {
+        /**
+         * 模式配置内容的哈希，见 {@link JsonSchemaConfig} 中的计算方式
+         */
+        private final String sourceHash;
+        private final String uri;
+        private final List<HttpMethod> methods;
+        private final JsonSchemaConfig.RoutePriority priority;
+        private final String schemaHash;
+        /**
+         * 响应体 schema 的内容哈希，未配置时为 null
+         */
+        private final String responseSchemaHash;
+
+        public Entry(String sourceHash, String uri, List<HttpMethod> methods, JsonSchemaConfig.RoutePriority priority,
+                     String schemaHash, String responseSchemaHash) {
+            this.sourceHash = sourceHash;
+            this.uri = uri;
+            this.methods = methods;
+            this.priority = priority;
+            this.schemaHash = schemaHash;
+            this.responseSchemaHash = responseSchemaHash;
+        }
+    }
+
+    /**
+     * 快照中的一个规范化 schema
+     */
+    @Getter
+    public static final class Schema {
+        private final String hash;
+        /**
+         * Smile 编码的 schema 树
+         */
+        private final byte[] tree;
+        private final SchemaCost cost;
+        /**
+         * 属性名到格式化后的自定义错误消息
+         */
+        private final Map<String, String> errorMessages;
+
+        public Schema(String hash, byte[] tree, SchemaCost cost, Map<String, String> errorMessages) {
+            this.hash = hash;
+            this.tree = tree;
+            this.cost = cost;
+            this.errorMessages = errorMessages;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.networknt.schema.ValidationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 影子 schema 对比器，在切换路由的 schema 之前用线上流量对比候选版本与当前版本。
+ * <p>
+ * 请求线程在验证完成后把已经构建好的参数树提交给独立的线程池，对比线程在同一个树上依次执行当前 schema 和影子 schema，
+ * 记录两者结果不一致的次数（当前通过、影子失败，以及相反的情况）和验证耗时之差，不影响请求的验证结果。
+ * 两个 schema 的执行顺序交替，避免顺序带来的缓存偏差。
+ * <p>
+ * 对比线程使用的 CPU 时间受硬性预算约束：每个预算窗口内合计最多使用 cpuBudgetPercent% 个 CPU 核心的时间，
+ * 预算用完后请求线程不再提交，已在队列中的请求也直接丢弃；超出预算的部分从下一个窗口的预算中扣除，
+ * 长期的 CPU 使用不会超过预算。队列已满时丢弃新的采样并计数，对比压力不会反压到请求线程。
+ * 启用虚拟线程时对比线程为虚拟线程，无法测量 CPU 时间，按墙钟时间计入预算。
+ */
+@Slf4j
+@Component
+public class ShadowSchemaEvaluator {
+
+    private final JsonSchemaConfig.ShadowEvaluation settings;
+
+    private final JsonSchemaValidationLogger validationLogger;
+
+    private final ThreadMXBean threadMXBean;
+
+    private final boolean measureCpu;
+
+    private final long windowNanos;
+
+    private final long budgetNanos;
+
+    private final AtomicLong windowStartNanos;
+
+    /**
+     * 当前窗口内已使用的 CPU 时间，包含上一个窗口超出预算的部分
+     */
+    private final AtomicLong windowCpuNanos = new AtomicLong();
+
+    private final AtomicLong order = new AtomicLong();
+
+    /**
+     * 已提交但尚未完成的对比数量
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private final Counter evaluations;
+
+    private final Counter disagreements;
+
+    private final Counter dropped;
+
+    private final Counter overBudget;
+
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ShadowSchemaEvaluator(JsonSchemaConfig jsonSchemaConfig, JsonSchemaValidationLogger validationLogger,
+                                 MeterRegistry meterRegistry) {
+        this.settings = jsonSchemaConfig.getShadowEvaluation();
+        this.validationLogger = validationLogger;
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.measureCpu = threadMXBean.isCurrentThreadCpuTimeSupported();
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(settings.getBudgetWindowMillis(), 1L));
+        this.budgetNanos = (long) (windowNanos * Math.max(settings.getCpuBudgetPercent(), 0) / 100);
+        this.windowStartNanos = new AtomicLong(System.nanoTime());
+        this.evaluations = meterRegistry.counter("jsonschema.shadow.evaluations");
+        this.disagreements = meterRegistry.counter("jsonschema.shadow.disagreements");
+        this.dropped = meterRegistry.counter("jsonschema.shadow.dropped");
+        this.overBudget = meterRegistry.counter("jsonschema.shadow.over-budget");
+
+        int threads = Math.max(settings.getThreads(), 1);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(settings.getQueueCapacity(), 1)),
+                VirtualThreads.threadFactory("shadow-schema-evaluator-", jsonSchemaConfig.getVirtualThreads().isEnabled()),
+                (runnable, pool) -> {
+                    pending.decrementAndGet();
+                    dropped.increment();
+                });
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    /**
+     * 判断本次请求是否需要对比：按采样率采样，且当前窗口的 CPU 预算还有剩余
+     *
+     * @param route 命中的路由
+     * @return 需要对比返回 true，否则返回 false
+     */
+    public boolean isSampled(RouteEntry route) {
+        if (!settings.isEnabled() || route.getShadowSchema() == null
+                || ThreadLocalRandom.current().nextDouble() >= settings.getSampleRate()) {
+            return false;
+        }
+        if (!hasBudget()) {
+            overBudget.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 提交一次对比
+     *
+     * @param route        命中的路由，需要配置了影子 schema
+     * @param activeSchema 当前生效的 schema
+     * @param node         请求的参数树，提交后调用方不能再修改
+     */
+    public void submit(RouteEntry route, CompiledSchema activeSchema, JsonNode node) {
+        pending.incrementAndGet();
+        executor.execute(() -> {
+            try {
+                evaluate(route, activeSchema, node);
+            } catch (RuntimeException e) {
+                log.warn("Shadow schema evaluation failed unexpectedly for {} {}", route.getMethod(), route.getUriTemplate(), e);
+            } finally {
+                pending.decrementAndGet();
+            }
+        });
+    }
+
+    private void evaluate(RouteEntry route, CompiledSchema activeSchema, JsonNode node) {
+        if (!hasBudget()) {
+            overBudget.increment();
+            return;
+        }
+        // 虚拟线程不支持测量 CPU 时间（返回 -1），改用不小于 CPU 时间的墙钟时间，预算只会更保守
+        long cpuStart = measureCpu ? threadMXBean.getCurrentThreadCpuTime() : -1L;
+        long wallStart = System.nanoTime();
+        try {
+            // 延迟编译模式下影子 schema 在这里编译，编译时间同样计入 CPU 预算
+            CompiledSchema shadowSchema = route.getShadowSchema().get();
+            if (shadowSchema == null) {
+                return;
+            }
+            boolean activeFirst = (order.getAndIncrement() & 1) == 0;
+            long activeNanos = 0;
+            long shadowNanos;
+            Set<ValidationMessage> activeMessages = null;
+            if (activeFirst) {
+                long begin = System.nanoTime();
+                activeMessages = activeSchema.getJsonSchema().validate(node);
+                activeNanos = System.nanoTime() - begin;
+            }
+            long begin = System.nanoTime();
+            Set<ValidationMessage> shadowMessages = shadowSchema.getJsonSchema().validate(node);
+            shadowNanos = System.nanoTime() - begin;
+            if (!activeFirst) {
+                begin = System.nanoTime();
+                activeMessages = activeSchema.getJsonSchema().validate(node);
+                activeNanos = System.nanoTime() - begin;
+            }
+
+            boolean activePassed = activeMessages.isEmpty();
+            boolean shadowPassed = shadowMessages.isEmpty();
+            route.getStats().recordShadowEvaluation(activePassed, shadowPassed, activeNanos, shadowNanos);
+            evaluations.increment();
+            if (activePassed != shadowPassed) {
+                disagreements.increment();
+                validationLogger.warn(route.getUriTemplate(), "shadow-disagreement",
+                        "Shadow schema of {} {} {} a request the active schema {}: {}", route.getMethod(), route.getUriTemplate(),
+                        shadowPassed ? "accepts" : "rejects", activePassed ? "accepts" : "rejects",
+                        (shadowPassed ? activeMessages : shadowMessages).iterator().next().getMessage());
+            }
+        } finally {
+            windowCpuNanos.addAndGet(cpuStart >= 0 ? threadMXBean.getCurrentThreadCpuTime() - cpuStart
+                    : System.nanoTime() - wallStart);
+        }
+    }
+
+    /**
+     * 判断当前窗口是否还有 CPU 预算，窗口结束时扣除一个窗口的预算，超出的部分计入新窗口
+     */
+    private boolean hasBudget() {
+        long now = System.nanoTime();
+        long start = windowStartNanos.get();
+        if (now - start >= windowNanos && windowStartNanos.compareAndSet(start, now)) {
+            long refund = (now - start) / windowNanos * budgetNanos;
+            windowCpuNanos.getAndUpdate(used -> Math.max(0, used - refund));
+        }
+        return windowCpuNanos.get() < budgetNanos;
+    }
+
+    public long getEvaluations() {
+        return (long) evaluations.count();
+    }
+
+    public long getDisagreements() {
+        return (long) disagreements.count();
+    }
+
+    public long getDropped() {
+        return (long) dropped.count();
+    }
+
+    public long getOverBudget() {
+        return (long) overBudget.count();
+    }
+
+    /**
+     * 每个预算窗口的 CPU 预算，单位纳秒
+     *
+     * @return CPU 预算
+     */
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    /**
+     * 等待已提交的对比完成，供测试使用
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 在超时前完成返回 true
+     * @throws InterruptedException 等待被中断
+     */
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+
+/**
+ * 租户选择结果，包含请求所属租户的路由表和用于匹配路由的 URI。
+ * 按路径前缀选择租户时，URI 已去掉租户名所在的第一段路径。
+ */
+@Getter
+public class TenantSelection {
+
+    /**
+     * 租户名，未启用多租户或未识别出租户时为 null
+     */
+    private final String tenant;
+
+    /**
+     * 请求使用的路由表，未识别出租户时为全局路由表
+     */
+    private final RouteTable routeTable;
+
+    /**
+     * 用于匹配路由的 URI
+     */
+    private final String uri;
+
+    public TenantSelection(String tenant, RouteTable routeTable, String uri) {
+        this.tenant = tenant;
+        this.routeTable = routeTable;
+        this.uri = uri;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.demo.jsonschema;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 流量录制文件的二进制格式。
+ * <p>
+ * 文件以 4 字节魔数 JSTR 和 1 字节版本号开头，之后是连续追加的记录，每个文件都可以独立读取：
+ * <pre>
+ * 记录     = 0x01 时间戳差值 方法 URI模板 URI 验证耗时 标志 参数个数 (参数名 参数值)*
+ * 时间戳差值 = zigzag 变长整数，相对上一条记录（第一条相对 0）的毫秒数
+ * 方法、URI模板、参数名 = 字典引用：变长整数编号，编号等于当前字典大小时其后紧跟新的字符串并加入字典
+ * URI、参数值 = 字符串：变长整数字节数 + UTF-8 字节
+ * 验证耗时   = 变长整数纳秒数
+ * 标志      = 1 字节，最低位为 1 表示验证失败
+ * </pre>
+ * 重复出现的请求方法、URI 模板和参数名只在文件中第一次出现时写出完整字符串。
+ * 进程异常退出时最后一条记录可能不完整，读取时忽略文件末尾不完整的记录。
+ */
+public final class TrafficRecordFormat {
+
+    /**
+     * 录制文件的扩展名
+     */
+    public static final String FILE_SUFFIX = ".rec";
+
+    private static final byte[] MAGIC = {'J', 'S', 'T', 'R'};
+
+    /**
+     * 文件头的字节数
+     */
+    static final int HEADER_LENGTH = MAGIC.length + 1;
+
+    private static final byte VERSION = 1;
+
+    private static final byte RECORD = 1;
+
+    private static final byte FLAG_FAILED = 1;
+
+    private TrafficRecordFormat() {
+    }
+
+    /**
+     * 读取录制文件，或按文件名顺序读取目录中的所有录制文件
+     *
+     * @param path 录制文件或目录
+     * @return 录制的请求
+     * @throws IOException 读取失败或文件格式不正确时抛出
+     */
+    public static List<RecordedRequest> read(Path path) throws IOException {
+        List<RecordedRequest> requests = new ArrayList<>();
+        read(path, requests::add);
+        return requests;
+    }
+
+    /**
+     * 逐条读取录制文件，或按文件名顺序读取目录中的所有录制文件
+     *
+     * @param path     录制文件或目录
+     * @param consumer 每条录制请求的处理器
+     * @throws IOException 读取失败或文件格式不正确时抛出
+     */
+    public static void read(Path path, Consumer<RecordedRequest> consumer) throws IOException {
+        if (!Files.isDirectory(path)) {
+            readFile(path, consumer);
+            return;
+        }
+        for (Path file : listFiles(path)) {
+            readFile(file, consumer);
+        }
+    }
+
+    /**
+     * 按文件名顺序列出目录中的录制文件，文件名中的时间戳和序号保证了名称顺序即写入顺序
+     *
+     * @param directory 录制目录
+     * @return 录制文件
+     * @throws IOException 读取目录失败时抛出
+     */
+    static List<Path> listFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private static void readFile(Path file, Consumer<RecordedRequest> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Recording file " + file + " is larger than 2GB");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            if (buffer.remaining() < MAGIC.length + 1) {
+                throw new IOException("Not a traffic recording: " + file);
+            }
+            buffer.get(magic);
+            byte version = buffer.get();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+                throw new IOException("Not a traffic recording or unsupported version: " + file);
+            }
+            List<String> dictionary = new ArrayList<>();
+            long timestamp = 0;
+            while (buffer.hasRemaining()) {
+                try {
+                    if (buffer.get() != RECORD) {
+                        return;
+                    }
+                    timestamp += zigzagDecode(readVarLong(buffer));
+                    String method = readRef(buffer, dictionary);
+                    String uriTemplate = readRef(buffer, dictionary);
+                    String uri = readString(buffer);
+                    long nanos = readVarLong(buffer);
+                    boolean failed = (buffer.get() & FLAG_FAILED) != 0;
+                    int count = (int) readVarLong(buffer);
+                    Map<String, Object> params = new LinkedHashMap<>();
+                    for (int i = 0; i < count; i++) {
+                        String name = readRef(buffer, dictionary);
+                        params.put(name, readString(buffer));
+                    }
+                    consumer.accept(new RecordedRequest(timestamp, method, uri, uriTemplate, params, nanos, failed));
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    // 文件末尾不完整的记录
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String readRef(ByteBuffer buffer, List<String> dictionary) {
+        long id = readVarLong(buffer);
+        if (id < dictionary.size()) {
+            return dictionary.get((int) id);
+        }
+        if (id != dictionary.size()) {
+            throw new IllegalArgumentException("Invalid dictionary reference " + id);
+        }
+        String value = readString(buffer);
+        dictionary.add(value);
+        return value;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        long length = readVarLong(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable-length integer");
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 单个录制文件的编码器，持有该文件的字符串字典和上一条记录的时间戳，只在写入线程中使用。
+     * 切换到新文件时调用 {@link #reset()}。
+     */
+    static final class Encoder {
+
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        private long previousTimestamp;
+
+        private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+        /**
+         * 文件头
+         *
+         * @return 魔数和版本号
+         */
+        ByteBuffer header() {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.put(MAGIC).put(VERSION);
+            header.flip();
+            return header;
+        }
+
+        /**
+         * 清空字典和时间戳，开始一个新文件
+         */
+        void reset() {
+            dictionary.clear();
+            previousTimestamp = 0;
+        }
+
+        /**
+         * 编码一条记录，返回的缓冲区在下一次调用前有效
+         *
+         * @param request 录制的请求
+         * @return 编码后的字节，position 为 0，limit 为记录长度
+         */
+        ByteBuffer encode(RecordedRequest request) {
+            scratch.clear();
+            put(RECORD);
+            putVarLong(zigzagEncode(request.getTimestamp() - previousTimestamp));
+            previousTimestamp = request.getTimestamp();
+            putRef(request.getMethod());
+            putRef(request.getUriTemplate());
+            putString(request.getUri());
+            putVarLong(Math.max(request.getValidationNanos(), 0));
+            put(request.isFailed() ? FLAG_FAILED : 0);
+            Map<String, Object> params = request.getParams();
+            putVarLong(params == null ? 0 : params.size());
+            if (params != null) {
+                for (Map.Entry<String, Object> entry : params.entrySet()) {
+                    putRef(entry.getKey());
+                    putString(entry.getValue() == null ? "" : String.valueOf(entry.getValue()));
+                }
+            }
+            scratch.flip();
+            return scratch;
+        }
+
+        private void putRef(String value) {
+            String key = value == null ? "" : value;
+            Integer id = dictionary.get(key);
+            if (id != null) {
+                putVarLong(id);
+                return;
+            }
+            putVarLong(dictionary.size());
+            dictionary.put(key, dictionary.size());
+            putString(key);
+        }
+
+        private void putString(String value) {
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            scratch.put(bytes);
+        }
+
+        private void putVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                scratch.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            scratch.put((byte) value);
+        }
+
+        private void put(byte value) {
+            ensureCapacity(1);
+            scratch.put(value);
+        }
+
+        private void ensureCapacity(int bytes) {
+            if (scratch.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+                scratch.flip();
+                larger.put(scratch);
+                scratch = larger;
+            }
+        }
+
+        private static long zigzagEncode(long value) {
+            return (value << 1) ^ (value >> 63);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.demo.jsonschema;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流量录制器，按采样率把验证过的请求（请求方法、命中的 URI 模板、参数、验证耗时和结果）追加写入紧凑的二进制文件，
+ * 文件格式见 {@link TrafficRecordFormat}。
+ * <p>
+ * 请求线程只创建一条记录并调用非阻塞的 offer 放入有界队列，队列已满时丢弃并计数，不会等待。
+ * 编码和写入都在独立的写入线程中执行：记录先编码到缓冲区，队列为空或缓冲区已满时通过 FileChannel 批量写出；
+ * 当前文件超过 maxFileBytes 时切换到新文件，并只保留最新的 maxFiles 个文件。
+ */
+@Slf4j
+@Component
+public class TrafficRecorder {
+
+    private final JsonSchemaConfig.TrafficRecording settings;
+
+    private final Counter recorded;
+
+    private final Counter dropped;
+
+    private final ArrayBlockingQueue<RecordedRequest> queue;
+
+    /**
+     * 已放入队列但尚未写出的记录数量
+     */
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private final AtomicLong filesWritten = new AtomicLong();
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    private volatile Path currentFile;
+
+    // 以下字段只在写入线程中访问
+    private final TrafficRecordFormat.Encoder encoder = new TrafficRecordFormat.Encoder();
+
+    private ByteBuffer buffer;
+
+    private FileChannel channel;
+
+    private long fileBytes;
+
+    private int buffered;
+
+    private int sequence;
+
+    @Autowired
+    public TrafficRecorder(JsonSchemaConfig jsonSchemaConfig, MeterRegistry meterRegistry) {
+        this(jsonSchemaConfig.getTrafficRecording(), meterRegistry);
+    }
+
+    public TrafficRecorder(JsonSchemaConfig.TrafficRecording settings, MeterRegistry meterRegistry) {
+        this.settings = settings;
+        this.recorded = meterRegistry.counter("jsonschema.recorder.recorded");
+        this.dropped = meterRegistry.counter("jsonschema.recorder.dropped");
+        this.queue = new ArrayBlockingQueue<>(Math.max(settings.getQueueCapacity(), 1));
+        if (settings.isEnabled()) {
+            this.writer = new Thread(this::writeLoop, "traffic-recorder");
+            this.writer.setDaemon(true);
+            this.writer.start();
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * 按采样率判断本次请求是否需要录制
+     *
+     * @return 需要录制返回 true，否则返回 false
+     */
+    public boolean isSampled() {
+        return settings.isEnabled() && ThreadLocalRandom.current().nextDouble() < settings.getSampleRate();
+    }
+
+    /**
+     * 录制一次请求验证，不会阻塞调用线程
+     *
+     * @param method          请求方法
+     * @param uri             用于匹配路由的 URI
+     * @param uriTemplate     命中的 URI 模板
+     * @param params          参与验证的参数，提交后调用方不能再修改
+     * @param validationNanos 验证耗时
+     * @param failed          是否验证失败
+     */
+    public void record(String method, String uri, String uriTemplate, Map<String, Object> params,
+                       long validationNanos, boolean failed) {
+        if (!running || writer == null) {
+            return;
+        }
+        RecordedRequest request = new RecordedRequest(System.currentTimeMillis(), method, uri, uriTemplate, params,
+                validationNanos, failed);
+        pending.incrementAndGet();
+        if (!queue.offer(request)) {
+            pending.decrementAndGet();
+            dropped.increment();
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled();
+    }
+
+    public long getRecorded() {
+        return (long) recorded.count();
+    }
+
+    public long getDropped() {
+        return (long) dropped.count();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getFilesWritten() {
+        return filesWritten.get();
+    }
+
+    public Path getCurrentFile() {
+        return currentFile;
+    }
+
+    private void writeLoop() {
+        buffer = ByteBuffer.allocateDirect(Math.max(settings.getBufferBytes(), 4096));
+        try {
+            while (running || !queue.isEmpty()) {
+                RecordedRequest request = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (request != null) {
+                    append(request);
+                }
+                if (request == null || queue.isEmpty()) {
+                    flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            flush();
+            closeFile();
+        }
+    }
+
+    private void append(RecordedRequest request) {
+        try {
+            if (channel == null) {
+                openFile();
+            }
+            ByteBuffer encoded = encoder.encode(request);
+            if (fileBytes + encoded.remaining() > settings.getMaxFileBytes() && fileBytes > TrafficRecordFormat.HEADER_LENGTH) {
+                // 每个文件有独立的字典，切换文件后需要重新编码
+                flush();
+                closeFile();
+                openFile();
+                encoded = encoder.encode(request);
+            }
+            fileBytes += encoded.remaining();
+            if (encoded.remaining() > buffer.remaining()) {
+                flush();
+            }
+            if (encoded.remaining() > buffer.remaining()) {
+                writeFully(encoded);
+                recorded.increment();
+                pending.decrementAndGet();
+            } else {
+                buffer.put(encoded);
+                buffered++;
+            }
+        } catch (IOException e) {
+            fail(e);
+            pending.decrementAndGet();
+            dropped.increment();
+        }
+    }
+
+    private void flush() {
+        if (buffer == null || buffered == 0 || channel == null) {
+            return;
+        }
+        try {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+            recorded.increment(buffered);
+            pending.addAndGet(-buffered);
+            buffered = 0;
+        } catch (IOException e) {
+            buffer.clear();
+            pending.addAndGet(-buffered);
+            dropped.increment(buffered);
+            buffered = 0;
+            fail(e);
+        }
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        if (channel == null) {
+            throw new IOException("Traffic recording file is closed");
+        }
+        while (source.hasRemaining()) {
+            bytesWritten.addAndGet(channel.write(source));
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path directory = Paths.get(settings.getDirectory());
+        Files.createDirectories(directory);
+        Path file = directory.resolve(String.format("traffic-%d-%05d%s", System.currentTimeMillis(), sequence++,
+                TrafficRecordFormat.FILE_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        encoder.reset();
+        fileBytes = 0;
+        ByteBuffer header = encoder.header();
+        fileBytes += header.remaining();
+        writeFully(header);
+        currentFile = file;
+        filesWritten.incrementAndGet();
+        deleteOldFiles(directory);
+    }
+
+    private void closeFile() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close traffic recording {}", currentFile, e);
+        }
+        channel = null;
+    }
+
+    private void deleteOldFiles(Path directory) throws IOException {
+        List<Path> files = TrafficRecordFormat.listFiles(directory);
+        for (int i = 0; i < files.size() - Math.max(settings.getMaxFiles(), 1); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * 写入失败时关闭当前文件，下一条记录会尝试打开新文件
+     */
+    private void fail(IOException e) {
+        log.warn("Failed to write traffic recording {}", currentFile, e);
+        closeFile();
+    }
+
+    /**
+     * 等待已提交的记录写出，供测试使用
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 在超时前完成返回 true
+     * @throws InterruptedException 等待被中断
+     */
+    boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * 停止录制，写出队列中剩余的记录并关闭文件
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import lombok.Data;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 
@@ -137,6 +139,31 @@ public class UriMatcher {
         return HAS_PATH_VARIABLE_PATTERN.matcher(uriTemplate).find();
     }
 
+    /**
+     * 按 "/" 拆分 URI 路径，忽略空的路径段。
+     * 不使用正则表达式，供请求热路径上的路由匹配使用。
+     *
+     * @param uri 待拆分的 URI，例如 "/api/users/1"
+     * @return 非空路径段数组，例如 ["api", "users", "1"]
+     */
+    public static String[] splitPath(String uri) {
+        if (uri == null || uri.isEmpty()) {
+            return new String[0];
+        }
+        List<String> segments = new ArrayList<>();
+        int length = uri.length();
+        int start = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || uri.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(uri.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
     /**
      * 检查 URI 是否与 URI 模板匹配，并提取路径变量
      *
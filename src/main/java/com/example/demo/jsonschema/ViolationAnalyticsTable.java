@@ -0,0 +1,307 @@
+package com.example.demo.jsonschema;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 验证失败的统计表，按 URI 模板、属性和关键字统计违规次数，并按需输出出现次数最多的前 N 项。
+ * <p>
+ * 计数使用 Count-Min sketch：depth 行、每行 width 个计数器，每行再按线程分为 stripes 份，
+ * 写入时只对当前线程所在分片的 depth 个计数器做原子自增，不加锁；估计值取各行分片之和的最小值，
+ * 只会高估，误差上界约为 总违规次数 × e / width。
+ * <p>
+ * 同时最多跟踪 capacity 个候选的高频项（heavy hitters）：候选未满时直接加入，已满时只有估计值超过当前最小候选的新项
+ * 才会通过 tryLock 替换最小的候选，拿不到锁的写入方直接放弃，不会等待。sketch 和候选集的内存在创建时即固定。
+ * <p>
+ * 读取前 N 项时弱一致地遍历候选集并读取计数器，不会阻塞写入方。
+ */
+@Component
+public class ViolationAnalyticsTable {
+
+    private static final int[] ROW_SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F, 0x165667B1, 0xD3A2646C,
+            0xFD7046C5, 0xB55A4F09};
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final int depth;
+
+    private final int width;
+
+    private final int stripes;
+
+    /**
+     * sketch 计数器，下标为 (stripe * depth + row) * width + column
+     */
+    private final AtomicLongArray counters;
+
+    private final Set<ViolationKey> candidates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已占用的候选位置数，用于在并发加入时保证候选数不超过 capacity
+     */
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    private final ReentrantLock replaceLock = new ReentrantLock();
+
+    /**
+     * 候选集已满时加入新项需要超过的估计值，由持有 replaceLock 的线程更新
+     */
+    private volatile long admissionThreshold;
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAdder replacements = new LongAdder();
+
+    @Autowired
+    public ViolationAnalyticsTable(JsonSchemaConfig jsonSchemaConfig) {
+        this(jsonSchemaConfig.getViolationAnalytics());
+    }
+
+    public ViolationAnalyticsTable(JsonSchemaConfig.ViolationAnalytics settings) {
+        this.enabled = settings.isEnabled();
+        this.capacity = Math.max(1, settings.getCapacity());
+        this.depth = Math.max(1, Math.min(ROW_SEEDS.length, settings.getSketchDepth()));
+        this.width = powerOfTwo(settings.getSketchWidth());
+        this.stripes = powerOfTwo(settings.getStripes());
+        this.counters = new AtomicLongArray(enabled ? stripes * depth * width : 0);
+    }
+
+    /**
+     * 记录一次验证失败中的所有违规项
+     *
+     * @param uriTemplate 命中的 URI 模板
+     * @param errors      验证错误
+     */
+    public void record(String uriTemplate, List<JsonSchemaValidationError> errors) {
+        if (!enabled) {
+            return;
+        }
+        for (JsonSchemaValidationError error : errors) {
+            record(uriTemplate, error.getProperty(), error.getKeyword());
+        }
+    }
+
+    /**
+     * 记录一次违规
+     *
+     * @param uriTemplate 命中的 URI 模板
+     * @param property    属性名，无法确定时为 null
+     * @param keyword     触发错误的关键字
+     */
+    public void record(String uriTemplate, String property, String keyword) {
+        if (!enabled) {
+            return;
+        }
+        total.increment();
+        ViolationKey key = new ViolationKey(uriTemplate, property, keyword);
+        int base = (int) (Thread.currentThread().getId() & (stripes - 1)) * depth * width;
+        for (int row = 0; row < depth; row++) {
+            counters.incrementAndGet(base + row * width + column(key.hash, row));
+        }
+        if (candidates.contains(key)) {
+            return;
+        }
+        if (reserved.get() < capacity) {
+            if (reserved.incrementAndGet() <= capacity && candidates.add(key)) {
+                return;
+            }
+            reserved.decrementAndGet();
+            if (candidates.contains(key)) {
+                return;
+            }
+        }
+        long estimate = estimate(key);
+        if (estimate > admissionThreshold && replaceLock.tryLock()) {
+            try {
+                replaceMinimum(key, estimate);
+            } finally {
+                replaceLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 获取出现次数最多的前 N 项，计数为 Count-Min sketch 的估计值
+     *
+     * @param n 返回的项数
+     * @return 按估计次数从高到低排序的违规项
+     */
+    public List<Violation> top(int n) {
+        List<Violation> violations = new ArrayList<>(candidates.size());
+        for (ViolationKey key : candidates) {
+            violations.add(new Violation(key.uriTemplate, key.property, key.keyword, estimate(key)));
+        }
+        violations.sort((a, b) -> Long.compare(b.count, a.count));
+        return Collections.unmodifiableList(violations.subList(0, Math.min(Math.max(n, 0), violations.size())));
+    }
+
+    /**
+     * 估计某一违规项出现的次数
+     *
+     * @param uriTemplate URI 模板
+     * @param property    属性名
+     * @param keyword     关键字
+     * @return 估计次数，不低于实际次数
+     */
+    public long estimate(String uriTemplate, String property, String keyword) {
+        return enabled ? estimate(new ViolationKey(uriTemplate, property, keyword)) : 0;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public int getTracked() {
+        return candidates.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getReplacements() {
+        return replacements.sum();
+    }
+
+    /**
+     * 估计值的误差上界，Count-Min sketch 以约 1 - e^-depth 的概率保证高估不超过该值
+     *
+     * @return 误差上界
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(Math.E * getTotal() / width);
+    }
+
+    private long estimate(ViolationKey key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int column = column(key.hash, row);
+            long sum = 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                sum += counters.get((stripe * depth + row) * width + column);
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    /**
+     * 用新项替换估计值最小的候选，只在持有 replaceLock 时调用
+     */
+    private void replaceMinimum(ViolationKey key, long estimate) {
+        ViolationKey minimumKey = null;
+        long minimum = Long.MAX_VALUE;
+        long secondMinimum = Long.MAX_VALUE;
+        for (ViolationKey candidate : candidates) {
+            long candidateEstimate = estimate(candidate);
+            if (candidateEstimate < minimum) {
+                secondMinimum = minimum;
+                minimum = candidateEstimate;
+                minimumKey = candidate;
+            } else if (candidateEstimate < secondMinimum) {
+                secondMinimum = candidateEstimate;
+            }
+        }
+        if (minimumKey == null || estimate <= minimum) {
+            admissionThreshold = minimum == Long.MAX_VALUE ? 0 : minimum;
+            return;
+        }
+        if (candidates.add(key)) {
+            candidates.remove(minimumKey);
+            replacements.increment();
+        }
+        admissionThreshold = Math.min(secondMinimum, estimate);
+    }
+
+    private int column(int hash, int row) {
+        int h = hash * ROW_SEEDS[row];
+        h ^= h >>> 16;
+        return h & (width - 1);
+    }
+
+    private static int powerOfTwo(int value) {
+        int size = 1;
+        while (size < value && size < (1 << 24)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * 统计表的键
+     */
+    private static final class ViolationKey {
+        private final String uriTemplate;
+        private final String property;
+        private final String keyword;
+        private final int hash;
+
+        private ViolationKey(String uriTemplate, String property, String keyword) {
+            this.uriTemplate = uriTemplate;
+            this.property = property;
+            this.keyword = keyword;
+            int h = Objects.hash(uriTemplate, property, keyword);
+            this.hash = h ^ (h >>> 15) * 0x2C1B3C6D;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ViolationKey)) {
+                return false;
+            }
+            ViolationKey that = (ViolationKey) o;
+            return Objects.equals(uriTemplate, that.uriTemplate) && Objects.equals(property, that.property)
+                    && Objects.equals(keyword, that.keyword);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 一个违规项及其估计次数
+     */
+    @Getter
+    public static final class Violation {
+        private final String uriTemplate;
+        /**
+         * 属性名，无法确定时为 null
+         */
+        private final String property;
+        private final String keyword;
+        /**
+         * 估计次数，不低于实际次数
+         */
+        private final long count;
+
+        public Violation(String uriTemplate, String property, String keyword, long count) {
+            this.uriTemplate = uriTemplate;
+            this.property = property;
+            this.keyword = keyword;
+            this.count = count;
+        }
+    }
+}
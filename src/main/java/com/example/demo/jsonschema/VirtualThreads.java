@@ -0,0 +1,137 @@
+package com.example.demo.jsonschema;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程的创建工具。
+ * <p>
+ * 项目以 Java 8 为编译目标，虚拟线程的 API（JDK 21 起正式提供）只能通过反射调用：运行在支持虚拟线程的 JDK 上时，
+ * 创建名称带序号的虚拟线程；运行在更早的 JDK 上，或 JDK 19/20 未开启预览特性时，回退为同名的平台守护线程。
+ * 同一份构建产物可以同时运行在两类 JDK 上。
+ */
+public final class VirtualThreads {
+
+    /**
+     * Thread.ofVirtual()
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * Thread.Builder.name(String, long)
+     */
+    private static final Method BUILDER_NAME;
+
+    /**
+     * Thread.Builder.factory()
+     */
+    private static final Method BUILDER_FACTORY;
+
+    /**
+     * Thread.isVirtual()
+     */
+    private static final Method IS_VIRTUAL;
+
+    /**
+     * Executors.newThreadPerTaskExecutor(ThreadFactory)
+     */
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method builderName = null;
+        Method builderFactory = null;
+        Method isVirtual = null;
+        Method newThreadPerTaskExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            builderName = builder.getMethod("name", String.class, long.class);
+            builderFactory = builder.getMethod("factory");
+            isVirtual = Thread.class.getMethod("isVirtual");
+            newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // JDK 19/20 中 API 存在，但未开启预览特性时调用会抛出 UnsupportedOperationException
+            builderFactory.invoke(ofVirtual.invoke(null));
+        } catch (ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = builderName;
+        BUILDER_FACTORY = builderFactory;
+        IS_VIRTUAL = isVirtual;
+        NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前 JVM 是否支持虚拟线程
+     *
+     * @return 支持返回 true，否则返回 false
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建线程工厂，线程名称为 namePrefix 加从 1 开始的序号
+     *
+     * @param namePrefix 线程名称前缀
+     * @param virtual    是否创建虚拟线程，当前 JVM 不支持时回退为平台守护线程
+     * @return 线程工厂
+     */
+    public static ThreadFactory threadFactory(String namePrefix, boolean virtual) {
+        if (virtual && isSupported()) {
+            return (ThreadFactory) invoke(BUILDER_FACTORY, invoke(BUILDER_NAME, invoke(OF_VIRTUAL, null), namePrefix, 1L));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     *
+     * @param namePrefix 线程名称前缀
+     * @return 执行器
+     * @throws IllegalStateException 当前 JVM 不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("Virtual threads are not supported by Java " + System.getProperty("java.version"));
+        }
+        return (ExecutorService) invoke(NEW_THREAD_PER_TASK_EXECUTOR, null, threadFactory(namePrefix, true));
+    }
+
+    /**
+     * 判断线程是否为虚拟线程
+     *
+     * @param thread 线程
+     * @return 虚拟线程返回 true，否则返回 false
+     */
+    public static boolean isVirtual(Thread thread) {
+        return isSupported() && (Boolean) invoke(IS_VIRTUAL, thread);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
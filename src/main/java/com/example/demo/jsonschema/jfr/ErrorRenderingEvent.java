@@ -0,0 +1,14 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 验证阶段：将验证消息渲染为结构化错误
+ */
+@Name("com.example.demo.jsonschema.ErrorRendering")
+@Label("Error Rendering")
+@Description("将验证消息渲染为结构化错误")
+public final class ErrorRenderingEvent extends ValidationPhaseEvent {
+}
@@ -0,0 +1,35 @@
+package com.example.demo.jsonschema.jfr;
+
+/**
+ * 创建并开始 JFR 事件，只在运行时支持 JFR 时由 {@link ValidationPhases} 调用
+ */
+final class JfrValidationPhases {
+
+    private JfrValidationPhases() {
+    }
+
+    static ValidationPhase parameterExtraction() {
+        return begin(new ParameterExtractionEvent());
+    }
+
+    static ValidationPhase routeResolution() {
+        return begin(new RouteResolutionEvent());
+    }
+
+    static ValidationPhase treeConstruction() {
+        return begin(new TreeConstructionEvent());
+    }
+
+    static ValidationPhase schemaEvaluation() {
+        return begin(new SchemaEvaluationEvent());
+    }
+
+    static ValidationPhase errorRendering() {
+        return begin(new ErrorRenderingEvent());
+    }
+
+    private static ValidationPhase begin(ValidationPhaseEvent event) {
+        event.begin();
+        return event;
+    }
+}
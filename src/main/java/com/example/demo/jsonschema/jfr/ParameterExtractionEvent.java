@@ -0,0 +1,14 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 验证阶段：从请求中提取查询参数
+ */
+@Name("com.example.demo.jsonschema.ParameterExtraction")
+@Label("Parameter Extraction")
+@Description("从请求中提取查询参数")
+public final class ParameterExtractionEvent extends ValidationPhaseEvent {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 验证阶段：在请求方法对应的路由表中解析 URI 模板
+ */
+@Name("com.example.demo.jsonschema.RouteResolution")
+@Label("Route Resolution")
+@Description("在请求方法对应的路由表中解析 URI 模板")
+public final class RouteResolutionEvent extends ValidationPhaseEvent {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 验证阶段：使用编译后的 schema 验证 JsonNode 树
+ */
+@Name("com.example.demo.jsonschema.SchemaEvaluation")
+@Label("Schema Evaluation")
+@Description("使用编译后的 schema 验证 JsonNode 树")
+public final class SchemaEvaluationEvent extends ValidationPhaseEvent {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * 验证阶段：将请求参数转换为 JsonNode 树
+ */
+@Name("com.example.demo.jsonschema.TreeConstruction")
+@Label("Tree Construction")
+@Description("将请求参数转换为 JsonNode 树")
+public final class TreeConstructionEvent extends ValidationPhaseEvent {
+}
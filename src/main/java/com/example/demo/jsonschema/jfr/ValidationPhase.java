@@ -0,0 +1,34 @@
+package com.example.demo.jsonschema.jfr;
+
+/**
+ * 一个验证阶段的计时，由 {@link ValidationPhases} 创建时开始计时，调用 {@link #complete} 时结束。
+ * <p>
+ * 运行时支持 JFR 时实现为对应的 {@link ValidationPhaseEvent}，否则为不做任何事的 {@link #NOOP}，
+ * 请求路径上不直接引用 jdk.jfr 中的类。
+ */
+public interface ValidationPhase {
+
+    String OUTCOME_COMPLETED = "completed";
+    String OUTCOME_PASSED = "passed";
+    String OUTCOME_FAILED = "failed";
+    String OUTCOME_MATCHED = "matched";
+    String OUTCOME_UNMATCHED = "unmatched";
+    String OUTCOME_ERROR = "error";
+
+    /**
+     * 运行时不支持 JFR 时使用的空实现
+     */
+    ValidationPhase NOOP = (method, uri, uriTemplate, outcome, violationCount) -> {
+    };
+
+    /**
+     * 结束计时并记录阶段结果
+     *
+     * @param method         请求方法
+     * @param uri            请求 URI
+     * @param uriTemplate    命中的 URI 模板，尚未解析路由时为 null
+     * @param outcome        阶段结果
+     * @param violationCount 违规数量
+     */
+    void complete(String method, String uri, String uriTemplate, String outcome, int violationCount);
+}
@@ -0,0 +1,53 @@
+package com.example.demo.jsonschema.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * JSON Schema 验证各阶段 JFR 事件的公共基类。
+ * <p>
+ * 事件不采集调用栈，只有在 {@link #shouldCommit()} 为 true（事件已启用且耗时超过阈值）时才填充字段并提交，
+ * 因此可以在持续录制中保持开启。请求路径通过 {@link ValidationPhases} 创建事件，运行时不支持 JFR 时不会加载本类：
+ * <pre>
+ * ValidationPhase phase = ValidationPhases.schemaEvaluation();
+ * ...
+ * phase.complete(method, uri, uriTemplate, outcome, violationCount);
+ * </pre>
+ */
+@Category({"JSON Schema", "Validation"})
+@StackTrace(false)
+public abstract class ValidationPhaseEvent extends Event implements ValidationPhase {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("URI Template")
+    String uriTemplate;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Violation Count")
+    int violationCount;
+
+    /**
+     * 结束计时，并在事件需要提交时填充字段后提交
+     */
+    @Override
+    public final void complete(String method, String uri, String uriTemplate, String outcome, int violationCount) {
+        end();
+        if (shouldCommit()) {
+            this.method = method;
+            this.uri = uri;
+            this.uriTemplate = uriTemplate;
+            this.outcome = outcome;
+            this.violationCount = violationCount;
+            commit();
+        }
+    }
+}
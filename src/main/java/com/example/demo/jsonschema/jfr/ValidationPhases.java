@@ -0,0 +1,48 @@
+package com.example.demo.jsonschema.jfr;
+
+/**
+ * 创建验证阶段的计时。
+ * <p>
+ * 项目以 Java 8 为编译目标，而 8u262 之前的 Java 8 和不包含 JFR 的运行时没有 jdk.jfr 包。
+ * 类加载时检查一次 jdk.jfr.FlightRecorder 是否存在：存在时创建并开始 JFR 事件，否则返回 {@link ValidationPhase#NOOP}。
+ * 事件类只在 {@link JfrValidationPhases} 中引用，不支持 JFR 时不会被加载。
+ */
+public final class ValidationPhases {
+
+    private static final boolean JFR_AVAILABLE = isJfrAvailable();
+
+    private ValidationPhases() {
+    }
+
+    /**
+     * @return 运行时支持 JFR 时返回 true
+     */
+    public static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder", false, ValidationPhases.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static ValidationPhase parameterExtraction() {
+        return JFR_AVAILABLE ? JfrValidationPhases.parameterExtraction() : ValidationPhase.NOOP;
+    }
+
+    public static ValidationPhase routeResolution() {
+        return JFR_AVAILABLE ? JfrValidationPhases.routeResolution() : ValidationPhase.NOOP;
+    }
+
+    public static ValidationPhase treeConstruction() {
+        return JFR_AVAILABLE ? JfrValidationPhases.treeConstruction() : ValidationPhase.NOOP;
+    }
+
+    public static ValidationPhase schemaEvaluation() {
+        return JFR_AVAILABLE ? JfrValidationPhases.schemaEvaluation() : ValidationPhase.NOOP;
+    }
+
+    public static ValidationPhase errorRendering() {
+        return JFR_AVAILABLE ? JfrValidationPhases.errorRendering() : ValidationPhase.NOOP;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.demo.jsonschema.registry;
+
+import com.example.demo.jsonschema.JsonSchemaConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * schema 注册中心客户端，从 HTTP 注册中心拉取带版本的 schema bundle。
+ * <p>
+ * bundle 格式如下，schema 既可以是 JSON 字符串，也可以直接是 JSON 对象：
+ * <pre>
+ * {
+ *   "version": "2024-06-01.3",
+ *   "schemas": [
+ *     {"uri": "/api/users", "methods": ["GET"], "enabled": true, "description": "...", "schema": {...},
+ *      "responseSchema": {...}, "shadowSchema": {...}}
+ *   ]
+ * }
+ * </pre>
+ * 客户端使用 ETag / If-None-Match 进行条件轮询，内容未变化时注册中心返回 304，不做任何处理；
+ * 每次成功拉取后把 bundle 和 ETag 写入本地磁盘缓存，启动时优先加载缓存，注册中心不可用时也能快速启动。
+ * 加载 bundle 时由 {@link JsonSchemaConfig#reload(List, String, boolean)} 按内容哈希复用未变化的 schema，只重新编译变化的部分。
+ * bundle 作为一个整体加载，任一 schema 无效时保留当前的路由表，也不更新磁盘缓存和 ETag，下次轮询时重新拉取。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "json-schema.registry", name = "enabled", havingValue = "true")
+public class SchemaRegistryClient {
+
+    static final String BUNDLE_FILE = "schema-bundle.json";
+    static final String ETAG_FILE = "schema-bundle.etag";
+
+    private final JsonSchemaConfig jsonSchemaConfig;
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonSchemaConfig.Registry registry;
+
+    private final Path cacheDir;
+
+    private volatile String etag;
+
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public SchemaRegistryClient(JsonSchemaConfig jsonSchemaConfig, ObjectMapper objectMapper) {
+        this.jsonSchemaConfig = jsonSchemaConfig;
+        this.objectMapper = objectMapper;
+        this.registry = jsonSchemaConfig.getRegistry();
+        this.cacheDir = Paths.get(registry.getCacheDir());
+    }
+
+    /**
+     * 启动客户端：存在磁盘缓存时先加载缓存，再在后台立即开始轮询；
+     * 没有缓存时同步拉取一次，保证服务开始处理请求前已加载注册中心的 schema。
+     */
+    @PostConstruct
+    public void start() {
+        if (!jsonSchemaConfig.isEnabled()) {
+            log.info("JSON Schema validation is not enabled, schema registry client is not started.");
+            return;
+        }
+        boolean cached = loadFromCache();
+        if (!cached) {
+            poll();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schema-registry-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(registry.getPollIntervalMillis(), 1000L);
+        scheduler.scheduleWithFixedDelay(this::poll, cached ? 0 : interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止后台轮询
+     */
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 向注册中心发起一次条件请求
+     *
+     * @return 加载了新的 bundle 返回 true，内容未变化、拉取失败或 bundle 被拒绝返回 false
+     */
+    public boolean poll() {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(registry.getUrl()).openConnection();
+            connection.setConnectTimeout(registry.getConnectTimeoutMillis());
+            connection.setReadTimeout(registry.getReadTimeoutMillis());
+            connection.setRequestProperty("Accept", "application/json");
+            String currentEtag = etag;
+            if (currentEtag != null) {
+                connection.setRequestProperty("If-None-Match", currentEtag);
+            }
+
+            int status = connection.getResponseCode();
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return false;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                log.warn("Schema registry {} responded with status {}", registry.getUrl(), status);
+                return false;
+            }
+
+            byte[] body;
+            try (InputStream in = connection.getInputStream()) {
+                body = StreamUtils.copyToByteArray(in);
+            }
+            String newEtag = connection.getHeaderField("ETag");
+            apply(body);
+            etag = newEtag;
+            writeCache(body, newEtag);
+            return true;
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected schema bundle from {}, keeping the current schemas", registry.getUrl());
+            return false;
+        } catch (Exception e) {
+            log.warn("Failed to poll schema registry {}: {}", registry.getUrl(), e.toString());
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * 从磁盘缓存加载 bundle
+     *
+     * @return 加载成功返回 true，否则返回 false
+     */
+    boolean loadFromCache() {
+        Path bundleFile = cacheDir.resolve(BUNDLE_FILE);
+        if (!Files.isRegularFile(bundleFile)) {
+            return false;
+        }
+        try {
+            apply(Files.readAllBytes(bundleFile));
+            Path etagFile = cacheDir.resolve(ETAG_FILE);
+            if (Files.isRegularFile(etagFile)) {
+                etag = new String(Files.readAllBytes(etagFile), StandardCharsets.UTF_8).trim();
+            }
+            log.info("Loaded schema bundle from disk cache {}", bundleFile.toAbsolutePath());
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to load schema bundle from disk cache {}: {}", bundleFile.toAbsolutePath(), e.toString());
+            return false;
+        }
+    }
+
+    /**
+     * 解析 bundle 并重新加载路由表
+     *
+     * @param body bundle 内容
+     * @throws IOException              bundle 格式错误时抛出
+     * @throws IllegalArgumentException bundle 中存在无效的 schema 时抛出，当前路由表保持不变
+     */
+    private void apply(byte[] body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        JsonNode schemasNode = root.path("schemas");
+        if (!schemasNode.isArray()) {
+            throw new IOException("Schema bundle does not contain a 'schemas' array");
+        }
+        List<JsonSchemaConfig.SchemaConfig> schemaConfigs = new ArrayList<>(schemasNode.size());
+        for (JsonNode node : schemasNode) {
+            JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+            schemaConfig.setUri(node.path("uri").asText(null));
+            schemaConfig.setDescription(node.path("description").asText(null));
+            schemaConfig.setEnabled(node.path("enabled").asBoolean(true));
+            if (node.hasNonNull("priority")) {
+                schemaConfig.setPriority(JsonSchemaConfig.RoutePriority.valueOf(node.get("priority").asText().trim().toUpperCase()));
+            }
+            for (JsonNode method : node.path("methods")) {
+                schemaConfig.getMethods().add(method.asText());
+            }
+            JsonNode schema = node.path("schema");
+            schemaConfig.setSchema(schema.isTextual() ? schema.asText() : schema.toString());
+            JsonNode responseSchema = node.path("responseSchema");
+            if (!responseSchema.isMissingNode() && !responseSchema.isNull()) {
+                schemaConfig.setResponseSchema(responseSchema.isTextual() ? responseSchema.asText() : responseSchema.toString());
+            }
+            JsonNode shadowSchema = node.path("shadowSchema");
+            if (!shadowSchema.isMissingNode() && !shadowSchema.isNull()) {
+                schemaConfig.setShadowSchema(shadowSchema.isTextual() ? shadowSchema.asText() : shadowSchema.toString());
+            }
+            schemaConfigs.add(schemaConfig);
+        }
+        jsonSchemaConfig.reload(schemaConfigs, root.path("version").asText("unknown"), true);
+    }
+
+    /**
+     * 把 bundle 和 ETag 写入磁盘缓存，先写临时文件再原子替换，避免进程中断时留下不完整的缓存
+     */
+    private void writeCache(byte[] body, String newEtag) {
+        try {
+            Files.createDirectories(cacheDir);
+            writeAtomically(cacheDir.resolve(BUNDLE_FILE), body);
+            if (newEtag != null) {
+                writeAtomically(cacheDir.resolve(ETAG_FILE), newEtag.getBytes(StandardCharsets.UTF_8));
+            } else {
+                Files.deleteIfExists(cacheDir.resolve(ETAG_FILE));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write schema bundle cache to {}: {}", cacheDir.toAbsolutePath(), e.toString());
+        }
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.demo.jsonschema.replay;
+
+import com.example.demo.jsonschema.JsonSchemaConfig;
+import com.example.demo.jsonschema.JsonSchemaValidationLogger;
+import com.example.demo.jsonschema.JsonSchemaValidationService;
+import com.example.demo.jsonschema.LoadSheddingController;
+import com.example.demo.jsonschema.RecordedRequest;
+import com.example.demo.jsonschema.TrafficRecordFormat;
+import com.example.demo.jsonschema.TrafficRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 离线回放访问日志的命令行工具，无需启动服务即可评估 schema 变更的影响。
+ * 也可以回放 {@link TrafficRecorder} 录制的二进制文件，录制的请求包含解码后的参数和录制时的验证结果。
+ * <p>
+ * 复用 {@link JsonSchemaConfig} 和 {@link JsonSchemaValidationService}：从 YAML 配置中加载 json-schema 配置并编译，
+ * 通过内存映射读取访问日志，使用 fork-join 并行验证每一行请求，最后输出每个路由的通过/失败数量、
+ * 出现次数最多的违规项以及每个路由的平均验证耗时。
+ * <p>
+ * 用法：
+ * <pre>
+ * java -cp &lt;classpath&gt; com.example.demo.jsonschema.replay.AccessLogReplayTool \
+ *     --log=access.log [--config=application.yml] [--top=20] [--parallelism=8]
+ * java -cp &lt;classpath&gt; com.example.demo.jsonschema.replay.AccessLogReplayTool \
+ *     --recording=traffic-recordings [--config=application.yml] [--top=20] [--parallelism=8]
+ * </pre>
+ * --recording 可以是单个录制文件，也可以是录制目录。
+ * 未指定 --config 时使用 classpath 中的 application.yml。
+ */
+public class AccessLogReplayTool {
+
+    /**
+     * 单次内存映射的最大字节数
+     */
+    private static final long MAX_MAPPING_SIZE = Integer.MAX_VALUE - 8;
+
+    private final JsonSchemaValidationService validationService;
+
+    private final ForkJoinPool pool;
+
+    public AccessLogReplayTool(JsonSchemaConfig jsonSchemaConfig, int parallelism) {
+        this.validationService = new JsonSchemaValidationService();
+        this.validationService.setJsonSchemaConfig(jsonSchemaConfig);
+        this.validationService.setObjectMapper(new ObjectMapper());
+        this.validationService.setValidationLogger(new JsonSchemaValidationLogger(jsonSchemaConfig.getLogIntervalMillis()));
+        // 回放用于评估完整验证的结果和耗时，不做自适应降级
+        jsonSchemaConfig.getLoadShedding().setEnabled(false);
+        this.validationService.setLoadSheddingController(new LoadSheddingController(jsonSchemaConfig, new SimpleMeterRegistry()));
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseArgs(args);
+        String logFile = options.get("log");
+        String recording = options.get("recording");
+        if (logFile == null && recording == null) {
+            System.err.println("Usage: AccessLogReplayTool --log=<access log> | --recording=<recording file or directory> "
+                    + "[--config=<application.yml>] [--top=20] [--parallelism=N]");
+            System.exit(1);
+            return;
+        }
+        int top = Integer.parseInt(options.getOrDefault("top", "20"));
+        int parallelism = Integer.parseInt(options.getOrDefault("parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        JsonSchemaConfig jsonSchemaConfig = loadConfig(options.get("config"));
+        AccessLogReplayTool tool = new AccessLogReplayTool(jsonSchemaConfig, parallelism);
+        try {
+            long begin = System.nanoTime();
+            ReplayReport report = recording != null ? tool.replayRecording(Paths.get(recording)) : tool.replay(Paths.get(logFile));
+            report.print(System.out, top, System.nanoTime() - begin);
+        } finally {
+            tool.shutdown();
+        }
+    }
+
+    /**
+     * 从 YAML 文件中加载并初始化 json-schema 配置
+     *
+     * @param configFile YAML 文件路径，为 null 时使用 classpath 中的 application.yml
+     * @return 初始化后的配置
+     * @throws IOException 读取配置文件失败时抛出
+     */
+    public static JsonSchemaConfig loadConfig(String configFile) throws IOException {
+        Resource resource = configFile == null ? new ClassPathResource("application.yml") : new FileSystemResource(configFile);
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader().load(resource.getDescription(), resource);
+        JsonSchemaConfig jsonSchemaConfig = new JsonSchemaConfig();
+        new Binder(ConfigurationPropertySources.from(sources)).bind("json-schema", Bindable.ofInstance(jsonSchemaConfig));
+        jsonSchemaConfig.init();
+        return jsonSchemaConfig;
+    }
+
+    /**
+     * 回放访问日志。文件按不超过 2GB 的窗口进行内存映射，每个窗口在最后一个换行符处截断，
+     * 窗口内部由 fork-join 任务按行边界拆分并行处理。
+     *
+     * @param logFile 访问日志文件
+     * @return 统计结果
+     * @throws IOException 读取日志失败时抛出
+     */
+    public ReplayReport replay(Path logFile) throws IOException {
+        ReplayReport report = new ReplayReport();
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(MAX_MAPPING_SIZE, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = (int) length;
+                if (position + length < size) {
+                    while (end > 0 && buffer.get(end - 1) != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        throw new IOException("Log line longer than " + MAX_MAPPING_SIZE + " bytes at offset " + position);
+                    }
+                }
+                report.merge(pool.invoke(new ReplayTask(buffer, 0, end, validationService,
+                        validationService.getJsonSchemaConfig().getRouteTable())));
+                position += end;
+            }
+        }
+        return report;
+    }
+
+    /**
+     * 回放录制文件或录制目录中的所有录制文件，按当前配置重新验证每个录制的请求
+     *
+     * @param recording 录制文件或目录
+     * @return 统计结果，包含验证结果与录制时不同的请求数
+     * @throws IOException 读取录制文件失败时抛出
+     */
+    public ReplayReport replayRecording(Path recording) throws IOException {
+        List<RecordedRequest> requests = TrafficRecordFormat.read(recording);
+        return pool.invoke(new RecordingReplayTask(requests, 0, requests.size(), validationService,
+                validationService.getJsonSchemaConfig().getRouteTable()));
+    }
+
+    /**
+     * 关闭 fork-join 线程池
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (!options.containsKey("log")) {
+                options.put("log", arg);
+            }
+        }
+        return options;
+    }
+}
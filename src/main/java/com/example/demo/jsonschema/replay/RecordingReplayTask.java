@@ -0,0 +1,81 @@
+package com.example.demo.jsonschema.replay;
+
+import com.example.demo.jsonschema.JsonSchemaValidationException;
+import com.example.demo.jsonschema.JsonSchemaValidationService;
+import com.example.demo.jsonschema.RecordedRequest;
+import com.example.demo.jsonschema.RouteMatch;
+import com.example.demo.jsonschema.RouteTable;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 回放录制文件中一段请求的 fork-join 任务。
+ * <p>
+ * 录制的请求已经包含解码后的参数和路径变量，回放时按当前配置重新匹配路由并验证，
+ * 统计方式与访问日志回放相同，并额外统计验证结果与录制时不同的请求数。
+ */
+class RecordingReplayTask extends RecursiveTask<ReplayReport> {
+
+    /**
+     * 单个任务顺序处理的最大请求数
+     */
+    static final int SPLIT_THRESHOLD = 4096;
+
+    private final List<RecordedRequest> requests;
+    private final int from;
+    private final int to;
+    private final JsonSchemaValidationService validationService;
+    private final RouteTable routeTable;
+
+    RecordingReplayTask(List<RecordedRequest> requests, int from, int to, JsonSchemaValidationService validationService,
+                        RouteTable routeTable) {
+        this.requests = requests;
+        this.from = from;
+        this.to = to;
+        this.validationService = validationService;
+        this.routeTable = routeTable;
+    }
+
+    @Override
+    protected ReplayReport compute() {
+        if (to - from > SPLIT_THRESHOLD) {
+            int mid = from + (to - from) / 2;
+            RecordingReplayTask left = new RecordingReplayTask(requests, from, mid, validationService, routeTable);
+            left.fork();
+            ReplayReport right = new RecordingReplayTask(requests, mid, to, validationService, routeTable).compute();
+            return right.merge(left.join());
+        }
+        ReplayReport report = new ReplayReport();
+        for (int i = from; i < to; i++) {
+            replay(requests.get(i), report);
+        }
+        return report;
+    }
+
+    private void replay(RecordedRequest request, ReplayReport report) {
+        report.addLine();
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        if (method == null || request.getUri() == null) {
+            report.addMalformed();
+            return;
+        }
+        RouteMatch routeMatch = routeTable.resolve(method, request.getUri());
+        if (routeMatch == null || routeTable.isExcluded(request.getUri())) {
+            report.addUnmatched();
+            return;
+        }
+        String route = method.name() + " " + routeMatch.getRoute().getUriTemplate();
+
+        long begin = System.nanoTime();
+        try {
+            validationService.validate(method.name(), request.getUri(), request.getParams());
+            report.addPass(route, System.nanoTime() - begin);
+            report.addRecorded(request.isFailed());
+        } catch (JsonSchemaValidationException e) {
+            report.addFail(route, System.nanoTime() - begin, e.getErrors());
+            report.addRecorded(!request.isFailed());
+        }
+    }
+}
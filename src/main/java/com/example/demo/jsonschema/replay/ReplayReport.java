@@ -0,0 +1,172 @@
+package com.example.demo.jsonschema.replay;
+
+import com.example.demo.jsonschema.JsonSchemaValidationError;
+import lombok.Getter;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 访问日志回放的统计结果。
+ * <p>
+ * 每个 fork-join 子任务持有独立的 ReplayReport，结束后再逐级合并，统计过程中不需要任何同步。
+ */
+@Getter
+public class ReplayReport {
+
+    /**
+     * 读取的日志行数（不含空行和注释行）
+     */
+    private long lines;
+
+    /**
+     * 无法解析的日志行数
+     */
+    private long malformed;
+
+    /**
+     * 没有匹配到任何路由的请求数
+     */
+    private long unmatched;
+
+    /**
+     * 从录制文件回放的请求数
+     */
+    private long recorded;
+
+    /**
+     * 从录制文件回放时，验证结果与录制时不同的请求数
+     */
+    private long changed;
+
+    /**
+     * 路由（"METHOD 模板"）到统计数据的映射
+     */
+    private final Map<String, RouteStats> routes = new HashMap<>();
+
+    /**
+     * 违规项（"METHOD 模板 属性 关键字"）到出现次数的映射
+     */
+    private final Map<String, Long> violations = new HashMap<>();
+
+    void addLine() {
+        lines++;
+    }
+
+    void addMalformed() {
+        malformed++;
+    }
+
+    void addUnmatched() {
+        unmatched++;
+    }
+
+    void addRecorded(boolean changedOutcome) {
+        recorded++;
+        if (changedOutcome) {
+            changed++;
+        }
+    }
+
+    void addPass(String route, long nanos) {
+        routes.computeIfAbsent(route, key -> new RouteStats()).record(true, nanos);
+    }
+
+    void addFail(String route, long nanos, List<JsonSchemaValidationError> errors) {
+        routes.computeIfAbsent(route, key -> new RouteStats()).record(false, nanos);
+        for (JsonSchemaValidationError error : errors) {
+            violations.merge(route + " " + error.getProperty() + " " + error.getKeyword(), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * 合并另一个子任务的统计结果
+     *
+     * @param other 子任务的统计结果
+     * @return 当前对象
+     */
+    ReplayReport merge(ReplayReport other) {
+        lines += other.lines;
+        malformed += other.malformed;
+        unmatched += other.unmatched;
+        recorded += other.recorded;
+        changed += other.changed;
+        for (Map.Entry<String, RouteStats> entry : other.routes.entrySet()) {
+            routes.computeIfAbsent(entry.getKey(), key -> new RouteStats()).merge(entry.getValue());
+        }
+        for (Map.Entry<String, Long> entry : other.violations.entrySet()) {
+            violations.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+        return this;
+    }
+
+    /**
+     * 出现次数最多的违规项
+     *
+     * @param limit 返回的数量上限
+     * @return 按出现次数降序排列的违规项
+     */
+    public List<Map.Entry<String, Long>> topViolations(int limit) {
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(violations.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()));
+        return sorted.subList(0, Math.min(limit, sorted.size()));
+    }
+
+    /**
+     * 以文本表格的形式输出统计结果
+     *
+     * @param out          输出流
+     * @param topN         输出的违规项数量
+     * @param elapsedNanos 回放总耗时
+     */
+    public void print(PrintStream out, int topN, long elapsedNanos) {
+        out.printf("lines=%d malformed=%d unmatched=%d elapsed=%.1fms (%.0f lines/s)%n",
+                lines, malformed, unmatched, elapsedNanos / 1e6, lines / Math.max(elapsedNanos / 1e9, 1e-9));
+        if (recorded > 0) {
+            out.printf("recorded=%d changed=%d (outcome differs from recording)%n", recorded, changed);
+        }
+        out.println();
+        out.printf("%-60s %10s %10s %8s %12s%n", "route", "pass", "fail", "fail%", "avg(us)");
+        for (Map.Entry<String, RouteStats> entry : new TreeMap<>(routes).entrySet()) {
+            RouteStats stats = entry.getValue();
+            long total = stats.getPass() + stats.getFail();
+            out.printf("%-60s %10d %10d %7.2f%% %12.1f%n", entry.getKey(), stats.getPass(), stats.getFail(),
+                    100.0 * stats.getFail() / total, stats.getNanos() / 1e3 / total);
+        }
+        out.println();
+        out.printf("top %d violations:%n", topN);
+        for (Map.Entry<String, Long> entry : topViolations(topN)) {
+            out.printf("%10d  %s%n", entry.getValue(), entry.getKey());
+        }
+    }
+
+    /**
+     * 单个路由的统计数据
+     */
+    @Getter
+    public static class RouteStats {
+        private long pass;
+        private long fail;
+        private long nanos;
+
+        private void record(boolean passed, long elapsedNanos) {
+            if (passed) {
+                pass++;
+            } else {
+                fail++;
+            }
+            nanos += elapsedNanos;
+        }
+
+        private void merge(RouteStats other) {
+            pass += other.pass;
+            fail += other.fail;
+            nanos += other.nanos;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.jsonschema.replay;
+
+import com.example.demo.jsonschema.JsonSchemaValidationException;
+import com.example.demo.jsonschema.JsonSchemaValidationService;
+import com.example.demo.jsonschema.RouteMatch;
+import com.example.demo.jsonschema.RouteTable;
+import org.springframework.http.HttpMethod;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 对内存映射日志中的一段字节区间进行回放的 fork-join 任务。
+ * <p>
+ * 区间大于阈值时在中点之后的第一个换行符处一分为二，保证每个子任务处理的都是完整的日志行。
+ * 日志行格式为 {@code METHOD URI[?QUERY]} 或 {@code METHOD URI QUERY}，字段之间以空白分隔，
+ * 空行和以 # 开头的行会被忽略。
+ */
+class ReplayTask extends RecursiveTask<ReplayReport> {
+
+    /**
+     * 单个任务顺序处理的最大字节数
+     */
+    static final int SPLIT_THRESHOLD = 1 << 20;
+
+    private final ByteBuffer buffer;
+    private final int from;
+    private final int to;
+    private final JsonSchemaValidationService validationService;
+    private final RouteTable routeTable;
+
+    ReplayTask(ByteBuffer buffer, int from, int to, JsonSchemaValidationService validationService, RouteTable routeTable) {
+        this.buffer = buffer;
+        this.from = from;
+        this.to = to;
+        this.validationService = validationService;
+        this.routeTable = routeTable;
+    }
+
+    @Override
+    protected ReplayReport compute() {
+        if (to - from > SPLIT_THRESHOLD) {
+            int mid = nextLineStart(from + (to - from) / 2);
+            if (mid < to) {
+                ReplayTask left = new ReplayTask(buffer, from, mid, validationService, routeTable);
+                left.fork();
+                ReplayReport right = new ReplayTask(buffer, mid, to, validationService, routeTable).compute();
+                return right.merge(left.join());
+            }
+        }
+        return replayRange();
+    }
+
+    private int nextLineStart(int position) {
+        while (position < to && buffer.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, to);
+    }
+
+    private ReplayReport replayRange() {
+        ReplayReport report = new ReplayReport();
+        ByteBuffer view = buffer.duplicate();
+        byte[] line = new byte[256];
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || view.get(i) == '\n') {
+                int length = i - start;
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                view.position(start);
+                view.get(line, 0, length);
+                replayLine(new String(line, 0, length, StandardCharsets.UTF_8).trim(), report);
+                start = i + 1;
+            }
+        }
+        return report;
+    }
+
+    private void replayLine(String line, ReplayReport report) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+            return;
+        }
+        report.addLine();
+
+        String[] fields = line.split("\\s+");
+        if (fields.length < 2) {
+            report.addMalformed();
+            return;
+        }
+        HttpMethod method = HttpMethod.resolve(fields[0].toUpperCase());
+        String uri = fields[1];
+        String query = fields.length > 2 ? fields[2] : null;
+        int queryStart = uri.indexOf('?');
+        if (queryStart >= 0) {
+            query = uri.substring(queryStart + 1);
+            uri = uri.substring(0, queryStart);
+        }
+        if (method == null) {
+            report.addMalformed();
+            return;
+        }
+
+        RouteMatch routeMatch = routeTable.resolve(method, uri);
+        if (routeMatch == null || routeTable.isExcluded(uri)) {
+            report.addUnmatched();
+            return;
+        }
+        String route = method.name() + " " + routeMatch.getRoute().getUriTemplate();
+
+        Map<String, Object> params;
+        try {
+            params = parseQuery(query);
+        } catch (IllegalArgumentException | UnsupportedEncodingException e) {
+            report.addMalformed();
+            return;
+        }
+
+        long begin = System.nanoTime();
+        try {
+            validationService.validate(method.name(), uri, params);
+            report.addPass(route, System.nanoTime() - begin);
+        } catch (JsonSchemaValidationException e) {
+            report.addFail(route, System.nanoTime() - begin, e.getErrors());
+        }
+    }
+
+    /**
+     * 解析查询字符串，同名参数只保留第一个值，与 HttpServletRequest#getParameterMap 取首个值的行为一致
+     */
+    static Map<String, Object> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, Object> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            params.putIfAbsent(name, value);
+        }
+        return params;
+    }
+}
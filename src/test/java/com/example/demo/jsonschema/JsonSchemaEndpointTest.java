@@ -0,0 +1,65 @@
+package com.example.demo.jsonschema;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class JsonSchemaEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testEndpointExposesRoutesAndStats() throws Exception {
+        mockMvc.perform(get("/api/users").param("pageNum", "1").param("pageSize", "10"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/jsonschema"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshot.version").value("application"))
+                .andExpect(jsonPath("$.snapshot.routeCount").value(2))
+                .andExpect(jsonPath("$.routes[*].uriTemplate").value(hasItem("/api/users")))
+                .andExpect(jsonPath("$.routes[?(@.uriTemplate == '/api/users')].validations").value(hasItem(greaterThanOrEqualTo(1))))
+                .andExpect(jsonPath("$.caches.compiledSchemas.size").value(2))
+                .andExpect(jsonPath("$.loadShedding").value("NONE"));
+    }
+
+    /**
+     * 启用多租户后，租户路由表的统计独立于全局路由表
+     */
+    @Nested
+    @TestPropertySource(properties = {
+            "json-schema.tenancy.enabled=true",
+            "json-schema.tenancy.tenants.partner-a[0].uri=/api/users",
+            "json-schema.tenancy.tenants.partner-a[0].schema={\"type\":\"object\",\"properties\":{\"pageNum\":{\"type\":\"string\",\"pattern\":\"^[0-9]+$\"}}}"
+    })
+    class Tenancy {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Test
+        void testEndpointExposesTenantRouteStats() throws Exception {
+            mockMvc.perform(get("/api/users").header("X-Tenant-Id", "partner-a").param("pageNum", "1").param("pageSize", "10"))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/actuator/jsonschema"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.tenants.partner-a.routeCount").value(2))
+                    .andExpect(jsonPath("$.tenants.partner-a.routes[?(@.uriTemplate == '/api/users')].validations").value(hasItem(1)))
+                    .andExpect(jsonPath("$.routes[?(@.uriTemplate == '/api/users')].validations").value(hasItem(0)));
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.jsonschema;
+
+import com.example.demo.config.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * JsonSchemaValidationInterceptor 的并发负载与压力测试。
+ * <p>
+ * 使用生成的路由集合（默认 1000 个 URI 模板）和有效/无效混合的流量，通过 MockMvc 从多个线程驱动拦截器，
+ * 校验并发下的验证结果是否正确，并输出随线程数增长的吞吐量和 p99 延迟。
+ * <p>
+ * 可通过系统属性调整规模，例如：
+ * <pre>
+ * mvn test -Dtest=JsonSchemaValidationConcurrencyTest -Dstress.routes=10000 -Dstress.requests=20000 -Dstress.threads=1,2,4,8,16
+ * </pre>
+ * 设置 stress.minScaling（例如 0.8）后，会断言最大线程数下的吞吐量不低于单线程吞吐量的该倍数。
+ */
+@Slf4j
+class JsonSchemaValidationConcurrencyTest {
+
+    private static final int ROUTES = Integer.getInteger("stress.routes", 1000);
+    private static final int REQUESTS = Integer.getInteger("stress.requests", 2000);
+    private static final int[] THREADS = parseThreads(System.getProperty("stress.threads", "1,2,4,8"));
+
+    private static final String ROUTE_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"itemId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\",\"UNKNOWN\"]}"
+            + "},"
+            + "\"required\":[\"itemId\"],"
+            + "\"errorMessages\":{\"itemId\":\"itemId 必须为正整数\"}"
+            + "}";
+
+    private static final String LITERAL_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{\"pageNum\":{\"type\":\"string\",\"pattern\":\"^[0-9]+$\"}},"
+            + "\"required\":[\"pageNum\"]"
+            + "}";
+
+    private static MockMvc mockMvc;
+
+    private static JsonSchemaValidationService service;
+
+    @BeforeAll
+    static void setUp() {
+        List<JsonSchemaConfig.SchemaConfig> schemas = new ArrayList<>(ROUTES);
+        for (int i = 0; i < ROUTES; i++) {
+            JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+            if (i % 4 == 0) {
+                schemaConfig.setUri("/api/literal" + i + "/list");
+                schemaConfig.setSchema(LITERAL_SCHEMA);
+            } else {
+                schemaConfig.setUri("/api/route" + i + "/items/{itemId}");
+                schemaConfig.setSchema(ROUTE_SCHEMA);
+            }
+            schemas.add(schemaConfig);
+        }
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(schemas);
+        config.init();
+
+        JsonSchemaValidationLogger validationLogger = new JsonSchemaValidationLogger(config.getLogIntervalMillis());
+        service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(validationLogger);
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+
+        JsonSchemaValidationInterceptor interceptor = new JsonSchemaValidationInterceptor();
+        interceptor.setJsonSchemaValidationService(service);
+        interceptor.setValidationLogger(validationLogger);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testMixedTrafficUnderContention() throws Exception {
+        List<String> report = new ArrayList<>();
+        report.add(String.format("routes=%d requests=%d", ROUTES, REQUESTS));
+        report.add(String.format("%8s %12s %12s %12s", "threads", "req/s", "p50(us)", "p99(us)"));
+
+        // 预热，避免首轮结果受类加载和 JIT 编译影响
+        runLoad(THREADS[THREADS.length - 1], Math.min(REQUESTS, 1000));
+
+        double baseline = 0;
+        double last = 0;
+        for (int threads : THREADS) {
+            LoadResult result = runLoad(threads, REQUESTS);
+            assertEquals(0, result.mismatches, "mismatched responses with " + threads + " threads: " + result.firstMismatch);
+
+            double throughput = REQUESTS / (result.elapsedNanos / 1e9);
+            if (baseline == 0) {
+                baseline = throughput;
+            }
+            last = throughput;
+            report.add(String.format("%8d %12.0f %12.1f %12.1f", threads, throughput,
+                    result.percentile(0.50) / 1e3, result.percentile(0.99) / 1e3));
+        }
+        log.info("Throughput and latency by thread count:\n{}", String.join("\n", report));
+
+        String minScaling = System.getProperty("stress.minScaling");
+        if (minScaling != null) {
+            assertTrue(last >= baseline * Double.parseDouble(minScaling),
+                    String.format("throughput %.0f req/s at max threads is below %s x single-thread %.0f req/s", last, minScaling, baseline));
+        }
+    }
+
+    @Test
+    void testCallerParamsAreNotMutated() throws Exception {
+        Map<String, Object> shared = Collections.unmodifiableMap(new HashMap<>(Collections.singletonMap("status", "YES")));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        service.validate("GET", "/api/route" + (4 * i + 1 + offset) % ROUTES + "/items/" + (i + 1), shared);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(Collections.singletonMap("status", "YES"), shared);
+    }
+
+    /**
+     * 以给定线程数发送固定数量的混合请求
+     */
+    private LoadResult runLoad(int threads, int requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LoadResult>> futures = new ArrayList<>(threads);
+        int perThread = requests / threads;
+        for (int t = 0; t < threads; t++) {
+            final long seed = 31L * t + requests;
+            final int count = t == threads - 1 ? requests - perThread * (threads - 1) : perThread;
+            Callable<LoadResult> worker = () -> {
+                start.await();
+                return drive(new Random(seed), count);
+            };
+            futures.add(executor.submit(worker));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        LoadResult total = new LoadResult(requests);
+        for (Future<LoadResult> future : futures) {
+            total.merge(future.get(10, TimeUnit.MINUTES));
+        }
+        total.elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        return total;
+    }
+
+    /**
+     * 单个线程发送请求，并校验响应状态码和错误体
+     */
+    private LoadResult drive(Random random, int count) throws Exception {
+        LoadResult result = new LoadResult(count);
+        for (int i = 0; i < count; i++) {
+            int route = random.nextInt(ROUTES);
+            boolean valid = random.nextBoolean();
+            String uri;
+            String expectedProperty;
+            if (route % 4 == 0) {
+                uri = "/api/literal" + route + "/list" + (valid ? "?pageNum=" + (i + 1) : "?pageNum=x" + i);
+                expectedProperty = "pageNum";
+            } else {
+                uri = "/api/route" + route + "/items/" + (valid ? String.valueOf(i + 1) : "i" + i) + "?status=YES";
+                expectedProperty = "itemId";
+            }
+
+            long begin = System.nanoTime();
+            MockHttpServletResponse response = mockMvc.perform(get(uri)).andReturn().getResponse();
+            result.record(System.nanoTime() - begin);
+
+            int expectedStatus = valid ? 200 : 400;
+            boolean matches = response.getStatus() == expectedStatus
+                    && (valid || response.getContentAsString().contains("\"property\":\"" + expectedProperty + "\""));
+            if (!matches) {
+                result.mismatches++;
+                if (result.firstMismatch == null) {
+                    result.firstMismatch = uri + " -> " + response.getStatus() + " " + response.getContentAsString();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] parseThreads(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * 一轮负载的结果
+     */
+    private static final class LoadResult {
+        private final long[] latencies;
+        private int size;
+        private int mismatches;
+        private String firstMismatch;
+        private long elapsedNanos;
+
+        private LoadResult(int capacity) {
+            this.latencies = new long[capacity];
+        }
+
+        private void record(long latencyNanos) {
+            latencies[size++] = latencyNanos;
+        }
+
+        private void merge(LoadResult other) {
+            System.arraycopy(other.latencies, 0, latencies, size, other.size);
+            size += other.size;
+            mismatches += other.mismatches;
+            if (firstMismatch == null) {
+                firstMismatch = other.firstMismatch;
+            }
+        }
+
+        private double percentile(double p) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(p * size) - 1))];
+        }
+    }
+
+    @RestController
+    static class EchoController {
+
+        @GetMapping("/**")
+        public ResponseEntity<String> echo() {
+            return ResponseEntity.ok("OK");
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.demo.jsonschema;
+
+import com.example.demo.config.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * JsonSchemaValidationFilter 的行为测试，以及与拦截器模式的吞吐量对比。
+ * <p>
+ * 吞吐量对比使用生成的路由集合和以无效请求为主的流量，分别通过拦截器模式和过滤器模式的 MockMvc 发送相同的请求序列，
+ * 输出两种模式的吞吐量和提升倍数。可通过系统属性调整规模，例如：
+ * <pre>
+ * mvn test -Dtest=JsonSchemaValidationFilterTest -Dbench.routes=1000 -Dbench.requests=50000 -Dbench.invalidRatio=0.9
+ * </pre>
+ * 设置 bench.minSpeedup（例如 1.2）后，会断言过滤器模式的吞吐量不低于拦截器模式的该倍数。
+ */
+@Slf4j
+class JsonSchemaValidationFilterTest {
+
+    private static final int ROUTES = Integer.getInteger("bench.routes", 200);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 5000);
+    private static final double INVALID_RATIO = Double.parseDouble(System.getProperty("bench.invalidRatio", "0.9"));
+
+    private static final String ROUTE_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"itemId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}"
+            + "},"
+            + "\"required\":[\"itemId\"],"
+            + "\"errorMessages\":{\"itemId\":\"itemId 必须为正整数\"}"
+            + "}";
+
+    @Test
+    void testFilterRejectsBeforeDispatcherWithSameBody() throws Exception {
+        EchoController filterController = new EchoController();
+        MockMvc interceptorMode = mockMvc(JsonSchemaConfig.ValidationMode.INTERCEPTOR, 2, new EchoController());
+        MockMvc filterMode = mockMvc(JsonSchemaConfig.ValidationMode.FILTER, 2, filterController);
+
+        MockHttpServletResponse expected = interceptorMode.perform(get("/api/route1/items/x1?status=MAYBE")).andReturn().getResponse();
+        MockHttpServletResponse actual = filterMode.perform(get("/api/route1/items/x1?status=MAYBE")).andReturn().getResponse();
+        assertEquals(400, actual.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, actual.getContentType());
+        assertArrayEquals(expected.getContentAsByteArray(), actual.getContentAsByteArray());
+        assertEquals(0, filterController.calls.get());
+
+        assertEquals(200, filterMode.perform(get("/api/route1/items/7?status=YES")).andReturn().getResponse().getStatus());
+        assertEquals(200, filterMode.perform(get("/unconfigured")).andReturn().getResponse().getStatus());
+        assertEquals(2, filterController.calls.get());
+    }
+
+    @Test
+    void testFilterValidatesCachedRequestBody() throws Exception {
+        MockMvc filterMode = mockMvc(JsonSchemaConfig.ValidationMode.FILTER, 2, new EchoController());
+
+        MockHttpServletResponse response = filterMode.perform(post("/api/route1/items/7")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"MAYBE\"}")).andReturn().getResponse();
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"property\":\"status\""));
+
+        assertEquals(200, filterMode.perform(post("/api/route1/items/7")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"NO\"}")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void testThroughputOnInvalidHeavyTraffic() throws Exception {
+        MockMvc interceptorMode = mockMvc(JsonSchemaConfig.ValidationMode.INTERCEPTOR, ROUTES, new EchoController());
+        MockMvc filterMode = mockMvc(JsonSchemaConfig.ValidationMode.FILTER, ROUTES, new EchoController());
+        List<String> uris = traffic(new Random(42), REQUESTS);
+
+        // 预热，避免首轮结果受类加载和 JIT 编译影响，随后交替执行两轮取较好的一轮
+        drive(interceptorMode, uris);
+        drive(filterMode, uris);
+        long interceptorNanos = Long.MAX_VALUE;
+        long filterNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 2; round++) {
+            interceptorNanos = Math.min(interceptorNanos, drive(interceptorMode, uris));
+            filterNanos = Math.min(filterNanos, drive(filterMode, uris));
+        }
+
+        double interceptorThroughput = REQUESTS / (interceptorNanos / 1e9);
+        double filterThroughput = REQUESTS / (filterNanos / 1e9);
+        log.info(String.format("Interceptor versus filter mode:%nroutes=%d requests=%d invalidRatio=%.2f%n%12s %12s%n%12s %12.0f%n%12s %12.0f%nspeedup=%.2fx",
+                ROUTES, REQUESTS, INVALID_RATIO, "mode", "req/s", "interceptor", interceptorThroughput,
+                "filter", filterThroughput, filterThroughput / interceptorThroughput));
+
+        String minSpeedup = System.getProperty("bench.minSpeedup");
+        if (minSpeedup != null) {
+            assertTrue(filterThroughput >= interceptorThroughput * Double.parseDouble(minSpeedup),
+                    String.format("filter mode %.0f req/s is below %s x interceptor mode %.0f req/s",
+                            filterThroughput, minSpeedup, interceptorThroughput));
+        }
+    }
+
+    /**
+     * 生成以无效请求为主的请求序列
+     */
+    private static List<String> traffic(Random random, int count) {
+        List<String> uris = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int route = random.nextInt(ROUTES);
+            boolean invalid = random.nextDouble() < INVALID_RATIO;
+            uris.add("/api/route" + route + "/items/" + (invalid ? "i" + i : String.valueOf(i + 1)) + "?status=YES");
+        }
+        return uris;
+    }
+
+    /**
+     * 顺序发送请求并校验状态码，返回耗时
+     */
+    private static long drive(MockMvc mockMvc, List<String> uris) throws Exception {
+        long begin = System.nanoTime();
+        for (String uri : uris) {
+            int status = mockMvc.perform(get(uri)).andReturn().getResponse().getStatus();
+            int expected = uri.contains("/items/i") ? 400 : 200;
+            if (status != expected) {
+                throw new AssertionError(uri + " -> " + status);
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private static MockMvc mockMvc(JsonSchemaConfig.ValidationMode mode, int routes, EchoController controller) {
+        List<JsonSchemaConfig.SchemaConfig> schemas = new ArrayList<>(routes);
+        for (int i = 0; i < routes; i++) {
+            JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+            schemaConfig.setUri("/api/route" + i + "/items/{itemId}");
+            schemaConfig.setSchema(ROUTE_SCHEMA);
+            schemas.add(schemaConfig);
+        }
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setMode(mode);
+        config.setIncludeMethods(Arrays.asList("GET", "POST"));
+        config.getRequestBody().setEnabled(true);
+        config.setSchemas(schemas);
+        config.init();
+
+        JsonSchemaValidationLogger validationLogger = new JsonSchemaValidationLogger(config.getLogIntervalMillis());
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(validationLogger);
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+
+        JsonSchemaValidationInterceptor interceptor = new JsonSchemaValidationInterceptor();
+        interceptor.setJsonSchemaValidationService(service);
+        interceptor.setValidationLogger(validationLogger);
+
+        JsonSchemaRequestBodyFilter bodyFilter = new JsonSchemaRequestBodyFilter();
+        bodyFilter.setJsonSchemaConfig(config);
+        bodyFilter.setJsonSchemaValidationService(service);
+
+        JsonSchemaValidationFilter validationFilter = new JsonSchemaValidationFilter();
+        validationFilter.setJsonSchemaConfig(config);
+        validationFilter.setJsonSchemaValidationService(service);
+
+        return MockMvcBuilders.standaloneSetup(controller)
+                .addFilters(bodyFilter, validationFilter)
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @RestController
+    static class EchoController {
+
+        private final AtomicLong calls = new AtomicLong();
+
+        @RequestMapping("/**")
+        public ResponseEntity<String> echo() {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("OK");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.jsonschema;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSchemaValidationLoggerTest {
+
+    @Test
+    void testSameEventIsEmittedOncePerInterval() {
+        JsonSchemaValidationLogger logger = new JsonSchemaValidationLogger(60_000L);
+        assertEquals("", logger.acquire("/api/users", "no-schema"));
+        assertNull(logger.acquire("/api/users", "no-schema"));
+        assertNull(logger.acquire("/api/users", "no-schema"));
+
+        // 不同的路由或原因互不影响
+        assertEquals("", logger.acquire("/api/orders", "no-schema"));
+        assertEquals("", logger.acquire("/api/users", "validation-failed"));
+    }
+
+    @Test
+    void testSuppressedCountIsReported() throws InterruptedException {
+        JsonSchemaValidationLogger logger = new JsonSchemaValidationLogger(50L);
+        assertEquals("", logger.acquire("/api/users", "no-schema"));
+        assertNull(logger.acquire("/api/users", "no-schema"));
+        assertNull(logger.acquire("/api/users", "no-schema"));
+
+        Thread.sleep(80L);
+        assertEquals(" (suppressed 2 similar events)", logger.acquire("/api/users", "no-schema"));
+    }
+
+    @Test
+    void testConcurrentEventsEmitOnlyOnce() throws InterruptedException {
+        JsonSchemaValidationLogger logger = new JsonSchemaValidationLogger(60_000L);
+        int threads = 8;
+        AtomicInteger emitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < 10_000; j++) {
+                        if (logger.acquire("/api/users", "no-schema") != null) {
+                            emitted.incrementAndGet();
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(1, emitted.get());
+    }
+
+    @Test
+    void testSuppressedCountIsFlushedAfterBurstStops() throws InterruptedException {
+        JsonSchemaValidationLogger logger = new JsonSchemaValidationLogger(50L);
+        assertEquals("", logger.acquire("GET", "no-schema"));
+        assertNull(logger.acquire("GET", "no-schema"));
+        assertNull(logger.acquire("GET", "no-schema"));
+
+        // 时间间隔尚未结束时不输出
+        assertEquals(0, logger.flush(false));
+        Thread.sleep(80L);
+        assertEquals(1, logger.flush(false));
+        assertEquals(0, logger.flush(false));
+
+        // 已报告的次数不再附加到下一次输出的日志中
+        assertEquals("", logger.acquire("GET", "no-schema"));
+    }
+
+    @Test
+    void testShutdownFlushesPendingSuppressedCounts() {
+        JsonSchemaValidationLogger logger = new JsonSchemaValidationLogger(60_000L);
+        logger.acquire("GET", "no-schema");
+        logger.acquire("GET", "no-schema");
+        logger.acquire("POST", "no-schema");
+
+        assertEquals(1, logger.flush(true));
+        assertEquals(0, logger.flush(true));
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.demo.jsonschema;
+
+import com.example.demo.config.GlobalExceptionHandler;
+import com.example.demo.jsonschema.jfr.ValidationPhases;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonSchemaValidationServiceTest {
+
+    private static final String ORDER_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"orderId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}"
+            + "},"
+            + "\"required\":[\"userId\",\"orderId\"],"
+            + "\"errorMessages\":{\"userId\":\"userId 必须为正整数\"}"
+            + "}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonSchemaValidationService service;
+
+    @BeforeEach
+    void setUp() {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}/orders/{orderId}");
+        schemaConfig.setSchema(ORDER_SCHEMA);
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.init();
+
+        service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(objectMapper);
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testValidRequestPasses() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", "YES");
+        assertDoesNotThrow(() -> service.validate("GET", "/api/users/1/orders/2", params));
+    }
+
+    @Test
+    void testStructuredErrorBody() throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", "MAYBE");
+        JsonSchemaValidationException e = assertThrows(JsonSchemaValidationException.class,
+                () -> service.validate("GET", "/api/users/u1/orders/2", params));
+
+        assertEquals(2, e.getErrors().size());
+        JsonNode body = objectMapper.readTree(JsonSchemaErrorRenderer.renderBody(e.getErrors()));
+        assertEquals(400, body.get("status").asInt());
+        assertEquals(2, body.get("errors").size());
+
+        Map<String, JsonNode> byProperty = new HashMap<>();
+        for (JsonNode error : body.get("errors")) {
+            byProperty.put(error.get("property").asText(), error);
+        }
+        assertEquals("pattern", byProperty.get("userId").get("keyword").asText());
+        assertTrue(byProperty.get("userId").get("message").asText().contains("userId 必须为正整数"));
+        assertEquals("enum", byProperty.get("status").get("keyword").asText());
+        assertFalse(byProperty.get("status").get("message").asText().isEmpty());
+    }
+
+    @Test
+    void testValidationPhasesEmitFlightRecorderEvents(@TempDir Path dir) throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", "MAYBE");
+        Path file = dir.resolve("validation.jfr");
+        assertTrue(ValidationPhases.isJfrAvailable());
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.demo.jsonschema.RouteResolution");
+            recording.enable("com.example.demo.jsonschema.TreeConstruction");
+            recording.enable("com.example.demo.jsonschema.SchemaEvaluation");
+            recording.enable("com.example.demo.jsonschema.ErrorRendering");
+            recording.start();
+            assertThrows(JsonSchemaValidationException.class, () -> service.validate("GET", "/api/users/u1/orders/2", params));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            events.put(event.getEventType().getName().substring("com.example.demo.jsonschema.".length()), event);
+        }
+        assertEquals(4, events.size(), events.keySet().toString());
+        assertEquals("matched", events.get("RouteResolution").getString("outcome"));
+        RecordedEvent evaluation = events.get("SchemaEvaluation");
+        assertEquals("/api/users/{userId}/orders/{orderId}", evaluation.getString("uriTemplate"));
+        assertEquals("/api/users/u1/orders/2", evaluation.getString("uri"));
+        assertEquals("failed", evaluation.getString("outcome"));
+        assertEquals(2, evaluation.getInt("violationCount"));
+        assertEquals(2, events.get("ErrorRendering").getInt("violationCount"));
+    }
+
+    @Test
+    void testSchemasArePerMethod() {
+        JsonSchemaConfig.SchemaConfig getConfig = new JsonSchemaConfig.SchemaConfig();
+        getConfig.setUri("/api/users/{userId}");
+        getConfig.setSchema("{\"type\":\"object\",\"required\":[\"status\"]}");
+        JsonSchemaConfig.SchemaConfig postConfig = new JsonSchemaConfig.SchemaConfig();
+        postConfig.setUri("/api/users/{userId}");
+        postConfig.setMethods(Collections.singletonList("POST"));
+        postConfig.setSchema("{\"type\":\"object\",\"required\":[\"name\"]}");
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Arrays.asList(getConfig, postConfig));
+        config.init();
+        service.setJsonSchemaConfig(config);
+
+        assertEquals(2, config.getRouteTable().size());
+        Map<String, Object> params = Collections.singletonMap("status", "YES");
+        assertDoesNotThrow(() -> service.validate("GET", "/api/users/1", params));
+        JsonSchemaValidationException e = assertThrows(JsonSchemaValidationException.class,
+                () -> service.validate("POST", "/api/users/1", params));
+        assertEquals("name", e.getErrors().get(0).getProperty());
+        assertDoesNotThrow(() -> service.validate("DELETE", "/api/users/1", params));
+    }
+
+    @Test
+    void testEmptyErrorListRendersEmptyArray() throws Exception {
+        JsonNode body = objectMapper.readTree(JsonSchemaErrorRenderer.renderBody(Collections.emptyList()));
+        assertEquals(0, body.get("errors").size());
+    }
+
+    @Test
+    void testMessageOnlyExceptionRendersMessage() throws Exception {
+        ResponseEntity<byte[]> response = new GlobalExceptionHandler()
+                .handleJsonSchemaValidationException(new JsonSchemaValidationException("请求参数 \"userId\" 无效"));
+        assertEquals(400, response.getStatusCodeValue());
+        JsonNode errors = objectMapper.readTree(response.getBody()).get("errors");
+        assertEquals(1, errors.size());
+        assertEquals("请求参数 \"userId\" 无效", errors.get(0).get("message").asText());
+        assertTrue(errors.get(0).get("keyword").isNull());
+        assertTrue(errors.get(0).get("property").isNull());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonSchemaWarmUpTest {
+
+    private static final String USER_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"ACTIVE\",\"DISABLED\"]},"
+            + "\"phone\":{\"type\":\"string\",\"pattern\":\"^1[3-9]\\\\d{9}$\"},"
+            + "\"remark\":{\"type\":\"string\"}"
+            + "},"
+            + "\"required\":[\"userId\",\"status\"]"
+            + "}";
+
+    @Test
+    void testPatternSamples() {
+        assertEquals("1", PatternSampler.sample("^[1-9]\\d*$"));
+        assertEquals("13111111111", PatternSampler.sample("^1[3-9]\\d{9}$"));
+        assertEquals("YES", PatternSampler.sample("^(YES|NO)$"));
+        assertEquals("a-1", PatternSampler.sample("^[a-z]+-(?:\\d)+$"));
+        assertNull(PatternSampler.sample("^[^0-9]+$"));
+        assertNull(PatternSampler.sample("(unclosed"));
+
+        assertEquals("!", PatternSampler.mismatch("^[1-9]\\d*$"));
+        assertNull(PatternSampler.mismatch(".*"));
+    }
+
+    @Test
+    void testWarmUpValidatesCompiledRoutesWithoutStats() {
+        JsonSchemaConfig config = config(false);
+        JsonSchemaWarmUp warmUp = warmUp(config, 50);
+
+        JsonSchemaWarmUp.Report report = warmUp.warmUp();
+
+        assertEquals(1, report.getRoutes());
+        assertEquals(1, report.getWarmedRoutes());
+        assertEquals(0, report.getSkippedRoutes());
+        assertEquals(4, report.getProperties());
+        assertEquals(3, report.getHintedProperties());
+        assertEquals(50, report.getCompletedIterations());
+        assertEquals(100, report.getValidations());
+        assertEquals(0, report.getUnexpectedOutcomes());
+        assertFalse(report.isTimedOut());
+        assertNotNull(warmUp.getReport());
+
+        RouteStats stats = config.getRouteTable().getRoutes().get(0).getStats();
+        assertEquals(0, stats.getValidations());
+    }
+
+    @Test
+    void testWarmUpValidatesTenantRouteTables() {
+        JsonSchemaConfig.SchemaConfig tenantSchema = new JsonSchemaConfig.SchemaConfig();
+        tenantSchema.setUri("/api/users/{userId}");
+        tenantSchema.setSchema(USER_SCHEMA.replace("^[1-9]\\\\d*$", "^U[1-9]\\\\d*$"));
+        JsonSchemaConfig config = config(false, tenantSchema);
+
+        JsonSchemaWarmUp.Report report = warmUp(config, 20).warmUp();
+
+        assertEquals(2, report.getRoutes());
+        assertEquals(2, report.getWarmedRoutes());
+        assertEquals(80, report.getValidations());
+        assertEquals(0, report.getUnexpectedOutcomes());
+        assertEquals(0, config.getTenantRouteTable("partner-a").getRoutes().get(0).getStats().getValidations());
+    }
+
+    @Test
+    void testWarmUpSkipsRoutesNotYetCompiled() {
+        JsonSchemaConfig config = config(true);
+        JsonSchemaWarmUp.Report report = warmUp(config, 10).warmUp();
+
+        assertEquals(1, report.getSkippedRoutes());
+        assertEquals(0, report.getValidations());
+        assertTrue(config.getRouteTable().getRoutes().get(0).getSchema().isLazy());
+        assertNull(config.getRouteTable().getRoutes().get(0).getSchema().getIfCompiled());
+    }
+
+    private static JsonSchemaConfig config(boolean lazy) {
+        return config(lazy, null);
+    }
+
+    private static JsonSchemaConfig config(boolean lazy, JsonSchemaConfig.SchemaConfig tenantSchema) {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}");
+        schemaConfig.setSchema(USER_SCHEMA);
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Arrays.asList("GET"));
+        config.getLazyCompilation().setEnabled(lazy);
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        if (tenantSchema != null) {
+            config.getTenancy().setEnabled(true);
+            config.getTenancy().getTenants().put("partner-a", Collections.singletonList(tenantSchema));
+        }
+        config.init();
+        return config;
+    }
+
+    private static JsonSchemaWarmUp warmUp(JsonSchemaConfig config, int iterations) {
+        config.getWarmUp().setEnabled(true);
+        config.getWarmUp().setIterations(iterations);
+
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+
+        JsonSchemaWarmUp warmUp = new JsonSchemaWarmUp();
+        warmUp.setJsonSchemaConfig(config);
+        warmUp.setJsonSchemaValidationService(service);
+        return warmUp;
+    }
+}
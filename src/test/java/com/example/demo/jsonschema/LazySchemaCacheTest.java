@@ -0,0 +1,134 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazySchemaCacheTest {
+
+    private static final JsonSchemaFactory FACTORY = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7);
+
+    private final AtomicInteger compilations = new AtomicInteger();
+
+    private CompiledSchema compile(String hash, byte[] schema) {
+        compilations.incrementAndGet();
+        return CompiledSchema.of(hash, FACTORY.getSchema(new String(schema, StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] schema(int maxLength) {
+        return ("{\"type\":\"string\",\"maxLength\":" + maxLength + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testConcurrentMissesCompileOnce() throws Exception {
+        CountDownLatch compiling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LazySchemaCache cache = new LazySchemaCache(0, 1, (hash, schema) -> {
+            compiling.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return compile(hash, schema);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CompiledSchema>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.get("h", schema(1))));
+            assertTrue(compiling.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                futures.add(executor.submit(() -> cache.get("h", schema(1))));
+            }
+            release.countDown();
+
+            CompiledSchema first = futures.get(0).get(10, TimeUnit.SECONDS);
+            assertNotNull(first);
+            for (Future<CompiledSchema> future : futures) {
+                assertSame(first, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, compilations.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(7, cache.getHits());
+    }
+
+    @Test
+    void testColdSchemasAreEvictedWithinBudget() throws Exception {
+        int entryBytes = 512 + schema(0).length;
+        LazySchemaCache cache = new LazySchemaCache(entryBytes * 3L, 1, this::compile);
+
+        cache.get("hot", schema(0));
+        for (int i = 1; i <= 10; i++) {
+            Thread.sleep(2);
+            // 热点 schema 在每次编译新 schema 之前都被访问过
+            assertNotNull(cache.get("hot", schema(0)));
+            cache.get("cold" + i, schema(i % 10));
+        }
+
+        assertTrue(cache.getEstimatedBytes() <= entryBytes * 3L, "estimated bytes " + cache.getEstimatedBytes());
+        assertTrue(cache.getEvictions() > 0);
+        assertNotNull(cache.getIfCompiled("hot"));
+        assertNull(cache.getIfCompiled("cold1"));
+        assertEquals(11, compilations.get());
+
+        cache.retainAll(Collections.singleton("hot"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testLazyConfigCompilesOnFirstUse() {
+        JsonSchemaConfig.SchemaConfig valid = new JsonSchemaConfig.SchemaConfig();
+        valid.setUri("/api/items/{itemId}");
+        valid.setSchema("{\"type\":\"object\",\"properties\":{\"itemId\":{\"type\":\"string\",\"pattern\":\"^[0-9]+$\"}}}");
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.getLazyCompilation().setEnabled(true);
+        config.setSchemas(Collections.singletonList(valid));
+        config.init();
+
+        RouteEntry route = config.getRouteTable().getRoute(HttpMethod.GET, "/api/items/{itemId}");
+        assertTrue(route.getSchema().isLazy());
+        assertNull(route.getSchema().getIfCompiled());
+        assertTrue(route.getSchema().getCost().getScore() > 0);
+
+        CompiledSchema compiledSchema = route.getCompiledSchema();
+        assertNotNull(compiledSchema);
+        assertSame(compiledSchema, route.getCompiledSchema());
+        assertEquals(1, config.getLazySchemaCache().getMisses());
+        assertFalse(compiledSchema.getJsonSchema().validate(
+                JsonNodeFactory.instance.objectNode().put("itemId", "x")).isEmpty());
+    }
+
+    @Test
+    void testCompileFailureIsNotRetriedOnEveryRequest() {
+        LazySchemaCache cache = new LazySchemaCache(0, 1, (hash, schema) -> {
+            compilations.incrementAndGet();
+            throw new IllegalArgumentException("Schema conversion failed");
+        });
+
+        assertNull(cache.get("broken", schema(1)));
+        assertNull(cache.get("broken", schema(1)));
+        assertEquals(1, compilations.get());
+        assertEquals(1, cache.getFailures());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo.jsonschema;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class LoadSheddingControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RouteEntry critical = route("/api/pay", JsonSchemaConfig.RoutePriority.CRITICAL);
+    private final RouteEntry normal = route("/api/users", JsonSchemaConfig.RoutePriority.NORMAL);
+    private final RouteEntry low = route("/api/reports", JsonSchemaConfig.RoutePriority.LOW);
+
+    private LoadSheddingController controller;
+
+    @BeforeEach
+    void setUp() {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.getLoadShedding().setEnabled(true);
+        config.getLoadShedding().setWindowMillis(20);
+        config.getLoadShedding().setLatencyBudgetMicros(1_000);
+        config.getLoadShedding().setSampleRate(0.5);
+        config.getLoadShedding().setRecoveryWindows(2);
+        controller = new LoadSheddingController(config, meterRegistry);
+    }
+
+    @Test
+    void testEscalatesRouteByPriorityAndNeverShedsCriticalRoutes() throws Exception {
+        assertEquals(LoadSheddingController.Level.NONE, controller.getLevel(normal));
+
+        window(normal, 5_000);
+        assertEquals(LoadSheddingController.Level.SAMPLE_LOW, controller.getLevel(normal));
+        window(normal, 5_000);
+        assertEquals(LoadSheddingController.Level.SKIP_LOW, controller.getLevel(normal));
+        window(normal, 5_000);
+        assertEquals(LoadSheddingController.Level.SKIP_NON_CRITICAL, controller.getLevel(normal));
+        window(normal, 5_000);
+        assertEquals(LoadSheddingController.Level.SKIP_NON_CRITICAL, normal.getStats().getSheddingLevel());
+
+        for (int i = 0; i < 4; i++) {
+            window(critical, 5_000);
+        }
+        assertEquals(LoadSheddingController.Level.SKIP_NON_CRITICAL, controller.getLevel(critical));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(controller.shouldValidate(critical));
+            assertFalse(controller.shouldValidate(normal));
+            // 其他路由不受昂贵路由影响
+            assertTrue(controller.shouldValidate(low));
+        }
+        assertTrue(normal.getStats().getShed() >= 100);
+        assertEquals(0, low.getStats().getShed());
+        assertEquals(LoadSheddingController.Level.NONE, controller.getLevel());
+        assertEquals(0, (int) meterRegistry.get("jsonschema.shedding.level").gauge().value());
+        assertEquals(2, meterRegistry.get("jsonschema.shedding.transitions")
+                .tag("scope", "route").tag("from", "SKIP_LOW").tag("to", "SKIP_NON_CRITICAL").counter().count());
+    }
+
+    @Test
+    void testCostlyRouteAmongCheapRoutesIsShed() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            Thread.sleep(25);
+            for (int j = 0; j < 100; j++) {
+                controller.record(normal, System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(10), 0);
+            }
+            controller.record(low, System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(5_000), 0);
+        }
+
+        assertEquals(LoadSheddingController.Level.SKIP_LOW, controller.getLevel(low));
+        assertFalse(controller.shouldValidate(low));
+        assertEquals(LoadSheddingController.Level.NONE, controller.getLevel(normal));
+        assertTrue(controller.shouldValidate(normal));
+        assertEquals(LoadSheddingController.Level.NONE, controller.getLevel());
+    }
+
+    @Test
+    void testRecoversAfterCalmWindows() throws Exception {
+        window(normal, 5_000);
+        assertEquals(LoadSheddingController.Level.SAMPLE_LOW, controller.getLevel(normal));
+
+        window(normal, 10);
+        assertEquals(LoadSheddingController.Level.SAMPLE_LOW, controller.getLevel(normal));
+        window(normal, 10);
+        assertEquals(LoadSheddingController.Level.NONE, controller.getLevel(normal));
+        assertEquals(1, meterRegistry.get("jsonschema.shedding.transitions")
+                .tag("scope", "route").tag("from", "SAMPLE_LOW").tag("to", "NONE").counter().count());
+    }
+
+    @Test
+    void testGlobalCpuBudgetAppliesToAllRoutes() throws Exception {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.getLoadShedding().setEnabled(true);
+        config.getLoadShedding().setWindowMillis(20);
+        config.getLoadShedding().setCpuBudgetMillisPerSecond(100);
+        config.getLoadShedding().setSampleRate(0.5);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LoadSheddingController cpuBound = new LoadSheddingController(config, registry);
+        assumeTrue(cpuBound.currentCpuTime() > 0, "thread CPU time is not supported");
+
+        Thread.sleep(25);
+        cpuBound.record(critical, System.nanoTime(), cpuBound.currentCpuTime() - TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertEquals(LoadSheddingController.Level.SAMPLE_LOW, cpuBound.getLevel());
+        // 没有验证记录的路由也按全局级别处理
+        assertEquals(LoadSheddingController.Level.NONE, low.getStats().getSheddingLevel());
+        assertEquals(LoadSheddingController.Level.SAMPLE_LOW, cpuBound.getLevel(low));
+        assertEquals(1, (int) registry.get("jsonschema.shedding.level").gauge().value());
+        assertEquals(1, registry.get("jsonschema.shedding.transitions")
+                .tag("scope", "global").tag("from", "NONE").tag("to", "SAMPLE_LOW").counter().count());
+    }
+
+    @Test
+    void testDisabledControllerAlwaysValidates() {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        LoadSheddingController disabled = new LoadSheddingController(config, new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            disabled.record(low, System.nanoTime() - TimeUnit.SECONDS.toNanos(1), 0);
+        }
+        assertEquals(LoadSheddingController.Level.NONE, disabled.getLevel());
+        assertTrue(disabled.shouldValidate(low));
+        assertEquals(10, low.getStats().getValidations());
+    }
+
+    /**
+     * 等待当前窗口结束，再记录一次耗时为 latencyMicros 的路由验证，该次记录会触发路由窗口的评估
+     */
+    private void window(RouteEntry route, long latencyMicros) throws InterruptedException {
+        Thread.sleep(25);
+        controller.record(route, System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(latencyMicros), 0);
+    }
+
+    private static RouteEntry route(String uri, JsonSchemaConfig.RoutePriority priority) {
+        return new RouteEntry(HttpMethod.GET, uri, null, 1.0, priority, null, null);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryStringParserTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    void testDecodesOnlyDeclaredParameters() {
+        DeclaredParameters declared = DeclaredParameters.of(new HashSet<>(Arrays.asList("name", "city")), false);
+
+        Map<String, Object> params = QueryStringParser.parse(
+                "name=J%C3%B6rg+M&tracking=abc&city=%E4%B8%8A%E6%B5%B7&name=second&&flag", declared);
+
+        assertEquals(2, params.size());
+        assertEquals("Jörg M", params.get("name"));
+        assertEquals("上海", params.get("city"));
+    }
+
+    @Test
+    void testKeepsUndeclaredParametersWhenSchemaNeedsThem() throws Exception {
+        DeclaredParameters declared = DeclaredParameters.of(OBJECT_MAPPER.readTree(
+                "{\"properties\":{\"id\":{}},\"additionalProperties\":false}"));
+        assertTrue(declared.isKeepUndeclared());
+
+        Map<String, Object> params = QueryStringParser.parse("id=1&extra&bad=%zz&n%61me=x", declared);
+        assertEquals("1", params.get("id"));
+        assertEquals("", params.get("extra"));
+        assertEquals("x", params.get("name"));
+        assertFalse(params.containsKey("bad"));
+    }
+
+    @Test
+    void testDeclaredNamesFromSchema() throws Exception {
+        DeclaredParameters declared = DeclaredParameters.of(OBJECT_MAPPER.readTree(
+                "{\"properties\":{\"a\":{}},\"required\":[\"b\"],\"dependentRequired\":{\"c\":[\"d\"]},"
+                        + "\"additionalProperties\":true}"));
+
+        assertFalse(declared.isKeepUndeclared());
+        for (String name : Arrays.asList("a", "b", "c", "d")) {
+            assertTrue(declared.contains(name), name);
+        }
+        assertFalse(declared.contains("e"));
+        assertTrue(DeclaredParameters.of(OBJECT_MAPPER.readTree("{\"anyOf\":[]}")).isKeepUndeclared());
+    }
+
+    @Test
+    void testPerfectHashHasNoFalsePositives() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            names.add("param" + i);
+        }
+        DeclaredParameters declared = DeclaredParameters.of(names, false);
+
+        String query = "xparam7=1&param499=2&param500=3";
+        for (String name : names) {
+            assertTrue(declared.contains(name), name);
+        }
+        assertTrue(declared.contains(query, 10, 18));
+        assertFalse(declared.contains(query, 0, 7));
+        assertFalse(declared.contains(query, 21, 29));
+    }
+
+    @Test
+    void testServiceValidatesRawQueryString() {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}");
+        schemaConfig.setSchema("{\"type\":\"object\",\"properties\":{"
+                + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+                + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}},"
+                + "\"required\":[\"userId\",\"status\"]}");
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.init();
+
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(OBJECT_MAPPER);
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+
+        assertDoesNotThrow(() -> service.validateQueryString("GET", "/api/users/1", "status=YES&utm=%zz", null, null));
+        assertThrows(JsonSchemaValidationException.class,
+                () -> service.validateQueryString("GET", "/api/users/1", "status=MAYBE", null, null));
+        assertThrows(JsonSchemaValidationException.class,
+                () -> service.validateQueryString("GET", "/api/users/1", null, null, null));
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.jsonschema;
+
+import com.example.demo.config.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RequestBodyValidationTest {
+
+    private static final String ORDER_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"quantity\":{\"type\":\"integer\",\"minimum\":1}"
+            + "},"
+            + "\"required\":[\"userId\",\"quantity\"]"
+            + "}";
+
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}/orders");
+        schemaConfig.setSchema(ORDER_SCHEMA);
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("POST"));
+        config.getRequestBody().setEnabled(true);
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.init();
+
+        JsonSchemaValidationLogger validationLogger = new JsonSchemaValidationLogger(config.getLogIntervalMillis());
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(validationLogger);
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+
+        JsonSchemaValidationInterceptor interceptor = new JsonSchemaValidationInterceptor();
+        interceptor.setJsonSchemaValidationService(service);
+        interceptor.setValidationLogger(validationLogger);
+
+        JsonSchemaRequestBodyFilter filter = new JsonSchemaRequestBodyFilter();
+        filter.setJsonSchemaConfig(config);
+        filter.setJsonSchemaValidationService(service);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new OrderController())
+                .addFilters(filter)
+                .addInterceptors(interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private static Map<String, Object> order(Object quantity) {
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("quantity", quantity);
+        order.put("note", "binary");
+        return order;
+    }
+
+    @Test
+    void testBinaryBodiesAreValidatedAndPassedThrough() throws Exception {
+        mockMvc.perform(post("/api/users/1/orders").contentType("application/x-jackson-smile")
+                        .content(SMILE.writeValueAsBytes(order(2))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1:2:binary"));
+
+        mockMvc.perform(post("/api/users/1/orders").contentType("application/cbor")
+                        .content(CBOR.writeValueAsBytes(order(3))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1:3:binary"));
+
+        mockMvc.perform(post("/api/users/1/orders").contentType("application/cbor")
+                        .content(CBOR.writeValueAsBytes(order(0))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].property").value("quantity"));
+    }
+
+    @Test
+    void testBodyFieldsAreMergedWithPathVariables() throws Exception {
+        mockMvc.perform(post("/api/users/u1/orders").contentType("application/json")
+                        .content("{\"userId\":\"1\",\"quantity\":1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].property").value("userId"));
+
+        mockMvc.perform(post("/api/users/1/orders").contentType("application/json").content("{\"note\":\"x\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].keyword").value("required"));
+    }
+
+    @Test
+    void testMalformedBodyIsRejected() throws Exception {
+        mockMvc.perform(post("/api/users/1/orders").contentType("application/x-jackson-smile")
+                        .content(new byte[]{':', ')', '\n', 0x7f}))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0].keyword").value("format"))
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("SMILE")));
+    }
+
+    @Test
+    void testReadListenerReceivesCachedBody() throws Exception {
+        byte[] body = "{\"quantity\":1}".getBytes(StandardCharsets.UTF_8);
+        CachedBodyRequestWrapper request = new CachedBodyRequestWrapper(new MockHttpServletRequest(), body,
+                RequestBodyFormat.JSON);
+        ServletInputStream input = request.getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> callbacks = new ArrayList<>();
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                callbacks.add("onDataAvailable");
+                byte[] buffer = new byte[4];
+                int n;
+                while (input.isReady() && (n = input.read(buffer)) != -1) {
+                    read.write(buffer, 0, n);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                callbacks.add("onAllDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                callbacks.add("onError");
+            }
+        });
+
+        assertEquals(Arrays.asList("onDataAvailable", "onAllDataRead"), callbacks);
+        assertArrayEquals(body, read.toByteArray());
+        assertTrue(input.isFinished());
+    }
+
+    @RestController
+    static class OrderController {
+
+        @PostMapping(value = "/api/users/{userId}/orders",
+                consumes = {"application/json", "application/x-jackson-smile", "application/cbor"})
+        public String create(@PathVariable String userId, @RequestBody Map<String, Object> order) {
+            return userId + ":" + order.get("quantity") + ":" + order.get("note");
+        }
+    }
+}
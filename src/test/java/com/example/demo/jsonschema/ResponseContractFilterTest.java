@@ -0,0 +1,196 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ResponseContractFilterTest {
+
+    private static final String USER_RESPONSE_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{\"id\":{\"type\":\"integer\"},\"name\":{\"type\":\"string\"}},"
+            + "\"required\":[\"id\",\"name\"]"
+            + "}";
+
+    /**
+     * 不允许出现 properties 之外的字段，序列化结果多出 secret 或 MappingJacksonValue 的包装字段时都会违反契约
+     */
+    private static final String PROFILE_RESPONSE_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{\"id\":{\"type\":\"integer\"},\"name\":{\"type\":\"string\"}},"
+            + "\"required\":[\"id\",\"name\"],"
+            + "\"additionalProperties\":false"
+            + "}";
+
+    private JsonSchemaConfig config;
+
+    private ResponseContractValidator validator;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        JsonSchemaConfig.SchemaConfig users = new JsonSchemaConfig.SchemaConfig();
+        users.setUri("/api/users/{userId}");
+        users.setSchema("{\"type\":\"object\"}");
+        users.setResponseSchema(USER_RESPONSE_SCHEMA);
+        JsonSchemaConfig.SchemaConfig status = new JsonSchemaConfig.SchemaConfig();
+        status.setUri("/api/status");
+        status.setSchema("{\"type\":\"object\"}");
+        status.setResponseSchema("{\"type\":\"string\",\"enum\":[\"OK\"]}");
+
+        config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        JsonSchemaConfig.SchemaConfig views = new JsonSchemaConfig.SchemaConfig();
+        views.setUri("/api/profiles/view");
+        views.setSchema("{\"type\":\"object\"}");
+        views.setResponseSchema(PROFILE_RESPONSE_SCHEMA);
+        JsonSchemaConfig.SchemaConfig wrapped = new JsonSchemaConfig.SchemaConfig();
+        wrapped.setUri("/api/profiles/wrapped");
+        wrapped.setSchema("{\"type\":\"object\"}");
+        wrapped.setResponseSchema(PROFILE_RESPONSE_SCHEMA);
+        config.setSchemas(Arrays.asList(users, status, views, wrapped));
+        config.getResponseValidation().setEnabled(true);
+        config.getResponseValidation().setSampleRate(1.0);
+        config.init();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new ResponseContractValidator(config, objectMapper, new JsonSchemaValidationLogger(0), meterRegistry);
+        ResponseContractFilter filter = new ResponseContractFilter();
+        filter.setResponseContractValidator(validator);
+        filter.setJsonSchemaConfig(config);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new UserStubController()).addFilters(filter).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        validator.shutdown();
+    }
+
+    @Test
+    void testViolationsAreCountedButNotThrown() throws Exception {
+        mockMvc.perform(get("/api/users/1")).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"name\":\"alice\"}"));
+        mockMvc.perform(get("/api/users/2")).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":\"2\"}"));
+        mockMvc.perform(get("/api/status")).andExpect(status().isOk()).andExpect(content().string("OK"));
+        assertTrue(validator.awaitIdle(5_000));
+
+        RouteStats users = config.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}").getStats();
+        assertEquals(2, users.getResponseValidations());
+        assertEquals(1, users.getResponseViolations());
+        RouteStats status = config.getRouteTable().getRoute(HttpMethod.GET, "/api/status").getStats();
+        assertEquals(1, status.getResponseValidations());
+        assertEquals(0, status.getResponseViolations());
+        assertEquals(1, meterRegistry.get("jsonschema.response.violations").counter().count());
+    }
+
+    @Test
+    void testUnsampledResponsesAreUntouched() throws Exception {
+        config.getResponseValidation().setSampleRate(0.0);
+        mockMvc.perform(get("/api/users/2")).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":\"2\"}"));
+        assertTrue(validator.awaitIdle(5_000));
+        assertEquals(0, config.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}").getStats().getResponseValidations());
+    }
+
+    @Test
+    void testValidatesBytesWrittenByConverter() throws Exception {
+        mockMvc.perform(get("/api/profiles/view")).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":1,\"name\":\"alice\"}", true));
+        mockMvc.perform(get("/api/profiles/wrapped")).andExpect(status().isOk())
+                .andExpect(content().json("{\"id\":2,\"name\":\"bob\"}", true));
+        assertTrue(validator.awaitIdle(5_000));
+
+        RouteStats views = config.getRouteTable().getRoute(HttpMethod.GET, "/api/profiles/view").getStats();
+        assertEquals(1, views.getResponseValidations());
+        assertEquals(0, views.getResponseViolations());
+        RouteStats wrapped = config.getRouteTable().getRoute(HttpMethod.GET, "/api/profiles/wrapped").getStats();
+        assertEquals(1, wrapped.getResponseValidations());
+        assertEquals(0, wrapped.getResponseViolations());
+    }
+
+    /**
+     * JSON 视图，只输出标注了该视图的字段
+     */
+    interface PublicView {
+    }
+
+    static class Profile {
+
+        @JsonView(PublicView.class)
+        public long id;
+
+        @JsonView(PublicView.class)
+        public String name;
+
+        public String secret;
+
+        Profile(long id, String name, String secret) {
+            this.id = id;
+            this.name = name;
+            this.secret = secret;
+        }
+    }
+
+    @RestController
+    static class UserStubController {
+
+        @GetMapping("/api/users/{userId}")
+        public Map<String, Object> user(@PathVariable("userId") long userId) {
+            Map<String, Object> user = new LinkedHashMap<>();
+            if (userId == 1) {
+                user.put("id", userId);
+                user.put("name", "alice");
+            } else {
+                // 违反契约：id 类型错误且缺少 name
+                user.put("id", String.valueOf(userId));
+            }
+            return user;
+        }
+
+        @JsonView(PublicView.class)
+        @GetMapping("/api/profiles/view")
+        public Profile view() {
+            return new Profile(1, "alice", "s3cret");
+        }
+
+        @GetMapping("/api/profiles/wrapped")
+        public MappingJacksonValue wrapped() {
+            Map<String, Object> profile = new LinkedHashMap<>();
+            profile.put("id", 2);
+            profile.put("name", "bob");
+            return new MappingJacksonValue(profile);
+        }
+
+        @GetMapping("/api/status")
+        public String status() {
+            return "OK";
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.demo.jsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTableTest {
+
+    private static RouteEntry route(HttpMethod method, String uriTemplate) {
+        return new RouteEntry(method, uriTemplate, null, 1.0, null, null, null);
+    }
+
+    @Test
+    void testResolveOnlySearchesRequestMethod() {
+        RouteEntry get = route(HttpMethod.GET, "/api/users/{userId}");
+        RouteEntry post = route(HttpMethod.POST, "/api/users/{userId}");
+        RouteTable routeTable = new RouteTable(Arrays.asList(get, post), Collections.emptyList());
+
+        assertSame(get, routeTable.resolve(HttpMethod.GET, "/api/users/1").getRoute());
+        assertSame(post, routeTable.resolve(HttpMethod.POST, "/api/users/1").getRoute());
+        assertNull(routeTable.resolve(HttpMethod.DELETE, "/api/users/1"));
+        assertTrue(routeTable.hasRoutes(HttpMethod.POST));
+        assertFalse(routeTable.hasRoutes(HttpMethod.PUT));
+    }
+
+    @Test
+    void testExtractPathVariables() {
+        RouteTable routeTable = new RouteTable(
+                Collections.singletonList(route(HttpMethod.GET, "/api/users/{userId}/orders/{orderId}")),
+                Collections.emptyList());
+
+        RouteMatch match = routeTable.resolve(HttpMethod.GET, "/api/users/123/orders/456");
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("userId", "123");
+        expected.put("orderId", "456");
+        assertEquals(expected, match.getPathVariables());
+
+        assertNull(routeTable.resolve(HttpMethod.GET, "/api/users/123/orders"));
+        assertNull(routeTable.resolve(HttpMethod.GET, "/api/admins/123/orders/456"));
+    }
+
+    @Test
+    void testLiteralSegmentTakesPrecedence() {
+        RouteEntry variable = route(HttpMethod.GET, "/api/users/{userId}");
+        RouteEntry literal = route(HttpMethod.GET, "/api/users/me");
+        RouteTable routeTable = new RouteTable(Arrays.asList(variable, literal), Collections.emptyList());
+
+        assertSame(literal, routeTable.resolve(HttpMethod.GET, "/api/users/me").getRoute());
+        assertSame(variable, routeTable.resolve(HttpMethod.GET, "/api/users/1").getRoute());
+    }
+
+    @Test
+    void testBacktracksToVariableBranch() {
+        RouteEntry literal = route(HttpMethod.GET, "/api/users/me/profile");
+        RouteEntry variable = route(HttpMethod.GET, "/api/users/{userId}/orders");
+        RouteTable routeTable = new RouteTable(Arrays.asList(literal, variable), Collections.emptyList());
+
+        RouteMatch match = routeTable.resolve(HttpMethod.GET, "/api/users/me/orders");
+        assertSame(variable, match.getRoute());
+        assertEquals("me", match.getPathVariables().get("userId"));
+    }
+
+    @Test
+    void testExcludedUris() {
+        RouteTable routeTable = new RouteTable(Collections.emptyList(), Collections.singletonList("/api/health"));
+        assertTrue(routeTable.isExcluded("/api/health"));
+        assertFalse(routeTable.isExcluded("/api/users"));
+    }
+
+    @Test
+    void testUsesGeneratedMatcherOnlyForSameRoutes() {
+        RouteEntry users = route(HttpMethod.GET, "/api/users/{userId}");
+        RouteEntry orders = route(HttpMethod.GET, "/api/users/{userId}/orders/{orderId}");
+        List<RouteEntry> routes = Arrays.asList(users, orders);
+        GeneratedRouteMatcher matcher = new StubMatcher(RouteTable.routesHash(routes));
+
+        RouteTable routeTable = new RouteTable(routes, Collections.emptyList(), matcher);
+        assertTrue(routeTable.isGeneratedMatcher());
+        RouteMatch match = routeTable.resolve(HttpMethod.GET, "/api/users/7/orders/8");
+        assertSame(orders, match.getRoute());
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("userId", "7");
+        expected.put("orderId", "8");
+        assertEquals(expected, match.getPathVariables());
+        assertNull(routeTable.resolve(HttpMethod.GET, "/api/users/7/orders"));
+
+        RouteTable changed = new RouteTable(Collections.singletonList(users), Collections.emptyList(), matcher);
+        assertFalse(changed.isGeneratedMatcher());
+        assertSame(users, changed.resolve(HttpMethod.GET, "/api/users/7").getRoute());
+    }
+
+    /**
+     * 模拟生成代码的结构：按路径段数量 switch，字面量比较，路径变量按顺序写入槽位
+     */
+    private static final class StubMatcher implements GeneratedRouteMatcher {
+
+        private final String routesHash;
+
+        private StubMatcher(String routesHash) {
+            this.routesHash = routesHash;
+        }
+
+        @Override
+        public String getRoutesHash() {
+            return routesHash;
+        }
+
+        @Override
+        public String match(HttpMethod method, String[] s, String[] v) {
+            if (method != HttpMethod.GET || !"api".equals(s[0]) || !"users".equals(s[1])) {
+                return null;
+            }
+            switch (s.length) {
+                case 3:
+                    v[0] = s[2];
+                    return "/api/users/{userId}";
+                case 5:
+                    if ("orders".equals(s[3])) {
+                        v[0] = s[2];
+                        v[1] = s[4];
+                        return "/api/users/{userId}/orders/{orderId}";
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
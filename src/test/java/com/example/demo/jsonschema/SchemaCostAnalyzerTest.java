@@ -0,0 +1,95 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaCostAnalyzerTest {
+
+    private static final String SIMPLE_SCHEMA = "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}";
+
+    private static final String ORDER_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"definitions\":{"
+            + "\"numericId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"orderStatus\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}"
+            + "},"
+            + "\"properties\":{"
+            + "\"userId\":{\"$ref\":\"#/definitions/numericId\"},"
+            + "\"orderId\":{\"$ref\":\"#/definitions/numericId\"},"
+            + "\"status\":{\"anyOf\":[{\"$ref\":\"#/definitions/orderStatus\"},{\"type\":\"null\"}]},"
+            + "\"orderDate\":{\"type\":\"string\",\"pattern\":\"^\\\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$\"}"
+            + "},"
+            + "\"if\":{\"properties\":{\"status\":{\"not\":{\"type\":\"null\"}}}},"
+            + "\"then\":{\"required\":[\"orderDate\"]}"
+            + "}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testAnalyzeCountsStructure() throws Exception {
+        SchemaCost cost = SchemaCostAnalyzer.analyze(objectMapper.readTree(ORDER_SCHEMA));
+
+        // userId、orderId、status、orderDate 以及 if 中的 status
+        assertEquals(5, cost.getPropertyCount());
+        // anyOf 两个分支，以及 not、if、then
+        assertEquals(5, cost.getCombinatorFanOut());
+        // numericId 被引用两次，再加 orderDate
+        assertEquals(3, cost.getPatternCount());
+        assertEquals(3, cost.getRefCount());
+        assertTrue(cost.getDepth() >= 4);
+
+        SchemaCost simple = SchemaCostAnalyzer.analyze(objectMapper.readTree(SIMPLE_SCHEMA));
+        assertTrue(cost.getScore() > simple.getScore());
+    }
+
+    @Test
+    void testCyclicRefTerminates() throws Exception {
+        String schema = "{\"definitions\":{\"node\":{\"properties\":{\"next\":{\"$ref\":\"#/definitions/node\"}}}},"
+                + "\"$ref\":\"#/definitions/node\"}";
+        SchemaCost cost = SchemaCostAnalyzer.analyze(objectMapper.readTree(schema));
+        assertTrue(cost.getScore() > 0);
+    }
+
+    @Test
+    void testNestedQuantifierIsPenalized() {
+        int plain = SchemaCostAnalyzer.patternComplexity("^(a+)b$");
+        int nested = SchemaCostAnalyzer.patternComplexity("^(a+)+b$");
+        int nonCapturing = SchemaCostAnalyzer.patternComplexity("^(?:ab)+$");
+        assertTrue(nested >= plain + 50);
+        assertTrue(nonCapturing < 50);
+    }
+
+    @Test
+    void testOverBudgetFailsStartup() {
+        JsonSchemaConfig config = config(JsonSchemaConfig.OverBudgetAction.FAIL);
+        assertThrows(IllegalArgumentException.class, config::init);
+    }
+
+    @Test
+    void testOverBudgetDowngradesToSampling() {
+        JsonSchemaConfig config = config(JsonSchemaConfig.OverBudgetAction.SAMPLE);
+        config.init();
+        RouteEntry route = config.getRouteTable().getRoutes().get(0);
+        assertEquals(0.25, route.getSampleRate());
+        assertTrue(config.getRouteCosts().get("GET /api/users/{userId}/orders/{orderId}") > 5);
+    }
+
+    private JsonSchemaConfig config(JsonSchemaConfig.OverBudgetAction action) {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}/orders/{orderId}");
+        schemaConfig.setSchema(ORDER_SCHEMA);
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.setCostBudget(5);
+        config.setOverBudgetAction(action);
+        config.setOverBudgetSampleRate(0.25);
+        return config;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.demo.jsonschema;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaSnapshotTest {
+
+    private static final String USER_SCHEMA = "{"
+            + "\"type\":\"object\","
+            + "\"properties\":{\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"}},"
+            + "\"required\":[\"userId\"],"
+            + "\"errorMessages\":{\"userId\":\"userId 必须为正整数\"}"
+            + "}";
+
+    private static final String ORDER_SCHEMA = "{\"type\":\"object\",\"properties\":{\"orderId\":{\"type\":\"string\"}}}";
+
+    private static JsonSchemaConfig.SchemaConfig schemaConfig(String uri, String schema) {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri(uri);
+        schemaConfig.setSchema(schema);
+        return schemaConfig;
+    }
+
+    private static JsonSchemaConfig load(Path file, boolean lazy, List<JsonSchemaConfig.SchemaConfig> schemas) {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.getSnapshotFile().setEnabled(true);
+        config.getSnapshotFile().setPath(file.toString());
+        config.getLazyCompilation().setEnabled(lazy);
+        config.setSchemas(schemas);
+        config.init();
+        return config;
+    }
+
+    @Test
+    void testUnchangedConfigsAreRestoredFromSnapshot(@TempDir Path dir) {
+        Path file = dir.resolve("snapshot.smile");
+        JsonSchemaConfig first = load(file, false, Arrays.asList(
+                schemaConfig("/api/users/{userId}", USER_SCHEMA), schemaConfig("/api/orders", ORDER_SCHEMA)));
+        assertTrue(Files.isRegularFile(file));
+        assertEquals(0, first.getRestoredFromSnapshotFile());
+
+        JsonSchemaConfig second = load(file, false, Arrays.asList(
+                schemaConfig("/api/users/{userId}", USER_SCHEMA), schemaConfig("/api/orders", ORDER_SCHEMA.replace("string", "integer"))));
+        assertEquals(1, second.getRestoredFromSnapshotFile());
+        assertEquals(2, second.getRouteTable().size());
+
+        CompiledSchema restored = second.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}").getCompiledSchema();
+        assertEquals(first.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}").getCompiledSchema().getErrorMessages(),
+                restored.getErrorMessages());
+        assertNotEquals(first.getSnapshotHash(), second.getSnapshotHash());
+
+        // 第二次加载写入的快照包含变化后的配置，再次加载时两个配置都直接使用快照
+        JsonSchemaConfig third = load(file, false, Arrays.asList(
+                schemaConfig("/api/users/{userId}", USER_SCHEMA), schemaConfig("/api/orders", ORDER_SCHEMA.replace("string", "integer"))));
+        assertEquals(2, third.getRestoredFromSnapshotFile());
+        assertEquals(second.getSnapshotHash(), third.getSnapshotHash());
+    }
+
+    @Test
+    void testLazyRestoreDoesNotCompileAtStartup(@TempDir Path dir) {
+        Path file = dir.resolve("snapshot.smile");
+        load(file, false, Collections.singletonList(schemaConfig("/api/users/{userId}", USER_SCHEMA)));
+
+        JsonSchemaConfig config = load(file, true, Collections.singletonList(schemaConfig("/api/users/{userId}", USER_SCHEMA)));
+        assertEquals(1, config.getRestoredFromSnapshotFile());
+        RouteEntry route = config.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}");
+        assertNull(route.getSchema().getIfCompiled());
+        assertEquals(0, config.getLazySchemaCache().getMisses());
+
+        assertNotNull(route.getCompiledSchema());
+        assertEquals(1, config.getLazySchemaCache().getMisses());
+    }
+
+    @Test
+    void testEagerRestoreCompilesOnlyChangedSchemasAtStartup(@TempDir Path dir) {
+        Path file = dir.resolve("snapshot.smile");
+        JsonSchemaConfig first = load(file, false, Arrays.asList(
+                schemaConfig("/api/users/{userId}", USER_SCHEMA), schemaConfig("/api/orders", ORDER_SCHEMA)));
+
+        JsonSchemaConfig config = load(file, false, Arrays.asList(
+                schemaConfig("/api/users/{userId}", USER_SCHEMA), schemaConfig("/api/orders", ORDER_SCHEMA.replace("string", "integer"))));
+        assertEquals(1, config.getRestoredFromSnapshotFile());
+        RouteEntry restored = config.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}");
+        RouteEntry changed = config.getRouteTable().getRoute(HttpMethod.GET, "/api/orders");
+        assertNotNull(changed.getSchema().getIfCompiled());
+        assertNull(restored.getSchema().getIfCompiled());
+        assertEquals(0, config.getRestoredSchemaCache().getMisses());
+
+        assertNotNull(restored.getCompiledSchema());
+        assertEquals(1, config.getRestoredSchemaCache().getMisses());
+        assertEquals(first.getRouteTable().getRoute(HttpMethod.GET, "/api/users/{userId}").getCompiledSchema().getErrorMessages(),
+                restored.getCompiledSchema().getErrorMessages());
+    }
+
+    @Test
+    void testEagerHandlesKeepTreeOnlyForSnapshotFile(@TempDir Path dir) {
+        JsonSchemaConfig withSnapshot = load(dir.resolve("snapshot.smile"), false,
+                Collections.singletonList(schemaConfig("/api/orders", ORDER_SCHEMA)));
+        assertNotNull(withSnapshot.getRouteTable().getRoute(HttpMethod.GET, "/api/orders").getSchema().getSource());
+
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig("/api/orders", ORDER_SCHEMA)));
+        config.init();
+        SchemaHandle handle = config.getRouteTable().getRoute(HttpMethod.GET, "/api/orders").getSchema();
+        assertNull(handle.getSource());
+        assertNotNull(handle.get());
+    }
+
+    @Test
+    void testCorruptSnapshotIsIgnored(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("snapshot.smile");
+        Files.write(file, new byte[]{1, 2, 3, 4});
+
+        JsonSchemaConfig config = load(file, false, Collections.singletonList(schemaConfig("/api/orders", ORDER_SCHEMA)));
+        assertEquals(0, config.getRestoredFromSnapshotFile());
+        assertEquals(1, config.getRouteTable().size());
+        assertNotNull(SchemaSnapshot.read(file));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShadowSchemaEvaluatorTest {
+
+    private static final String ACTIVE = "{\"type\":\"object\",\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}}}";
+
+    /**
+     * userId 允许 0（更宽松），status 只允许 YES（更严格）
+     */
+    private static final String SHADOW = "{\"type\":\"object\",\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^\\\\d+$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\"]}}}";
+
+    @Test
+    void testRecordsDisagreementsWithoutChangingOutcome() throws Exception {
+        JsonSchemaConfig config = config(SHADOW, 100.0);
+        ShadowSchemaEvaluator evaluator = evaluator(config);
+        JsonSchemaValidationService service = service(config, evaluator);
+        try {
+            assertDoesNotThrow(() -> service.validate("GET", "/api/users/1", params("YES")));
+            assertThrows(JsonSchemaValidationException.class, () -> service.validate("GET", "/api/users/0", params("YES")));
+            assertDoesNotThrow(() -> service.validate("GET", "/api/users/1", params("NO")));
+            assertTrue(evaluator.awaitIdle(5_000));
+        } finally {
+            evaluator.shutdown();
+        }
+
+        RouteStats stats = route(config).getStats();
+        assertEquals(3, stats.getShadowEvaluations());
+        assertEquals(1, stats.getShadowStricter());
+        assertEquals(1, stats.getShadowLooser());
+        assertEquals(2, evaluator.getDisagreements());
+        assertEquals(3, stats.getValidations());
+    }
+
+    @Test
+    void testCpuBudgetCapsEvaluations() throws Exception {
+        JsonSchemaConfig config = config(SHADOW, 0.000001);
+        config.getShadowEvaluation().setBudgetWindowMillis(60_000);
+        ShadowSchemaEvaluator evaluator = evaluator(config);
+        JsonSchemaValidationService service = service(config, evaluator);
+        try {
+            for (int i = 0; i < 200; i++) {
+                service.validate("GET", "/api/users/" + (i + 1), params("YES"));
+                assertTrue(evaluator.awaitIdle(5_000));
+            }
+        } finally {
+            evaluator.shutdown();
+        }
+
+        assertTrue(evaluator.getEvaluations() <= 3, "evaluations: " + evaluator.getEvaluations());
+        assertTrue(evaluator.getOverBudget() >= 197);
+    }
+
+    @Test
+    void testZeroBudgetDisablesEvaluation() {
+        JsonSchemaConfig config = config(SHADOW, 0);
+        ShadowSchemaEvaluator evaluator = evaluator(config);
+        try {
+            assertEquals(0, evaluator.getBudgetNanos());
+            for (int i = 0; i < 10; i++) {
+                service(config, evaluator).validate("GET", "/api/users/1", params("NO"));
+            }
+            assertEquals(0, evaluator.getEvaluations());
+            assertEquals(10, evaluator.getOverBudget());
+        } finally {
+            evaluator.shutdown();
+        }
+    }
+
+    @Test
+    void testInvalidShadowSchemaIsIgnored() {
+        JsonSchemaConfig config = config("{\"type\":", 100.0);
+
+        RouteEntry route = route(config);
+        assertNotNull(route.getCompiledSchema());
+        assertNull(route.getShadowSchema());
+        assertTrue(config.getRejectedSchemas().get(0).startsWith("Ignoring shadow schema for URI '/api/users/{userId}'"));
+    }
+
+    private static RouteEntry route(JsonSchemaConfig config) {
+        return config.getRouteTable().getRoutes().get(0);
+    }
+
+    private static Map<String, Object> params(String status) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("status", status);
+        return params;
+    }
+
+    private static JsonSchemaConfig config(String shadowSchema, double cpuBudgetPercent) {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}");
+        schemaConfig.setSchema(ACTIVE);
+        schemaConfig.setShadowSchema(shadowSchema);
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.getShadowEvaluation().setEnabled(true);
+        config.getShadowEvaluation().setSampleRate(1.0);
+        config.getShadowEvaluation().setCpuBudgetPercent(cpuBudgetPercent);
+        config.init();
+        return config;
+    }
+
+    private static ShadowSchemaEvaluator evaluator(JsonSchemaConfig config) {
+        return new ShadowSchemaEvaluator(config, new JsonSchemaValidationLogger(config.getLogIntervalMillis()),
+                new SimpleMeterRegistry());
+    }
+
+    private static JsonSchemaValidationService service(JsonSchemaConfig config, ShadowSchemaEvaluator evaluator) {
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+        service.setShadowSchemaEvaluator(evaluator);
+        return service;
+    }
+}
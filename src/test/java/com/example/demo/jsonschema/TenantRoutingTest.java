@@ -0,0 +1,145 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class TenantRoutingTest {
+
+    private static final String NUMERIC_USER_ID = "{\"type\":\"object\",\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"}}}";
+
+    private static final String PREFIXED_USER_ID = "{\"type\":\"object\",\"properties\":{"
+            + "\"userId\":{\"type\":\"string\",\"pattern\":\"^A\\\\d+$\"}}}";
+
+    private static final String ORDER_STATUS = "{\"type\":\"object\",\"properties\":{"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}}}";
+
+    @Test
+    void testTenantOverridesGlobalRouteAndKeepsTheRest() {
+        JsonSchemaConfig config = config(false);
+        RouteTable partnerA = config.getTenantRouteTable("partner-a");
+
+        assertEquals(2, partnerA.size());
+        assertEquals(2, config.getTenantRouteTable("partner-b").size());
+        assertNotSame(partnerA.resolve(HttpMethod.GET, "/api/users/A1").getRoute().getSchema(),
+                config.getRouteTable().resolve(HttpMethod.GET, "/api/users/1").getRoute().getSchema());
+        assertTrue(config.getRejectedSchemas().isEmpty());
+    }
+
+    @Test
+    void testIdenticalSchemasAreCompiledOnce() {
+        JsonSchemaConfig config = config(false);
+
+        CompiledSchema globalOrders = config.getRouteTable().resolve(HttpMethod.GET, "/api/orders").getRoute().getCompiledSchema();
+        assertSame(globalOrders, config.getTenantRouteTable("partner-a").resolve(HttpMethod.GET, "/api/orders").getRoute().getCompiledSchema());
+        assertSame(globalOrders, config.getTenantRouteTable("partner-b").resolve(HttpMethod.GET, "/api/orders").getRoute().getCompiledSchema());
+        assertSame(config.getTenantRouteTable("partner-a").resolve(HttpMethod.GET, "/api/users/1").getRoute().getCompiledSchema(),
+                config.getTenantRouteTable("partner-b").resolve(HttpMethod.GET, "/api/users/1").getRoute().getCompiledSchema());
+    }
+
+    @Test
+    void testServiceSelectsTenantByHeader() {
+        JsonSchemaValidationService service = service(config(false));
+
+        assertDoesNotThrow(() -> service.validate(request("/api/users/A7", "partner-a")));
+        assertThrows(JsonSchemaValidationException.class, () -> service.validate(request("/api/users/7", "partner-a")));
+        assertDoesNotThrow(() -> service.validate(request("/api/users/7", null)));
+        assertDoesNotThrow(() -> service.validate(request("/api/users/7", "unknown")));
+        assertThrows(JsonSchemaValidationException.class, () -> service.validate(request("/api/users/A7", null)));
+    }
+
+    @Test
+    void testServiceSelectsTenantByPathPrefix() {
+        JsonSchemaConfig config = config(true);
+        JsonSchemaValidationService service = service(config);
+
+        TenantSelection selection = config.selectTenant(null, "/partner-b/api/users/A7");
+        assertEquals("partner-b", selection.getTenant());
+        assertEquals("/api/users/A7", selection.getUri());
+        assertNull(config.selectTenant(null, "/api/users/7").getTenant());
+        assertEquals("/api/users/7", config.selectTenant(null, "/api/users/7").getUri());
+
+        assertDoesNotThrow(() -> service.validate(request("/partner-b/api/users/A7", null)));
+        assertThrows(JsonSchemaValidationException.class, () -> service.validate(request("/partner-b/api/users/7", null)));
+        assertThrows(JsonSchemaValidationException.class, () -> service.validate(request("/api/users/A7", null)));
+    }
+
+    @Test
+    void testTenantHeaderIsReadOnlyWhenSelectingByHeader() {
+        JsonSchemaConfig disabled = new JsonSchemaConfig();
+        disabled.setEnabled(true);
+        disabled.setIncludeMethods(Collections.singletonList("GET"));
+        disabled.setSchemas(Collections.singletonList(schema("/api/users/{userId}", NUMERIC_USER_ID)));
+        disabled.init();
+        HttpServletRequest request = spy(request("/api/users/7", "partner-a"));
+        assertSame(disabled.getRouteTable(), disabled.selectTenant(request).getRouteTable());
+        verify(request, never()).getHeader(anyString());
+
+        request = spy(request("/partner-b/api/users/A7", "partner-a"));
+        assertEquals("partner-b", config(true).selectTenant(request).getTenant());
+        verify(request, never()).getHeader(anyString());
+
+        request = spy(request("/api/users/A7", "partner-a"));
+        assertEquals("partner-a", config(false).selectTenant(request).getTenant());
+        verify(request).getHeader("X-Tenant-Id");
+    }
+
+    private static MockHttpServletRequest request(String uri, String tenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (tenant != null) {
+            request.addHeader("X-Tenant-Id", tenant);
+        }
+        return request;
+    }
+
+    private static JsonSchemaConfig config(boolean pathPrefix) {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Arrays.asList(schema("/api/users/{userId}", NUMERIC_USER_ID), schema("/api/orders", ORDER_STATUS)));
+        config.getTenancy().setEnabled(true);
+        config.getTenancy().setPathPrefix(pathPrefix);
+        List<JsonSchemaConfig.SchemaConfig> tenantSchemas =
+                Collections.singletonList(schema("/api/users/{userId}", PREFIXED_USER_ID));
+        config.getTenancy().getTenants().put("partner-a", tenantSchemas);
+        config.getTenancy().getTenants().put("partner-b", tenantSchemas);
+        config.init();
+        return config;
+    }
+
+    private static JsonSchemaConfig.SchemaConfig schema(String uri, String schema) {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri(uri);
+        schemaConfig.setSchema(schema);
+        return schemaConfig;
+    }
+
+    private static JsonSchemaValidationService service(JsonSchemaConfig config) {
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+        return service;
+    }
+}
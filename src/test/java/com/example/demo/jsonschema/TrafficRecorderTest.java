@@ -0,0 +1,129 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRecordsSampledValidationsAndReadsThemBack() throws Exception {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}");
+        schemaConfig.setSchema("{\"type\":\"object\",\"properties\":{"
+                + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+                + "\"name\":{\"type\":\"string\"}}}");
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.init();
+
+        TrafficRecorder recorder = new TrafficRecorder(settings(1 << 20, 10), new SimpleMeterRegistry());
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+        service.setTrafficRecorder(recorder);
+        try {
+            service.validate("GET", "/api/users/1", Collections.singletonMap("name", "张三"));
+            assertThrows(JsonSchemaValidationException.class,
+                    () -> service.validate("GET", "/api/users/x", Collections.singletonMap("name", "n")));
+            service.validateQueryString("GET", "/api/users/2", "name=a%20b", null, null);
+            assertTrue(recorder.awaitIdle(5_000));
+        } finally {
+            recorder.shutdown();
+        }
+
+        List<RecordedRequest> requests = TrafficRecordFormat.read(tempDir);
+        assertEquals(3, requests.size());
+        assertEquals(3, recorder.getRecorded());
+        assertEquals(1, recorder.getFilesWritten());
+        RecordedRequest first = requests.get(0);
+        assertEquals("GET", first.getMethod());
+        assertEquals("/api/users/1", first.getUri());
+        assertEquals("/api/users/{userId}", first.getUriTemplate());
+        assertEquals("张三", first.getParams().get("name"));
+        assertEquals("1", first.getParams().get("userId"));
+        assertFalse(first.isFailed());
+        assertTrue(first.getValidationNanos() > 0);
+        assertTrue(first.getTimestamp() > 0);
+        assertTrue(requests.get(1).isFailed());
+        assertEquals("a b", requests.get(2).getParams().get("name"));
+    }
+
+    @Test
+    void testRotatesFilesAndKeepsNewest() throws Exception {
+        TrafficRecorder recorder = new TrafficRecorder(settings(512, 3), new SimpleMeterRegistry());
+        try {
+            for (int i = 0; i < 500; i++) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("orderId", String.valueOf(i));
+                recorder.record("GET", "/api/orders/" + i, "/api/orders/{orderId}", params, 1_000 + i, i % 2 == 0);
+                if (i % 50 == 0) {
+                    assertTrue(recorder.awaitIdle(5_000));
+                }
+            }
+            assertTrue(recorder.awaitIdle(5_000));
+        } finally {
+            recorder.shutdown();
+        }
+
+        List<Path> files = TrafficRecordFormat.listFiles(tempDir);
+        assertEquals(3, files.size());
+        assertTrue(recorder.getFilesWritten() > 3);
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 512);
+        }
+        List<RecordedRequest> requests = TrafficRecordFormat.read(tempDir);
+        RecordedRequest last = requests.get(requests.size() - 1);
+        assertEquals("/api/orders/499", last.getUri());
+        assertEquals("499", last.getParams().get("orderId"));
+        assertEquals(1_499, last.getValidationNanos());
+        assertFalse(last.isFailed());
+        assertEquals(500, recorder.getRecorded() + recorder.getDropped());
+    }
+
+    @Test
+    void testIgnoresTruncatedTailRecord() throws Exception {
+        TrafficRecorder recorder = new TrafficRecorder(settings(1 << 20, 10), new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            recorder.record("POST", "/api/orders", "/api/orders", Collections.singletonMap("status", "YES"), 10, false);
+        }
+        recorder.shutdown();
+
+        Path file = TrafficRecordFormat.listFiles(tempDir).get(0);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertEquals(9, TrafficRecordFormat.read(file).size());
+    }
+
+    private JsonSchemaConfig.TrafficRecording settings(long maxFileBytes, int maxFiles) {
+        JsonSchemaConfig.TrafficRecording settings = new JsonSchemaConfig.TrafficRecording();
+        settings.setEnabled(true);
+        settings.setSampleRate(1.0);
+        settings.setDirectory(tempDir.toString());
+        settings.setMaxFileBytes(maxFileBytes);
+        settings.setMaxFiles(maxFiles);
+        return settings;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ViolationAnalyticsTableTest {
+
+    @Test
+    void testTopViolationsAreOrderedByCount() {
+        ViolationAnalyticsTable table = table(100);
+        for (int i = 0; i < 30; i++) {
+            table.record("/api/orders", "orderDate", "format");
+        }
+        for (int i = 0; i < 10; i++) {
+            table.record("/api/orders", "status", "enum");
+        }
+        table.record("/api/users/{userId}", null, "required");
+
+        List<ViolationAnalyticsTable.Violation> top = table.top(2);
+        assertEquals(2, top.size());
+        assertEquals("orderDate", top.get(0).getProperty());
+        assertEquals(30, top.get(0).getCount());
+        assertEquals("status", top.get(1).getProperty());
+        assertEquals(10, top.get(1).getCount());
+        assertEquals(41, table.getTotal());
+        assertEquals(1, table.estimate("/api/users/{userId}", null, "required"));
+        assertNull(table.top(3).get(2).getProperty());
+    }
+
+    @Test
+    void testHeavyHittersSurviveManyRareKeysWithinCapacity() {
+        ViolationAnalyticsTable table = table(16);
+        for (int i = 0; i < 20_000; i++) {
+            table.record("/api/route" + (i % 5_000), "p" + i, "pattern");
+            if (i % 10 == 0) {
+                table.record("/api/orders", "orderDate", "format");
+            }
+            if (i % 20 == 0) {
+                table.record("/api/orders", "userId", "required");
+            }
+        }
+
+        assertTrue(table.getTracked() <= 16);
+        List<ViolationAnalyticsTable.Violation> top = table.top(2);
+        assertEquals("orderDate", top.get(0).getProperty());
+        assertTrue(top.get(0).getCount() >= 2_000);
+        assertTrue(top.get(0).getCount() <= 2_000 + table.getErrorBound());
+        assertEquals("userId", top.get(1).getProperty());
+        assertTrue(table.getReplacements() > 0);
+    }
+
+    @Test
+    void testConcurrentWritersWithSnapshots() throws Exception {
+        ViolationAnalyticsTable table = table(64);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        table.record("/api/orders", "orderDate", "format");
+                        table.record("/api/route" + thread, "p" + (i % 100), "pattern");
+                        if (i % 1_000 == 0) {
+                            assertFalse(table.top(5).isEmpty());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(160_000, table.getTotal());
+        assertTrue(table.getTracked() <= 64);
+        ViolationAnalyticsTable.Violation first = table.top(1).get(0);
+        assertEquals("orderDate", first.getProperty());
+        assertTrue(first.getCount() >= 80_000);
+    }
+
+    @Test
+    void testServiceRecordsFailedValidations() {
+        JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+        schemaConfig.setUri("/api/users/{userId}");
+        schemaConfig.setSchema("{\"type\":\"object\",\"properties\":{"
+                + "\"userId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"}}}");
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(Collections.singletonList(schemaConfig));
+        config.getViolationAnalytics().setEnabled(true);
+        config.init();
+
+        ViolationAnalyticsTable table = new ViolationAnalyticsTable(config);
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+        service.setViolationAnalytics(table);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(JsonSchemaValidationException.class,
+                    () -> service.validate("GET", "/api/users/x", Collections.emptyMap()));
+        }
+        service.validate("GET", "/api/users/1", Collections.emptyMap());
+
+        assertEquals(3, table.estimate("/api/users/{userId}", "userId", "pattern"));
+        assertEquals(3, table.getTotal());
+    }
+
+    @Test
+    void testDisabledTableRecordsNothing() {
+        JsonSchemaConfig.ViolationAnalytics settings = new JsonSchemaConfig.ViolationAnalytics();
+        ViolationAnalyticsTable table = new ViolationAnalyticsTable(settings);
+        table.record("/api/orders", "orderDate", "format");
+
+        assertEquals(0, table.getTotal());
+        assertTrue(table.top(10).isEmpty());
+    }
+
+    private static ViolationAnalyticsTable table(int capacity) {
+        JsonSchemaConfig.ViolationAnalytics settings = new JsonSchemaConfig.ViolationAnalytics();
+        settings.setEnabled(true);
+        settings.setCapacity(capacity);
+        return new ViolationAnalyticsTable(settings);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.jsonschema;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 虚拟线程支持的测试，以及平台线程与虚拟线程在高并发下的吞吐量对比。
+ * <p>
+ * 对比测试模拟 Tomcat 的两种请求处理方式：有界的平台线程池（默认 200 个线程，与 server.tomcat.threads.max 相同）
+ * 和每个请求一个虚拟线程。每个请求先验证参数，再阻塞一段时间模拟控制器调用下游服务，同时在途的请求数为 bench.concurrency。
+ * 只在支持虚拟线程的 JDK（21 及以上）上运行，结果输出到日志，可通过系统属性调整规模，例如：
+ * <pre>
+ * mvn -P virtual-threads test -Dbench.requests=100000 -Dbench.concurrency=5000 -Dbench.blockMillis=10
+ * </pre>
+ * 设置 bench.minSpeedup（例如 2）后，会断言虚拟线程的吞吐量不低于平台线程池的该倍数。
+ */
+@Slf4j
+class VirtualThreadsTest {
+
+    private static final int ROUTES = Integer.getInteger("bench.routes", 200);
+    private static final int REQUESTS = Integer.getInteger("bench.requests", 20000);
+    private static final int CONCURRENCY = Integer.getInteger("bench.concurrency", 2000);
+    private static final int PLATFORM_THREADS = Integer.getInteger("bench.platformThreads", 200);
+    private static final long BLOCK_MILLIS = Long.getLong("bench.blockMillis", 5);
+
+    private static final String ROUTE_SCHEMA = "{\"type\":\"object\",\"properties\":{"
+            + "\"itemId\":{\"type\":\"string\",\"pattern\":\"^[1-9]\\\\d*$\"},"
+            + "\"status\":{\"type\":\"string\",\"enum\":[\"YES\",\"NO\"]}},"
+            + "\"required\":[\"itemId\"]}";
+
+    @Test
+    void testThreadFactoryCreatesNamedThreads() throws Exception {
+        Thread platform = VirtualThreads.threadFactory("platform-", false).newThread(() -> {
+        });
+        assertEquals("platform-1", platform.getName());
+        assertTrue(platform.isDaemon());
+        assertFalse(VirtualThreads.isVirtual(platform));
+
+        ThreadFactory factory = VirtualThreads.threadFactory("worker-", true);
+        factory.newThread(() -> {
+        });
+        AtomicReference<Thread> current = new AtomicReference<>();
+        Thread thread = factory.newThread(() -> current.set(Thread.currentThread()));
+        thread.start();
+        thread.join(5_000);
+        assertEquals("worker-2", current.get().getName());
+        assertEquals(VirtualThreads.isSupported(), VirtualThreads.isVirtual(current.get()));
+    }
+
+    @Test
+    void testAsyncValidationRunsWithVirtualThreadsEnabled() throws Exception {
+        JsonSchemaConfig config = config();
+        config.getVirtualThreads().setEnabled(true);
+        config.getResponseValidation().setEnabled(true);
+        ResponseContractValidator validator = new ResponseContractValidator(config, new ObjectMapper(),
+                new JsonSchemaValidationLogger(config.getLogIntervalMillis()), new SimpleMeterRegistry());
+        try {
+            RouteEntry route = config.getRouteTable().getRoutes().get(0);
+            validator.submit(route, "{\"itemId\":\"1\"}".getBytes());
+            validator.submit(route, "{\"itemId\":\"x\"}".getBytes());
+            assertTrue(validator.awaitIdle(5_000));
+        } finally {
+            validator.shutdown();
+        }
+        assertEquals(1, config.getRouteTable().getRoutes().get(0).getStats().getResponseViolations());
+    }
+
+    @Test
+    void testPlatformVersusVirtualThroughput() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads require Java 21 or later");
+        JsonSchemaValidationService service = service(config());
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("routes=%d requests=%d concurrency=%d blockMillis=%d", ROUTES, REQUESTS, CONCURRENCY,
+                BLOCK_MILLIS));
+        report.add(String.format("%-22s %12s %12s %12s", "executor", "req/s", "p50(ms)", "p99(ms)"));
+
+        // 预热，避免首轮结果受类加载和 JIT 编译影响
+        ExecutorService warmUp = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        runLoad(service, warmUp, Math.min(REQUESTS, 2000));
+        warmUp.shutdown();
+
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        LoadResult platformResult = runLoad(service, platform, REQUESTS);
+        platform.shutdown();
+        ExecutorService virtual = VirtualThreads.newThreadPerTaskExecutor("bench-virtual-");
+        LoadResult virtualResult = runLoad(service, virtual, REQUESTS);
+        virtual.shutdown();
+
+        assertEquals(0, platformResult.mismatches.get());
+        assertEquals(0, virtualResult.mismatches.get());
+        report.add(platformResult.format("platform(" + PLATFORM_THREADS + ")"));
+        report.add(virtualResult.format("virtual(per request)"));
+        log.info("Platform versus virtual threads:\n{}", String.join("\n", report));
+
+        String minSpeedup = System.getProperty("bench.minSpeedup");
+        if (minSpeedup != null) {
+            assertTrue(virtualResult.throughput() >= platformResult.throughput() * Double.parseDouble(minSpeedup),
+                    String.format("virtual threads %.0f req/s is below %s x platform threads %.0f req/s",
+                            virtualResult.throughput(), minSpeedup, platformResult.throughput()));
+        }
+    }
+
+    /**
+     * 在给定执行器上发送固定数量的请求，同时在途的请求不超过 CONCURRENCY 个
+     */
+    private LoadResult runLoad(JsonSchemaValidationService service, ExecutorService executor, int requests) throws Exception {
+        LoadResult result = new LoadResult(requests);
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(requests);
+        long begin = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            final int index = i;
+            inFlight.acquire();
+            final long submitted = System.nanoTime();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    handle(service, index, result);
+                } finally {
+                    result.record(index, System.nanoTime() - submitted);
+                    inFlight.release();
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.MINUTES);
+        result.elapsedNanos = System.nanoTime() - begin;
+        return result;
+    }
+
+    /**
+     * 处理一个请求：验证参数后阻塞 BLOCK_MILLIS 毫秒，模拟控制器调用下游服务
+     */
+    private void handle(JsonSchemaValidationService service, int index, LoadResult result) {
+        boolean valid = index % 4 != 0;
+        String uri = "/api/route" + index % ROUTES + "/items/" + (valid ? String.valueOf(index + 1) : "i" + index);
+        Map<String, Object> params = Collections.singletonMap("status", "YES");
+        boolean passed;
+        try {
+            service.validate("GET", uri, params);
+            passed = true;
+        } catch (JsonSchemaValidationException e) {
+            passed = false;
+        }
+        if (passed != valid) {
+            result.mismatches.incrementAndGet();
+        }
+        try {
+            Thread.sleep(BLOCK_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static JsonSchemaConfig config() {
+        List<JsonSchemaConfig.SchemaConfig> schemas = new ArrayList<>(ROUTES);
+        for (int i = 0; i < ROUTES; i++) {
+            JsonSchemaConfig.SchemaConfig schemaConfig = new JsonSchemaConfig.SchemaConfig();
+            schemaConfig.setUri("/api/route" + i + "/items/{itemId}");
+            schemaConfig.setSchema(ROUTE_SCHEMA);
+            schemaConfig.setResponseSchema(ROUTE_SCHEMA);
+            schemas.add(schemaConfig);
+        }
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.setSchemas(schemas);
+        config.init();
+        return config;
+    }
+
+    private static JsonSchemaValidationService service(JsonSchemaConfig config) {
+        JsonSchemaValidationService service = new JsonSchemaValidationService();
+        service.setJsonSchemaConfig(config);
+        service.setObjectMapper(new ObjectMapper());
+        service.setValidationLogger(new JsonSchemaValidationLogger(config.getLogIntervalMillis()));
+        service.setLoadSheddingController(new LoadSheddingController(config, new SimpleMeterRegistry()));
+        return service;
+    }
+
+    /**
+     * 一轮负载的结果，latencies 按请求序号写入，可以被多个线程同时记录
+     */
+    private static final class LoadResult {
+        private final long[] latencies;
+        private final AtomicInteger mismatches = new AtomicInteger();
+        private long elapsedNanos;
+
+        private LoadResult(int requests) {
+            this.latencies = new long[requests];
+        }
+
+        private void record(int index, long latencyNanos) {
+            latencies[index] = latencyNanos;
+        }
+
+        private double throughput() {
+            return latencies.length / (elapsedNanos / 1e9);
+        }
+
+        private double percentile(double p) {
+            long[] sorted = Arrays.copyOf(latencies, latencies.length);
+            Arrays.sort(sorted);
+            return sorted[Math.max(0, Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1))];
+        }
+
+        private String format(String executor) {
+            return String.format("%-22s %12.0f %12.2f %12.2f", executor, throughput(), percentile(0.50) / 1e6,
+                    percentile(0.99) / 1e6);
+        }
+    }
+}
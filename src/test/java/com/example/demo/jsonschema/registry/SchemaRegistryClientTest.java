@@ -0,0 +1,160 @@
+package com.example.demo.jsonschema.registry;
+
+import com.example.demo.jsonschema.CompiledSchema;
+import com.example.demo.jsonschema.JsonSchemaConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpMethod;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 使用本地 HTTP 服务模拟 schema 注册中心，验证条件拉取、增量编译和磁盘缓存回退
+ */
+class SchemaRegistryClientTest {
+
+    private static final String USER_SCHEMA = "{\"type\":\"object\",\"properties\":{\"userId\":{\"type\":\"string\"}}}";
+    private static final String ORDER_SCHEMA = "{\"type\":\"object\",\"properties\":{\"orderId\":{\"type\":\"string\"}}}";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+
+    private final AtomicReference<String> bundle = new AtomicReference<>();
+
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/bundle", exchange -> {
+            String body = bundle.get();
+            String etag = "\"" + CompiledSchema.hash(body) + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testConditionalFetchReusesUnchangedSchemas() throws Exception {
+        bundle.set(bundle("v1", ORDER_SCHEMA));
+        JsonSchemaConfig config = newConfig();
+        SchemaRegistryClient client = new SchemaRegistryClient(config, new ObjectMapper());
+
+        assertTrue(client.poll());
+        assertEquals("v1", config.getSnapshotVersion());
+        CompiledSchema userSchema = config.getRouteTable().getRoute(HttpMethod.GET, "/api/users").getCompiledSchema();
+
+        assertFalse(client.poll());
+        assertEquals(1, notModified.get());
+
+        bundle.set(bundle("v2", "{\"type\":\"object\",\"properties\":{\"orderId\":{\"type\":\"integer\"}}}"));
+        assertTrue(client.poll());
+        assertEquals("v2", config.getSnapshotVersion());
+        assertSame(userSchema, config.getRouteTable().getRoute(HttpMethod.GET, "/api/users").getCompiledSchema());
+        assertTrue(Files.isRegularFile(cacheDir.resolve(SchemaRegistryClient.BUNDLE_FILE)));
+    }
+
+    @Test
+    void testFallsBackToDiskCacheWhenRegistryIsDown() throws Exception {
+        bundle.set(bundle("v1", ORDER_SCHEMA));
+        assertTrue(new SchemaRegistryClient(newConfig(), new ObjectMapper()).poll());
+        server.stop(0);
+
+        JsonSchemaConfig config = newConfig();
+        SchemaRegistryClient client = new SchemaRegistryClient(config, new ObjectMapper());
+        assertTrue(client.loadFromCache());
+        assertFalse(client.poll());
+        assertEquals("v1", config.getSnapshotVersion());
+        assertEquals(2, config.getRouteTable().size());
+    }
+
+    @Test
+    void testInvalidBundleKeepsPreviousSnapshot() {
+        bundle.set(bundle("v1", ORDER_SCHEMA));
+        JsonSchemaConfig config = newConfig();
+        SchemaRegistryClient client = new SchemaRegistryClient(config, new ObjectMapper());
+        assertTrue(client.poll());
+        String hash = config.getSnapshotHash();
+
+        bundle.set("{\"version\":\"v2\"}");
+        assertFalse(client.poll());
+        assertEquals("v1", config.getSnapshotVersion());
+        assertEquals(hash, config.getSnapshotHash());
+    }
+
+    @Test
+    void testBundleWithInvalidSchemaIsRejectedAsAWhole() throws Exception {
+        bundle.set(bundle("v1", ORDER_SCHEMA));
+        JsonSchemaConfig config = newConfig();
+        SchemaRegistryClient client = new SchemaRegistryClient(config, new ObjectMapper());
+        assertTrue(client.poll());
+        CompiledSchema orderSchema = config.getRouteTable().getRoute(HttpMethod.GET, "/api/orders/{orderId}").getCompiledSchema();
+        byte[] cached = Files.readAllBytes(cacheDir.resolve(SchemaRegistryClient.BUNDLE_FILE));
+        byte[] cachedEtag = Files.readAllBytes(cacheDir.resolve(SchemaRegistryClient.ETAG_FILE));
+
+        // 用户 schema 未变化且有效，订单 schema 无效，整个 bundle 都不生效
+        bundle.set(bundle("v2", "\"{not json\""));
+        assertFalse(client.poll());
+        assertEquals("v1", config.getSnapshotVersion());
+        assertEquals(2, config.getRouteTable().size());
+        assertSame(orderSchema, config.getRouteTable().getRoute(HttpMethod.GET, "/api/orders/{orderId}").getCompiledSchema());
+        assertArrayEquals(cached, Files.readAllBytes(cacheDir.resolve(SchemaRegistryClient.BUNDLE_FILE)));
+        assertArrayEquals(cachedEtag, Files.readAllBytes(cacheDir.resolve(SchemaRegistryClient.ETAG_FILE)));
+
+        // ETag 未更新，注册中心修复后下一次轮询重新拉取
+        assertFalse(client.poll());
+        assertEquals(0, notModified.get());
+        bundle.set(bundle("v3", ORDER_SCHEMA));
+        assertTrue(client.poll());
+        assertEquals("v3", config.getSnapshotVersion());
+    }
+
+    private JsonSchemaConfig newConfig() {
+        JsonSchemaConfig config = new JsonSchemaConfig();
+        config.setEnabled(true);
+        config.setIncludeMethods(Collections.singletonList("GET"));
+        config.getRegistry().setEnabled(true);
+        config.getRegistry().setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/bundle");
+        config.getRegistry().setCacheDir(cacheDir.toString());
+        config.init();
+        return config;
+    }
+
+    private static String bundle(String version, String orderSchema) {
+        return "{\"version\":\"" + version + "\",\"schemas\":["
+                + "{\"uri\":\"/api/users\",\"schema\":" + USER_SCHEMA + "},"
+                + "{\"uri\":\"/api/orders/{orderId}\",\"methods\":[\"GET\"],\"schema\":" + orderSchema + "}"
+                + "]}";
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.jsonschema.replay;
+
+import com.example.demo.jsonschema.JsonSchemaConfig;
+import com.example.demo.jsonschema.TrafficRecorder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessLogReplayToolTest {
+
+    private static final int REPEAT = 20_000;
+
+    @TempDir
+    Path tempDir;
+
+    private AccessLogReplayTool tool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tool = new AccessLogReplayTool(AccessLogReplayTool.loadConfig(null), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tool.shutdown();
+    }
+
+    @Test
+    void testReplayCountsPassAndFailPerRoute() throws Exception {
+        Path log = tempDir.resolve("access.log");
+        try (BufferedWriter writer = Files.newBufferedWriter(log, StandardCharsets.UTF_8)) {
+            writer.write("# method uri query\n");
+            for (int i = 1; i <= REPEAT; i++) {
+                writer.write("GET /api/users?pageNum=" + i + "&pageSize=10\n");
+                writer.write("GET /api/users pageNum=x&pageSize=" + i + "\n");
+                writer.write("GET /api/users/" + i + "/orders/2?status=YES&orderDate=2024-01-01\n");
+                writer.write("GET /api/users/" + i + "/orders/2?status=YES\n");
+                writer.write("GET /api/unknown/" + i + "\n");
+                writer.write("garbage\n");
+            }
+        }
+        // 确保日志大于拆分阈值，覆盖 fork-join 按行拆分的路径
+        assertTrue(Files.size(log) > ReplayTask.SPLIT_THRESHOLD);
+
+        ReplayReport report = tool.replay(log);
+
+        assertEquals(6L * REPEAT, report.getLines());
+        assertEquals(REPEAT, report.getMalformed());
+        assertEquals(REPEAT, report.getUnmatched());
+
+        ReplayReport.RouteStats users = report.getRoutes().get("GET /api/users");
+        assertEquals(REPEAT, users.getPass());
+        assertEquals(REPEAT, users.getFail());
+        ReplayReport.RouteStats orders = report.getRoutes().get("GET /api/users/{userId}/orders/{orderId}");
+        assertEquals(REPEAT, orders.getPass());
+        assertEquals(REPEAT, orders.getFail());
+
+        List<Map.Entry<String, Long>> top = report.topViolations(10);
+        assertEquals(2, top.size());
+        assertTrue(report.getViolations().containsKey("GET /api/users pageNum pattern"));
+        assertTrue(report.getViolations().containsKey("GET /api/users/{userId}/orders/{orderId} orderDate required"));
+    }
+
+    @Test
+    void testReplayRecordingReportsChangedOutcomes() throws Exception {
+        JsonSchemaConfig.TrafficRecording settings = new JsonSchemaConfig.TrafficRecording();
+        settings.setEnabled(true);
+        settings.setDirectory(tempDir.resolve("recordings").toString());
+        settings.setQueueCapacity(2 * REPEAT + 2);
+        TrafficRecorder recorder = new TrafficRecorder(settings, new SimpleMeterRegistry());
+        for (int i = 1; i <= REPEAT; i++) {
+            recorder.record("GET", "/api/users", "/api/users", page(String.valueOf(i)), 1_000, false);
+            recorder.record("GET", "/api/users", "/api/users", page("x"), 1_000, true);
+        }
+        // 录制时通过、按当前 schema 验证失败的请求
+        recorder.record("GET", "/api/users", "/api/users", page("-1"), 1_000, false);
+        recorder.record("GET", "/api/unknown", "/api/unknown", page("1"), 1_000, false);
+        recorder.shutdown();
+        assertEquals(0, recorder.getDropped());
+
+        ReplayReport report = tool.replayRecording(tempDir.resolve("recordings"));
+
+        assertEquals(2L * REPEAT + 2, report.getLines());
+        assertEquals(1, report.getUnmatched());
+        assertEquals(2L * REPEAT + 1, report.getRecorded());
+        assertEquals(1, report.getChanged());
+        ReplayReport.RouteStats users = report.getRoutes().get("GET /api/users");
+        assertEquals(REPEAT, users.getPass());
+        assertEquals(REPEAT + 1, users.getFail());
+    }
+
+    @Test
+    void testParseQueryKeepsFirstValue() throws Exception {
+        Map<String, Object> params = ReplayTask.parseQuery("a=1&a=2&b=%E4%BD%A0&c");
+        assertEquals("1", params.get("a"));
+        assertEquals("你", params.get("b"));
+        assertEquals("", params.get("c"));
+    }
+
+    private static Map<String, Object> page(String pageNum) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("pageNum", pageNum);
+        params.put("pageSize", "10");
+        return params;
+    }
+}